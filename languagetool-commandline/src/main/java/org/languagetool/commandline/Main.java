@@ -18,7 +18,6 @@
  */
 package org.languagetool.commandline;
 
-import org.apache.tika.language.LanguageIdentifier;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.MultiThreadedJLanguageTool;
@@ -27,6 +26,7 @@ import org.languagetool.language.English;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.bitext.BitextRule;
 import org.languagetool.tools.JnaTools;
+import org.languagetool.tools.LanguageDetector;
 import org.languagetool.tools.StringTools;
 import org.languagetool.tools.Tools;
 import org.xml.sax.SAXException;
@@ -540,9 +540,7 @@ class Main {
   }
 
   private static Language detectLanguageOfString(final String text) {
-    final LanguageIdentifier identifier = new LanguageIdentifier(text);
-    final Language lang = Language.getLanguageForShortName(identifier.getLanguage());
-    return lang;
+    return LanguageDetector.getInstance().detectLanguage(text);
   }
 
 }
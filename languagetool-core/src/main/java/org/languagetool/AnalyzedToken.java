@@ -18,6 +18,7 @@
  */
 package org.languagetool;
 
+import java.io.Serializable;
 import java.util.Objects;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
@@ -27,7 +28,9 @@ import org.apache.commons.lang.builder.EqualsBuilder;
  * 
  * @author Daniel Naber
  */
-public class AnalyzedToken {
+public class AnalyzedToken implements Serializable {
+
+  private static final long serialVersionUID = 6034216735394866985L;
 
   private final String token;
   private final String posTag;
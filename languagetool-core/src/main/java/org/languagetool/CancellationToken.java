@@ -0,0 +1,113 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Allows aborting a check from another thread, e.g. because the result isn't needed anymore.
+ * Set it with {@link JLanguageTool#setCancellationToken(CancellationToken)}. Cancellation
+ * is cooperative: the check looks at the token between sentences and between groups of rules
+ * and then throws a {@link CheckCancelledException}. The same token can be used for several
+ * checks, e.g. all checks done for one request. Once cancelled, a token stays cancelled.
+ * @since 2.5
+ */
+public class CancellationToken {
+
+  private final AtomicReference<String> reason = new AtomicReference<>();
+  private final long timeoutMillis;
+  private final AtomicLong deadline;
+
+  /**
+   * A token that's only cancelled by calling {@link #cancel(String)}.
+   */
+  public CancellationToken() {
+    this(0);
+  }
+
+  /**
+   * A token that's also cancelled automatically after the given time. Checks aborted
+   * because of that throw a {@link CheckTimeoutException}.
+   * @param timeoutMillis the time in milliseconds from now, or {@code 0} for no limit
+   */
+  public CancellationToken(long timeoutMillis) {
+    if (timeoutMillis < 0) {
+      throw new IllegalArgumentException("timeoutMillis must be >= 0: " + timeoutMillis);
+    }
+    this.timeoutMillis = timeoutMillis;
+    this.deadline = new AtomicLong(timeoutMillis > 0 ? System.currentTimeMillis() + timeoutMillis : 0);
+  }
+
+  /**
+   * Cancel all checks using this token. Only the first call has an effect.
+   * @param reason why the checks are cancelled, used as the message of the {@link CheckCancelledException}
+   */
+  public void cancel(String reason) {
+    this.reason.compareAndSet(null, reason);
+  }
+
+  public boolean isCancelled() {
+    return reason.get() != null || isTimedOut();
+  }
+
+  /**
+   * @throws CheckCancelledException if the token has been cancelled
+   * @throws CheckTimeoutException if the token's time is up
+   */
+  public void throwIfCancelled() {
+    final String cancelReason = reason.get();
+    if (cancelReason != null) {
+      throw new CheckCancelledException(cancelReason);
+    }
+    if (isTimedOut()) {
+      throw new CheckTimeoutException(timeoutMillis);
+    }
+  }
+
+  /**
+   * The time left until the token is cancelled automatically, at least 1.
+   * @return the time in milliseconds, or {@code 0} if the token has no time limit
+   */
+  public long getRemainingTimeMillis() {
+    final long currentDeadline = deadline.get();
+    return currentDeadline > 0 ? Math.max(1, currentDeadline - System.currentTimeMillis()) : 0;
+  }
+
+  /**
+   * Postpone the automatic cancellation, e.g. because the thread running the check
+   * has spent the given time on other work. Has no effect if the token has no time limit.
+   * @param millis the time in milliseconds the deadline is moved back
+   */
+  public void extendTimeout(long millis) {
+    if (millis < 0) {
+      throw new IllegalArgumentException("millis must be >= 0: " + millis);
+    }
+    long currentDeadline;
+    do {
+      currentDeadline = deadline.get();
+    } while (currentDeadline > 0 && !deadline.compareAndSet(currentDeadline, currentDeadline + millis));
+  }
+
+  private boolean isTimedOut() {
+    final long currentDeadline = deadline.get();
+    return currentDeadline > 0 && System.currentTimeMillis() > currentDeadline;
+  }
+
+}
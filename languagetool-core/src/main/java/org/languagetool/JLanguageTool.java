@@ -24,22 +24,31 @@ import org.languagetool.databroker.ResourceDataBroker;
 import org.languagetool.markup.AnnotatedText;
 import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.Category;
+import org.languagetool.rules.IncorrectExample;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.RuleMatchFilter;
 import org.languagetool.rules.SameRuleGroupFilter;
+import org.languagetool.rules.patterns.CompiledRules;
+import org.languagetool.rules.patterns.FalseFriendRuleIndex;
 import org.languagetool.rules.patterns.FalseFriendRuleLoader;
 import org.languagetool.rules.patterns.PatternRule;
 import org.languagetool.rules.patterns.PatternRuleLoader;
 import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.languagetool.rules.spelling.morfologik.MorfologikSpellerRule;
 import org.languagetool.rules.spelling.SuggestionExtractor;
+import org.languagetool.tagging.BaseTagger;
 import org.languagetool.tagging.Tagger;
 import org.languagetool.tagging.disambiguation.Disambiguator;
+import org.languagetool.tagging.disambiguation.rules.XmlRuleDisambiguator;
 import org.languagetool.tokenizers.Tokenizer;
+import org.languagetool.tools.ResourceLoaderPool;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
@@ -101,6 +110,12 @@ public class JLanguageTool {
   /** Name of the message bundle for translations. */
   public static final String MESSAGE_BUNDLE = "org.languagetool.MessagesBundle";
 
+  // how often cancellation is checked while matching a sentence against the rules:
+  private static final int RULES_PER_CANCELLATION_CHECK = 64;
+  // size of the text checked by warmUp() and how often it is checked:
+  private static final int WARM_UP_EXAMPLES = 50;
+  private static final int WARM_UP_ROUNDS = 5;
+
   /**
    * Returns the build date or {@code null} if not run from JAR.
    */
@@ -139,6 +154,11 @@ public class JLanguageTool {
   private PrintStream printStream;
 
   private int sentenceCount;
+  private long analysisTimeNanos;
+  private long matchingTimeNanos;
+  private CancellationToken cancellationToken;
+  private SentenceChunkListener sentenceChunkListener;
+  private int sentenceChunkSize;
 
   private boolean listUnknownWords;
   private Set<String> unknownWords;  
@@ -202,6 +222,33 @@ public class JLanguageTool {
     wordTokenizer = language.getWordTokenizer();
     chunker = language.getChunker();
   }
+
+  /**
+   * Start loading the dictionaries and disambiguation rules in the background,
+   * as they would otherwise be loaded one after the other by the first check.
+   * Call this before activating the pattern rules, so they are parsed while the other
+   * resources are being loaded. Applications that check many texts, like a server
+   * warming up, benefit from this; others can just let the first check load the resources.
+   * @since 2.5
+   */
+  public void preloadResources() {
+    final ResourceDataBroker dataBroker = getDataBroker();
+    if (tagger instanceof BaseTagger) {
+      final String taggerFile = ((BaseTagger) tagger).getFileName();
+      if (taggerFile != null && dataBroker.resourceExists(taggerFile)) {
+        ResourceLoaderPool.preloadDictionary(taggerFile);
+      }
+    }
+    for (Rule rule : builtinRules) {
+      if (rule instanceof MorfologikSpellerRule) {
+        final String spellerFile = ((MorfologikSpellerRule) rule).getFileName();
+        if (spellerFile != null && dataBroker.resourceExists(spellerFile)) {
+          ResourceLoaderPool.preloadDictionary(spellerFile);
+        }
+      }
+    }
+    XmlRuleDisambiguator.preloadRules(language);
+  }
   
   /**
    * The grammar checker needs resources from following
@@ -320,14 +367,28 @@ public class JLanguageTool {
    * @return a List of {@link PatternRule} objects
    */
   public List<PatternRule> loadPatternRules(final String filename) throws IOException {
-    final PatternRuleLoader ruleLoader = new PatternRuleLoader();
-    final InputStream is = this.getClass().getResourceAsStream(filename);
+    InputStream is = this.getClass().getResourceAsStream(filename);
+    final String path;
     if (is == null) {
       // happens for external rules plugged in as an XML file:
-      return ruleLoader.getRules(new File(filename));
+      final File file = new File(filename);
+      is = new FileInputStream(file);
+      path = file.getAbsolutePath();
     } else {
-      return ruleLoader.getRules(is, filename);
+      path = filename;
     }
+    final byte[] xml;
+    try {
+      xml = CompiledRules.readBytes(is);
+    } finally {
+      is.close();
+    }
+    // prefer the precompiled rules, if they have been created at build time:
+    final List<PatternRule> compiledRules = CompiledRules.load(filename, xml, PatternRule.class);
+    if (compiledRules != null) {
+      return compiledRules;
+    }
+    return new PatternRuleLoader().getRules(new ByteArrayInputStream(xml), path);
   }
 
   /**
@@ -345,12 +406,9 @@ public class JLanguageTool {
       return new ArrayList<>();
     }
     final FalseFriendRuleLoader ruleLoader = new FalseFriendRuleLoader();
-    final InputStream is = this.getClass().getResourceAsStream(filename);
-    if (is == null) {
-      return ruleLoader.getRules(new File(filename), language, motherTongue);
-    } else {
-      return ruleLoader.getRules(is, language, motherTongue);
-    }
+    // only parse the rules of this language pair instead of the whole file:
+    final FalseFriendRuleIndex index = FalseFriendRuleIndex.getIndex(filename);
+    return ruleLoader.getRules(index.getRulesAsStream(language, motherTongue), language, motherTongue);
   }
 
   /**
@@ -361,8 +419,18 @@ public class JLanguageTool {
     final List<PatternRule> patternRules = new ArrayList<>();
     final List<String> enabledRules = language.getDefaultEnabledRulesForVariant();
     final List<String> disabledRules = language.getDefaultDisabledRulesForVariant();
-    for (String patternRuleFileName : language.getRuleFileNames()) {
-      patternRules.addAll(loadPatternRules(patternRuleFileName));
+    // the rule files are independent of each other, so load them at the same time:
+    final List<Callable<List<PatternRule>>> loaders = new ArrayList<>();
+    for (final String patternRuleFileName : language.getRuleFileNames()) {
+      loaders.add(new Callable<List<PatternRule>>() {
+        @Override
+        public List<PatternRule> call() throws IOException {
+          return loadPatternRules(patternRuleFileName);
+        }
+      });
+    }
+    for (List<PatternRule> rules : ResourceLoaderPool.loadAll(loaders)) {
+      patternRules.addAll(rules);
     }
     if (!enabledRules.isEmpty() || !disabledRules.isEmpty()) {
       for (PatternRule patternRule : patternRules) {
@@ -567,9 +635,13 @@ public class JLanguageTool {
 
     sentenceCount = sentences.size();
     unknownWords = new HashSet<>();
+    final long analysisStart = System.nanoTime();
     final List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);    
+    final long matchingStart = System.nanoTime();
+    analysisTimeNanos = matchingStart - analysisStart;
     
     final List<RuleMatch> ruleMatches = performCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText);
+    matchingTimeNanos = System.nanoTime() - matchingStart;
     
     if (!ruleMatches.isEmpty() && !paraMode.equals(ParagraphHandling.ONLYNONPARA)) {
       // removing false positives in paragraph-level rules
@@ -592,8 +664,16 @@ public class JLanguageTool {
   private List<AnalyzedSentence> analyzeSentences(final List<String> sentences) throws IOException {
     final List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
     
+    final SentenceChunkListener chunkListener = sentenceChunkListener;
+    int chunkChars = 0;
     int j = 0;
     for (final String sentence : sentences) {
+      if (chunkListener != null && chunkChars >= sentenceChunkSize) {
+        chunkListener.chunkDone();
+        chunkChars = 0;
+      }
+      checkCancelled();
+      chunkChars += sentence.length();
       AnalyzedSentence analyzedSentence = getAnalyzedSentence(sentence);
       rememberUnknownWords(analyzedSentence);
       if (++j == sentences.size()) {
@@ -614,7 +694,7 @@ public class JLanguageTool {
     final Callable<List<RuleMatch>> matcher = new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode, annotatedText, 0, 0, 1);
     try {
       return matcher.call();
-    } catch (IOException e) {
+    } catch (IOException | RuntimeException e) {
       throw e;
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -635,7 +715,11 @@ public class JLanguageTool {
       int columnCount, final String sentence, final AnalyzedSentence analyzedSentence, final AnnotatedText annotatedText)
         throws IOException {
     final List<RuleMatch> sentenceMatches = new ArrayList<>();
+    int ruleCount = 0;
     for (final Rule rule : allRules) {
+      if (++ruleCount % RULES_PER_CANCELLATION_CHECK == 0) {
+        checkCancelled();
+      }
       if (disabledRules.contains(rule.getId())
           || (rule.isDefaultOff() && !enabledRules.contains(rule.getId()))) {
         continue;
@@ -920,6 +1004,90 @@ public class JLanguageTool {
     return sentenceCount;
   }
 
+  /**
+   * Set a token that allows aborting checks from another thread, or limiting the time they may take
+   * (see {@link CancellationToken#CancellationToken(long)}). It's used by all following
+   * calls to check methods until another token is set.
+   * @param cancellationToken the token, or {@code null} to not allow cancellation (the default)
+   * @since 2.5
+   */
+  public void setCancellationToken(CancellationToken cancellationToken) {
+    this.cancellationToken = cancellationToken;
+  }
+
+  /**
+   * Set a listener that's notified whenever sentences with at least {@code chunkSize} characters
+   * have been processed, both when analyzing and when matching the sentences. It's used by all
+   * following calls to check methods until another listener is set.
+   * @param listener the listener, or {@code null} for no notifications (the default)
+   * @param chunkSize the minimum number of characters between two notifications
+   * @since 2.5
+   */
+  public void setSentenceChunkListener(SentenceChunkListener listener, int chunkSize) {
+    if (listener != null && chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be > 0: " + chunkSize);
+    }
+    this.sentenceChunkListener = listener;
+    this.sentenceChunkSize = chunkSize;
+  }
+
+  /**
+   * @throws CheckTimeoutException if the cancellation token's time is up
+   * @throws CheckCancelledException if the check has been cancelled with the cancellation token
+   */
+  private void checkCancelled() {
+    final CancellationToken token = cancellationToken;
+    if (token != null) {
+      token.throwIfCancelled();
+    }
+  }
+
+  /**
+   * Load the resources that the first check would otherwise load lazily, like dictionaries,
+   * disambiguation rules, and spell checkers, and give the JIT compiler a chance to compile
+   * the code used for checking. For this, a text made of the active rules' incorrect examples
+   * is checked a few times. Call this after the rules have been activated.
+   * @since 2.5
+   */
+  public void warmUp() throws IOException {
+    final String text = getWarmUpText();
+    for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+      check(text);
+    }
+  }
+
+  private String getWarmUpText() {
+    final StringBuilder text = new StringBuilder();
+    int exampleCount = 0;
+    for (Rule rule : getAllActiveRules()) {
+      for (IncorrectExample example : rule.getIncorrectExamples()) {
+        text.append(example.getExample().replace("<marker>", "").replace("</marker>", "")).append("\n\n");
+        if (++exampleCount >= WARM_UP_EXAMPLES) {
+          return text.toString();
+        }
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Time in nanoseconds the latest call to a check method like {@link #check(String)} has spent
+   * on analyzing the sentences (tokenization, tagging, disambiguation).
+   * @since 2.5
+   */
+  public long getAnalysisTimeNanos() {
+    return analysisTimeNanos;
+  }
+
+  /**
+   * Time in nanoseconds the latest call to a check method like {@link #check(String)} has spent
+   * on matching the rules against the analyzed sentences.
+   * @since 2.5
+   */
+  public long getMatchingTimeNanos() {
+    return matchingTimeNanos;
+  }
+
   protected void printIfVerbose(final String s) {
     if (printStream != null) {
       printStream.println(s);
@@ -974,9 +1142,17 @@ public class JLanguageTool {
     @Override
     public List<RuleMatch> call() throws Exception {
       final List<RuleMatch> ruleMatches = new ArrayList<>();
+      final SentenceChunkListener chunkListener = sentenceChunkListener;
+      int chunkChars = 0;
       int i = 0;
       for (final AnalyzedSentence analyzedSentence : analyzedSentences) {
+        if (chunkListener != null && chunkChars >= sentenceChunkSize) {
+          chunkListener.chunkDone();
+          chunkChars = 0;
+        }
+        checkCancelled();
         final String sentence = sentences.get(i++);
+        chunkChars += sentence.length();
         final List<RuleMatch> sentenceMatches =
                 checkAnalyzedSentence(paraMode, rules, charCount, lineCount,
                         columnCount, sentence, analyzedSentence, annotatedText);
@@ -47,10 +47,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.Set;
@@ -146,6 +148,9 @@ public abstract class Language {
 
   private static final Language[] BUILTIN_LANGUAGES = LANGUAGES;
 
+  // resolves language codes and names without iterating over all languages:
+  private static volatile LanguageIndex index;
+
   private static final Disambiguator DEMO_DISAMBIGUATOR = new DemoDisambiguator();
   private static final Tagger DEMO_TAGGER = new DemoTagger();
   private static final SentenceTokenizer SENTENCE_TOKENIZER = new RegexSentenceTokenizer();
@@ -469,12 +474,7 @@ public abstract class Language {
    * @return a Language object or {@code null} if there is no such language
    */
   public static Language getLanguageForName(final String languageName) {
-    for (Language element : Language.LANGUAGES) {
-      if (languageName.equals(element.getName())) {
-        return element;
-      }
-    }
-    return null;
+    return getIndex().byName.get(languageName);
   }
 
   /**
@@ -511,46 +511,26 @@ public abstract class Language {
 
   private static Language getLanguageForShortNameOrNull(final String langCode) {
     StringTools.assureSet(langCode, "langCode");
-    Language result = null;
-    if (langCode.contains("-x-")) {
-      // e.g. "de-DE-x-simple-language"
-      for (Language element : Language.LANGUAGES) {
-        if (element.getShortName().equalsIgnoreCase(langCode)) {
-          return element;
-        }
-      }
-    } else if (langCode.contains("-")) {
+    String code = langCode;
+    if (!langCode.contains("-x-") && langCode.contains("-")) {
+      // e.g. en-US or ca-ES-valencia
       final String[] parts = langCode.split("-");
-      if (parts.length == 2) { // e.g. en-US
-        for (Language element : Language.LANGUAGES) {
-          if (parts[0].equalsIgnoreCase(element.getShortName())
-              && element.getCountries().length == 1
-              && parts[1].equalsIgnoreCase(element.getCountries()[0])) {
-            result = element;
-            break;
-          }
-        }
-      } else if (parts.length == 3) { // e.g. ca-ES-valencia
-        for (Language element : Language.LANGUAGES) {
-          if (parts[0].equalsIgnoreCase(element.getShortName())
-              && element.getCountries().length == 1
-              && parts[1].equalsIgnoreCase(element.getCountries()[0])
-              && parts[2].equalsIgnoreCase(element.getVariant())) {
-            result = element;
-            break;
-          }
-        }
-      }
-      else {
+      if (parts.length != 2 && parts.length != 3) {
         throw new IllegalArgumentException("'" + langCode + "' isn't a valid language code");
       }
-    } else {
-      for (Language element : Language.LANGUAGES) {
-        if (langCode.equalsIgnoreCase(element.getShortName())) {
-          result = element;
-          break;
-        }
-      }
+      // split() has removed trailing dashes:
+      code = StringTools.listToString(Arrays.asList(parts), "-");
+    }
+    return getIndex().byCode.get(code.toLowerCase(Locale.ENGLISH));
+  }
+
+  private static LanguageIndex getIndex() {
+    final Language[] languages = LANGUAGES;
+    LanguageIndex result = index;
+    if (result == null || result.languages != languages) {
+      // first use or LANGUAGES has been replaced, e.g. by reInit():
+      result = new LanguageIndex(languages);
+      index = result;
     }
     return result;
   }
@@ -719,4 +699,42 @@ public abstract class Language {
     return sb.toString();
   }
 
+  /**
+   * Lookup tables for the languages in {@link #LANGUAGES}. Language codes are stored
+   * in lowercase, with and without country and variant. For each key, the first
+   * matching language is kept, so the lookup finds the same language as iterating
+   * over {@link #LANGUAGES} did.
+   */
+  private static final class LanguageIndex {
+
+    private final Language[] languages;
+    private final Map<String, Language> byCode = new HashMap<>();
+    private final Map<String, Language> byName = new HashMap<>();
+
+    private LanguageIndex(Language[] languages) {
+      this.languages = languages;
+      for (Language language : languages) {
+        putIfAbsent(byName, language.getName(), language);
+        // e.g. "en" or "de-DE-x-simple-language":
+        final String shortName = language.getShortName().toLowerCase(Locale.ENGLISH);
+        putIfAbsent(byCode, shortName, language);
+        final String[] countries = language.getCountries();
+        if (countries.length == 1) {
+          // e.g. "en-us" and "ca-es-valencia":
+          final String withCountry = shortName + "-" + countries[0].toLowerCase(Locale.ENGLISH);
+          putIfAbsent(byCode, withCountry, language);
+          if (language.getVariant() != null) {
+            putIfAbsent(byCode, withCountry + "-" + language.getVariant().toLowerCase(Locale.ENGLISH), language);
+          }
+        }
+      }
+    }
+
+    private static void putIfAbsent(Map<String, Language> map, String key, Language language) {
+      if (!map.containsKey(key)) {
+        map.put(key, language);
+      }
+    }
+  }
+
 }
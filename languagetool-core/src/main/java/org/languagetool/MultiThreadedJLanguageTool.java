@@ -97,7 +97,12 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
       for (Future<List<RuleMatch>> future : futures) {
         ruleMatches.addAll(future.get());
       }
-    } catch (InterruptedException | ExecutionException e) {
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof CheckCancelledException) {
+        throw (CheckCancelledException) e.getCause();
+      }
+      throw new RuntimeException(e);
+    } catch (InterruptedException e) {
       throw new RuntimeException(e);
     } finally {
       executorService.shutdownNow();
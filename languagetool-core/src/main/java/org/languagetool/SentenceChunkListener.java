@@ -0,0 +1,36 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+/**
+ * Gets notified while a long text is being checked, each time another chunk of sentences
+ * has been processed. Callers that run many checks at once, like a server, can use this to let
+ * other checks run before the rest of a long text is checked. Set it with
+ * {@link JLanguageTool#setSentenceChunkListener(SentenceChunkListener, int)}.
+ * @since 2.5
+ */
+public interface SentenceChunkListener {
+
+  /**
+   * Called between two sentences, in the thread that checks the text. With a
+   * {@link MultiThreadedJLanguageTool}, it may be called from several threads at the same time.
+   */
+  void chunkDone();
+
+}
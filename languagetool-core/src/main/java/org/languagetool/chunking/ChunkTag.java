@@ -18,11 +18,15 @@
  */
 package org.languagetool.chunking;
 
+import java.io.Serializable;
+
 /**
  * The name of a chunk. Just a string - this class exists mostly for better type safety.
  * @since 2.3
  */
-public class ChunkTag {
+public class ChunkTag implements Serializable {
+
+  private static final long serialVersionUID = -2637124557680698285L;
 
   private final String chunkTag;
 
@@ -18,10 +18,17 @@
  */
 package org.languagetool.databroker;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.languagetool.JLanguageTool;
+import org.languagetool.tools.ConcurrentLruCache;
 
 /**
  * Responsible for getting any items from the grammar checker's resource
@@ -68,6 +75,13 @@ import org.languagetool.JLanguageTool;
  * /de/grammar.xml} as a string. Note: The {@code /rules} directory's name isn't
  * passed, because its name might have changed. The same usage does apply for the
  * {@code /resource} directory.
+ * <p>
+ *
+ * Resources are looked up in the class path only once: the resulting {@link URL}s, and
+ * whether a resource exists at all, are cached. The content of small resources from the
+ * {@code /resource} directory, like word lists that are read whenever a rule is created,
+ * is cached too, see {@link #setMaxCachedContentSize(int)}. Use {@link #clearCache()}
+ * if resources are added to or modified in the class path at runtime.
  *
  * @see ResourceDataBroker
  * @author PAX
@@ -87,6 +101,21 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
    */
   protected String rulesDir;
 
+  /**
+   * The default maximum size of a resource whose content is cached (16 KB).
+   * @since 2.5
+   */
+  public static final int DEFAULT_MAX_CACHED_CONTENT_SIZE = 16 * 1024;
+
+  private static final int MAX_CACHED_CONTENTS = 256;
+  private static final Object MISSING = new Object();
+
+  // complete path -> URL, or MISSING if the resource doesn't exist:
+  private final ConcurrentMap<String, Object> urls = new ConcurrentHashMap<>();
+  // complete path -> content:
+  private final ConcurrentLruCache<String, byte[]> contents = new ConcurrentLruCache<>(MAX_CACHED_CONTENTS);
+  private volatile int maxCachedContentSize = DEFAULT_MAX_CACHED_CONTENT_SIZE;
+
   /**
    * Instantiates this data broker with the default resource directory names
    * as specified in:
@@ -132,9 +161,13 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
   @Override
   public InputStream getFromResourceDirAsStream(final String path) {
     final String completePath = this.getCompleteResourceUrl(path);
-    final InputStream resourceAsStream = ResourceDataBroker.class.getResourceAsStream(completePath);
-    assertNotNull(resourceAsStream, path, completePath);
-    return resourceAsStream;
+    final byte[] content = contents.get(completePath);
+    if (content != null) {
+      return new ByteArrayInputStream(content);
+    }
+    final URL resource = getUrl(completePath);
+    assertNotNull(resource, path, completePath);
+    return openStream(resource, completePath, maxCachedContentSize);
   }
 
   /**
@@ -152,7 +185,7 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
   @Override
   public URL getFromResourceDirAsUrl(final String path) {
     final String completePath = this.getCompleteResourceUrl(path);
-    final URL resource = ResourceDataBroker.class.getResource(completePath);
+    final URL resource = getUrl(completePath);
     assertNotNull(resource, path, completePath);
     return resource;
   }
@@ -199,9 +232,10 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
   @Override
   public InputStream getFromRulesDirAsStream(final String path) {
     final String completePath = this.getCompleteRulesUrl(path);
-    final InputStream resourceAsStream = ResourceDataBroker.class.getResourceAsStream(completePath);
-    assertNotNull(resourceAsStream, path, completePath);
-    return resourceAsStream;
+    final URL resource = getUrl(completePath);
+    assertNotNull(resource, path, completePath);
+    // rule files are large, so their content is not cached:
+    return openStream(resource, completePath, 0);
   }
 
   /**
@@ -218,11 +252,61 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
   @Override
   public URL getFromRulesDirAsUrl(final String path) {
     final String completePath = this.getCompleteRulesUrl(path);
-    final URL resource = ResourceDataBroker.class.getResource(completePath);
+    final URL resource = getUrl(completePath);
     assertNotNull(resource, path, completePath);
     return resource;
   }
 
+  /**
+   * The resource's URL, looked up in the class path only once.
+   * @return the URL or {@code null} if there's no such resource
+   */
+  private URL getUrl(String completePath) {
+    final Object cached = urls.get(completePath);
+    if (cached != null) {
+      return cached != MISSING ? (URL) cached : null;
+    }
+    final URL url = ResourceDataBroker.class.getResource(completePath);
+    urls.put(completePath, url != null ? url : MISSING);
+    return url;
+  }
+
+  /**
+   * @param maxContentSize the content is cached if the resource is not larger than this
+   */
+  private InputStream openStream(URL resource, String completePath, int maxContentSize) {
+    InputStream stream = null;
+    try {
+      stream = resource.openStream();
+      if (maxContentSize <= 0) {
+        return stream;
+      }
+      // read one byte more than the limit to find out whether the resource is small enough:
+      final byte[] buffer = new byte[maxContentSize + 1];
+      int length = 0;
+      int count;
+      while (length < buffer.length && (count = stream.read(buffer, length, buffer.length - length)) != -1) {
+        length += count;
+      }
+      if (length > maxContentSize) {
+        return new SequenceInputStream(new ByteArrayInputStream(buffer, 0, length), stream);
+      }
+      stream.close();
+      final byte[] content = Arrays.copyOf(buffer, length);
+      contents.put(completePath, content);
+      return new ByteArrayInputStream(content);
+    } catch (IOException e) {
+      if (stream != null) {
+        try {
+          stream.close();
+        } catch (IOException ignored) {
+          // the original exception is more important
+        }
+      }
+      throw new RuntimeException("Could not read " + completePath + " from " + resource, e);
+    }
+  }
+
   private void assertNotNull(Object object, String path, String completePath) {
     if (object == null) {
       throw new RuntimeException("Path " + path + " not found in class path at " + completePath);
@@ -265,7 +349,7 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
   @Override
   public boolean resourceExists(String path) {
     final String completePath = this.getCompleteResourceUrl(path);
-    return ResourceDataBroker.class.getResource(completePath) != null;
+    return getUrl(completePath) != null;
   }
   
   /**
@@ -278,7 +362,47 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
   @Override
   public boolean ruleFileExists(String path) {
     final String completePath = this.getCompleteRulesUrl(path);
-    return ResourceDataBroker.class.getResource(completePath) != null;
+    return getUrl(completePath) != null;
+  }
+
+  /**
+   * @param maxCachedContentSize the content of resources from the {@code /resource} directory that are
+   *            not larger than this many bytes is cached, so they don't need to be read again when rules
+   *            using them are created; the default is {@link #DEFAULT_MAX_CACHED_CONTENT_SIZE},
+   *            {@code 0} disables caching the content. Setting the size clears the content cache.
+   * @since 2.5
+   */
+  public void setMaxCachedContentSize(int maxCachedContentSize) {
+    if (maxCachedContentSize < 0) {
+      throw new IllegalArgumentException("maxCachedContentSize must be >= 0: " + maxCachedContentSize);
+    }
+    this.maxCachedContentSize = maxCachedContentSize;
+    contents.clear();
+  }
+
+  /**
+   * @since 2.5
+   */
+  public int getMaxCachedContentSize() {
+    return maxCachedContentSize;
+  }
+
+  /**
+   * The cache of resource contents, e.g. to get its hit rate.
+   * @since 2.5
+   */
+  public ConcurrentLruCache<String, byte[]> getContentCache() {
+    return contents;
+  }
+
+  /**
+   * Forget the cached URLs, existence checks, and contents of resources, e.g. after
+   * resources have been added to or modified in the class path.
+   * @since 2.5
+   */
+  public void clearCache() {
+    urls.clear();
+    contents.clear();
   }
 
   
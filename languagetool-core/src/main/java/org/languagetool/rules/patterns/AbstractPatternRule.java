@@ -20,12 +20,18 @@
 package org.languagetool.rules.patterns;
 
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.Language;
+import org.languagetool.rules.Category;
+import org.languagetool.rules.IncorrectExample;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 
@@ -34,12 +40,16 @@ import org.languagetool.rules.RuleMatch;
  * used for PatternRule and DisambiguationPatternRule.
  * 
  * Introduced to minimize code duplication between those classes.
+ * Pattern rules are serializable so they can be stored in a {@link CompiledRules} file.
  * 
  * @author Marcin Miłkowski
  */
-public abstract class AbstractPatternRule extends Rule {
+public abstract class AbstractPatternRule extends Rule implements Serializable {
 
-  protected final Language language;
+  private static final long serialVersionUID = 918971000053240769L;
+
+  // not final because it's restored by readObject():
+  protected transient Language language;
   protected final List<Element> patternElements;
   protected final boolean testUnification;
   protected final boolean sentStart;
@@ -176,4 +186,34 @@ public abstract class AbstractPatternRule extends Rule {
   public List<Element> getPatternElements() {
     return patternElements;
   }
+
+  private void writeObject(final ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    // languages are not serializable, and neither is the state of Rule:
+    out.writeUTF(language.getShortNameWithCountryAndVariant());
+    out.writeObject(getCorrectExamples());
+    out.writeObject(getIncorrectExamples());
+    out.writeObject(getLocQualityIssueType());
+    out.writeObject(getCategory());
+    out.writeObject(getUrl());
+    out.writeBoolean(isDefaultOff());
+    out.writeBoolean(isParagraphBackTrack());
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    // same lookup as in the XML rule loaders:
+    language = Language.getLanguageForShortName(in.readUTF());
+    setCorrectExamples((List<String>) in.readObject());
+    setIncorrectExamples((List<IncorrectExample>) in.readObject());
+    setLocQualityIssueType((String) in.readObject());
+    setCategory((Category) in.readObject());
+    setUrl((URL) in.readObject());
+    if (in.readBoolean()) {
+      setDefaultOff();
+    }
+    setParagraphBackTrack(in.readBoolean());
+  }
+
 }
@@ -0,0 +1,227 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.tagging.disambiguation.rules.DisambiguationRuleLoader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Pattern rules in a binary format, so that loading them at startup doesn't need
+ * to parse the XML file and expand its {@code <or>} and phrase constructs again.
+ * The compiled file is stored next to the XML file, with {@link #FILE_SUFFIX} appended
+ * to its name (e.g. {@code grammar.xml.ser}). It contains a checksum of the XML file
+ * it has been created from and is ignored if the XML file has been modified since then,
+ * or if it has been created by an incompatible version of LanguageTool. The XML file
+ * is then used instead.
+ *
+ * <p>Compiled files are created at build time by calling {@link #main(String[])}.
+ *
+ * @since 2.5
+ */
+public final class CompiledRules {
+
+  /** The suffix that's appended to the name of the XML file. */
+  public static final String FILE_SUFFIX = ".ser";
+
+  private static final int MAGIC = 0x4C545052;  // "LTPR"
+  // the serialized classes have a fixed serialVersionUID, so increase this when their fields change:
+  private static final int VERSION = 1;
+
+  // the JDK classes referenced by the serialized rules:
+  private static final Set<String> JDK_CLASSES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+      "java.lang.Enum", "java.lang.Number", "java.lang.Integer", "java.lang.String", "java.net.URL",
+      "java.util.ArrayList", "java.util.Arrays$ArrayList", "java.util.Collections$EmptyList",
+      "java.util.HashMap", "java.util.HashSet", "java.util.regex.Pattern")));
+
+  private CompiledRules() {
+  }
+
+  /**
+   * Load the compiled rules for an XML rule file, if there are any.
+   * @param filename path of the XML file in the classpath or in the filesystem - the classpath is checked first
+   * @param xml the content of the XML file, used to check that the compiled rules are up-to-date
+   * @return the rules, or {@code null} if there's no compiled file or it cannot be used
+   */
+  public static <T extends AbstractPatternRule> List<T> load(String filename, byte[] xml, Class<T> ruleClass) {
+    final String compiledFilename = filename + FILE_SUFFIX;
+    InputStream is = CompiledRules.class.getResourceAsStream(compiledFilename);
+    try {
+      if (is == null) {
+        final File file = new File(compiledFilename);
+        if (!file.isFile()) {
+          return null;
+        }
+        is = new FileInputStream(file);
+      }
+      try {
+        return read(is, xml, ruleClass);
+      } finally {
+        is.close();
+      }
+    } catch (IOException e) {
+      // not fatal, we can still use the XML file:
+      System.err.println("Ignoring compiled rules " + compiledFilename + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Read the complete content of an XML rule file, as needed by {@link #load(String, byte[], Class)}.
+   */
+  public static byte[] readBytes(InputStream is) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int count;
+    while ((count = is.read(buffer)) != -1) {
+      out.write(buffer, 0, count);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * @param xml the content of the XML file the rules have been loaded from
+   * @throws IOException if the data is not in the expected format or doesn't match {@code xml}
+   */
+  static <T extends AbstractPatternRule> List<T> read(InputStream in, byte[] xml, Class<T> ruleClass) throws IOException {
+    final DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+    if (dis.readInt() != MAGIC) {
+      throw new IOException("Not a compiled rule file");
+    }
+    final int version = dis.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported version " + version + ", expected " + VERSION);
+    }
+    if (dis.readLong() != getChecksum(xml)) {
+      throw new IOException("Compiled rules are outdated, the XML file has been modified");
+    }
+    final ObjectInputStream ois = new RuleInputStream(dis);
+    try {
+      final int count = ois.readInt();
+      final List<T> rules = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        rules.add(ruleClass.cast(ois.readObject()));
+      }
+      return rules;
+    } catch (ClassNotFoundException | ClassCastException | IllegalArgumentException e) {
+      // IllegalArgumentException: the rule's language is not in the classpath
+      throw new IOException("Cannot read compiled rules: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Write the rules loaded from an XML file in the compiled format.
+   * @param xml the content of the XML file the rules have been loaded from
+   */
+  public static void write(List<? extends AbstractPatternRule> rules, byte[] xml, OutputStream out) throws IOException {
+    final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+    dos.writeInt(MAGIC);
+    dos.writeInt(VERSION);
+    dos.writeLong(getChecksum(xml));
+    final ObjectOutputStream oos = new ObjectOutputStream(dos);
+    oos.writeInt(rules.size());
+    for (AbstractPatternRule rule : rules) {
+      oos.writeObject(rule);
+    }
+    oos.flush();
+  }
+
+  private static long getChecksum(byte[] xml) {
+    final CRC32 crc = new CRC32();
+    crc.update(xml);
+    return crc.getValue();
+  }
+
+  /**
+   * Create compiled files for XML rule files. Each compiled file is written next to its XML file.
+   * @param args {@code grammar} or {@code disambiguation}, followed by the XML files
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2 || !("grammar".equals(args[0]) || "disambiguation".equals(args[0]))) {
+      System.out.println("Usage: " + CompiledRules.class.getSimpleName() + " <grammar|disambiguation> <xmlFile>...");
+      System.exit(1);
+    }
+    final boolean disambiguation = "disambiguation".equals(args[0]);
+    for (int i = 1; i < args.length; i++) {
+      final File xmlFile = new File(args[i]);
+      final byte[] xml;
+      try (InputStream is = new FileInputStream(xmlFile)) {
+        xml = readBytes(is);
+      }
+      final List<? extends AbstractPatternRule> rules;
+      if (disambiguation) {
+        rules = new DisambiguationRuleLoader().getRules(new ByteArrayInputStream(xml));
+      } else {
+        rules = new PatternRuleLoader().getRules(new ByteArrayInputStream(xml), xmlFile.getAbsolutePath());
+      }
+      final File compiledFile = new File(xmlFile.getAbsolutePath() + FILE_SUFFIX);
+      try (OutputStream out = new FileOutputStream(compiledFile)) {
+        write(rules, xml, out);
+      }
+      System.out.println("Compiled " + rules.size() + " rules to " + compiledFile);
+    }
+  }
+
+  /**
+   * Only resolves the LanguageTool classes and the few JDK classes that make up a rule, so a
+   * manipulated file cannot create arbitrary objects.
+   */
+  private static class RuleInputStream extends ObjectInputStream {
+
+    private RuleInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      final String name = desc.getName();
+      if (!isAllowed(name.startsWith("[L") && name.endsWith(";") ? name.substring(2, name.length() - 1) : name)) {
+        throw new InvalidClassException(name, "Unexpected class in compiled rules");
+      }
+      return super.resolveClass(desc);
+    }
+
+    private boolean isAllowed(String name) {
+      return name.startsWith("org.languagetool.") || JDK_CLASSES.contains(name);
+    }
+  }
+
+}
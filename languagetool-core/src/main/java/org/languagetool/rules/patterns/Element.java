@@ -19,6 +19,7 @@
 package org.languagetool.rules.patterns;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -37,7 +38,9 @@ import org.languagetool.tools.StringTools;
  * 
  * @author Daniel Naber
  */
-public class Element implements Cloneable {
+public class Element implements Cloneable, Serializable {
+
+  private static final long serialVersionUID = -626799383257884486L;
 
   /** Matches only tokens without any POS tag. **/
   public static final String UNKNOWN_TAG = "UNKNOWN";
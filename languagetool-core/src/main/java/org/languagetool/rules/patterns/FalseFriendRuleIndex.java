@@ -0,0 +1,186 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2005 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * An index of the rule groups in a false friends XML file by language. Every {@link JLanguageTool}
+ * with a mother tongue loads the false friend rules, but only few rule groups are relevant for its
+ * language pair. With this index, only the rule groups that contain both languages are parsed by
+ * {@link FalseFriendRuleLoader}. The index is created when a file is used for the first time and is
+ * shared by all instances; the rule groups for each language pair are kept as a small XML document.
+ * @since 2.5
+ */
+public final class FalseFriendRuleIndex {
+
+  private static final Charset UTF8 = Charset.forName("utf-8");
+  private static final Pattern COMMENT = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+  private static final Pattern RULE_GROUP = Pattern.compile("<rulegroup\\b.*?</rulegroup>", Pattern.DOTALL);
+  private static final Pattern RULE = Pattern.compile("<rule\\b");
+  // only the language code, as variants are handled by the rule loader:
+  private static final Pattern LANGUAGE = Pattern.compile("\\blang=\"([^\"-]+)");
+  private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<rules>\n";
+  private static final String FOOTER = "</rules>\n";
+
+  // file name -> index:
+  private static final ConcurrentMap<String, FalseFriendRuleIndex> indexes = new ConcurrentHashMap<>();
+
+  private final String document;
+  private final List<RuleGroup> ruleGroups;  // null if the file could not be split into rule groups
+  // "<language code>/<mother tongue code>" -> XML document with the relevant rule groups:
+  private final ConcurrentMap<String, byte[]> documentsByPair = new ConcurrentHashMap<>();
+
+  FalseFriendRuleIndex(String document) {
+    this.document = document;
+    this.ruleGroups = getRuleGroups(document);
+  }
+
+  /**
+   * Get the shared index for the given file.
+   * @param filename path to an XML file in the classpath or in the filesystem - the classpath is checked first
+   */
+  public static FalseFriendRuleIndex getIndex(String filename) throws IOException {
+    final FalseFriendRuleIndex index = indexes.get(filename);
+    if (index != null) {
+      return index;
+    }
+    final FalseFriendRuleIndex newIndex = new FalseFriendRuleIndex(read(filename));
+    final FalseFriendRuleIndex otherIndex = indexes.putIfAbsent(filename, newIndex);
+    return otherIndex != null ? otherIndex : newIndex;
+  }
+
+  /**
+   * Read the given file again, e.g. after it has been modified. The whole file is parsed before it
+   * replaces the current index, so if it's not well-formed, the current index stays in use.
+   * @param filename path to an XML file in the classpath or in the filesystem - the classpath is checked first
+   */
+  public static void reload(String filename) throws IOException, ParserConfigurationException, SAXException {
+    final FalseFriendRuleIndex index = new FalseFriendRuleIndex(read(filename));
+    getParser().parse(new ByteArrayInputStream(index.document.getBytes(UTF8)), new DefaultHandler());
+    indexes.put(filename, index);
+  }
+
+  /**
+   * Get an XML document with the rule groups that are relevant for the given language pair, to be
+   * loaded with {@link FalseFriendRuleLoader#getRules(InputStream, Language, Language)}.
+   */
+  public InputStream getRulesAsStream(Language textLanguage, Language motherTongue) {
+    return new ByteArrayInputStream(getDocument(textLanguage.getShortName(), motherTongue.getShortName()));
+  }
+
+  byte[] getDocument(String languageCode, String motherTongueCode) {
+    if (ruleGroups == null) {
+      return document.getBytes(UTF8);
+    }
+    final String pair = languageCode + "/" + motherTongueCode;
+    byte[] pairDocument = documentsByPair.get(pair);
+    if (pairDocument == null) {
+      final StringBuilder sb = new StringBuilder(HEADER);
+      for (RuleGroup ruleGroup : ruleGroups) {
+        // rule groups with translations in both directions are also needed for the suggestions:
+        if (ruleGroup.languageCodes.contains(languageCode) && ruleGroup.languageCodes.contains(motherTongueCode)) {
+          sb.append(ruleGroup.xml).append('\n');
+        }
+      }
+      sb.append(FOOTER);
+      pairDocument = sb.toString().getBytes(UTF8);
+      documentsByPair.put(pair, pairDocument);
+    }
+    return pairDocument;
+  }
+
+  /**
+   * @return the rule groups, or {@code null} if there are rules outside of rule groups
+   */
+  private static List<RuleGroup> getRuleGroups(String document) {
+    final String withoutComments = COMMENT.matcher(document).replaceAll("");
+    final List<RuleGroup> ruleGroups = new ArrayList<>();
+    final Matcher ruleGroupMatcher = RULE_GROUP.matcher(withoutComments);
+    while (ruleGroupMatcher.find()) {
+      final String xml = ruleGroupMatcher.group();
+      final Set<String> languageCodes = new HashSet<>();
+      final Matcher languageMatcher = LANGUAGE.matcher(xml);
+      while (languageMatcher.find()) {
+        languageCodes.add(languageMatcher.group(1));
+      }
+      ruleGroups.add(new RuleGroup(xml, languageCodes));
+    }
+    if (RULE.matcher(RULE_GROUP.matcher(withoutComments).replaceAll("")).find()) {
+      return null;
+    }
+    return ruleGroups;
+  }
+
+  private static String read(String filename) throws IOException {
+    InputStream stream = JLanguageTool.class.getResourceAsStream(filename);
+    if (stream == null) {
+      // happens for external rules plugged in as an XML file:
+      stream = new FileInputStream(new File(filename));
+    }
+    try (InputStream is = stream) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      int length;
+      while ((length = is.read(buffer)) != -1) {
+        out.write(buffer, 0, length);
+      }
+      return new String(out.toByteArray(), UTF8);
+    }
+  }
+
+  private static SAXParser getParser() throws ParserConfigurationException, SAXException {
+    final SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
+    saxParser.getXMLReader().setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    return saxParser;
+  }
+
+  private static class RuleGroup {
+    private final String xml;
+    private final Set<String> languageCodes;
+    private RuleGroup(String xml, Set<String> languageCodes) {
+      this.xml = xml;
+      this.languageCodes = languageCodes;
+    }
+  }
+
+}
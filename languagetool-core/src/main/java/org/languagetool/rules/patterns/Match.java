@@ -18,6 +18,7 @@
  */
 package org.languagetool.rules.patterns;
 
+import java.io.Serializable;
 import java.util.regex.Pattern;
 
 import org.languagetool.AnalyzedTokenReadings;
@@ -31,7 +32,9 @@ import org.languagetool.tools.StringTools;
  *
  * @author Marcin Miłkowski
  */
-public class Match {
+public class Match implements Serializable {
+
+  private static final long serialVersionUID = -5956834833272580122L;
 
   /** Possible string case conversions. **/
   public enum CaseConversion {
@@ -66,7 +69,7 @@ public class Match {
   private int tokenRef;
 
   /** Word form generator for POS tags. **/
-  private Synthesizer synthesizer;
+  private transient Synthesizer synthesizer;
 
   /** Pattern used to define parts of the matched token. **/
   private Pattern pRegexMatch;
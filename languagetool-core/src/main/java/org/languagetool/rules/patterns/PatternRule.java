@@ -34,6 +34,8 @@ import org.languagetool.tools.StringTools;
  */
 public class PatternRule extends AbstractPatternRule {
 
+  private static final long serialVersionUID = 3113012630325460335L;
+
   private final String shortMessage;
 
   /**
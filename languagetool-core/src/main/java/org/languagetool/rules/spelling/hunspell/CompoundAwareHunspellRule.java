@@ -52,7 +52,7 @@ public abstract class CompoundAwareHunspellRule extends HunspellRule {
    */
   @Override
   public List<String> getSuggestions(String word) throws IOException {
-    if (needsInit) {
+    if (isInitNeeded()) {
       init();
     }
     final List<String> candidates = new ArrayList<>();
@@ -75,7 +75,7 @@ public abstract class CompoundAwareHunspellRule extends HunspellRule {
     final Collection<String> parts = wordSplitter.tokenize(word);
     int partCount = 0;
     for (String part : parts) {
-      if (dictionary.misspelled(part)) {
+      if (getDictionaryPool().misspelled(part)) {
         List<String> suggestions = morfoSpeller.getSuggestions(part);
         if (suggestions.size() == 0) {
           suggestions = morfoSpeller.getSuggestions(StringTools.uppercaseFirstChar(part));
@@ -112,14 +112,14 @@ public abstract class CompoundAwareHunspellRule extends HunspellRule {
     }
   }
   
-  private List<String> getCorrectWords(List<String> wordsOrPhrases) {
+  private List<String> getCorrectWords(List<String> wordsOrPhrases) throws IOException {
     final List<String> result = new ArrayList<>();
     for (String wordOrPhrase : wordsOrPhrases) {
       // this might be a phrase like "aufgrund dessen", so it needs to be split: 
       final String[] words = tokenizeText(wordOrPhrase);
       boolean wordIsOkay = true;
       for (String word : words) {
-        if (dictionary.misspelled(word)) {
+        if (getDictionaryPool().misspelled(word)) {
           wordIsOkay = false;
           break;
         }
@@ -0,0 +1,246 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.hunspell;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of native Hunspell handles for the same dictionary. Native handles
+ * must not be used by more than one thread at a time, so each check borrows a handle,
+ * uses it, and returns it. New handles are created lazily up to the maximum pool size,
+ * after that callers wait for a handle to be returned. Words added with {@link #addWord(String)}
+ * are replayed into every handle before it is handed out.
+ * @since 2.5
+ */
+public class DictionaryPool {
+
+  private static final int DEFAULT_MAX_SIZE = Runtime.getRuntime().availableProcessors();
+  // how often a thread waiting for a handle checks whether the pool has been destroyed:
+  private static final long WAIT_MILLIS = 100;
+
+  private final Hunspell hunspell;
+  private final String baseFileName;
+  private final int maxSize;
+  private final BlockingQueue<Hunspell.Dictionary> idleDictionaries = new LinkedBlockingQueue<>();
+  // number of added words already replayed into each handle:
+  private final Map<Hunspell.Dictionary, Integer> appliedWordCounts = new ConcurrentHashMap<>();
+  private final List<String> addedWords = new CopyOnWriteArrayList<>();
+  private final AtomicInteger createdCount = new AtomicInteger();
+
+  private volatile String wordChars;
+  private volatile boolean destroyed;
+
+  DictionaryPool(Hunspell hunspell, String baseFileName) {
+    this(hunspell, baseFileName, DEFAULT_MAX_SIZE);
+  }
+
+  DictionaryPool(Hunspell hunspell, String baseFileName, int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be >= 1: " + maxSize);
+    }
+    this.hunspell = hunspell;
+    this.baseFileName = baseFileName;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Check if a word is spelled correctly, using a handle from the pool.
+   */
+  public boolean misspelled(String word) throws IOException {
+    final Hunspell.Dictionary dictionary = borrow();
+    try {
+      return dictionary.misspelled(word);
+    } finally {
+      release(dictionary);
+    }
+  }
+
+  /**
+   * Get the suggestions for a word, using a handle from the pool.
+   */
+  public List<String> suggest(String word) throws IOException {
+    final Hunspell.Dictionary dictionary = borrow();
+    try {
+      return dictionary.suggest(word);
+    } finally {
+      release(dictionary);
+    }
+  }
+
+  /**
+   * Add a word to all handles of this pool, including the ones that will be created later.
+   */
+  public void addWord(String word) {
+    addedWords.add(word);
+  }
+
+  /**
+   * The word characters of the dictionary, see {@link Hunspell.Dictionary#getWordChars()}.
+   */
+  public String getWordChars() throws IOException {
+    if (wordChars == null) {
+      final Hunspell.Dictionary dictionary = borrow();
+      try {
+        wordChars = dictionary.getWordChars();
+      } finally {
+        release(dictionary);
+      }
+    }
+    return wordChars;
+  }
+
+  /**
+   * Get a handle for exclusive use by the calling thread. The handle must be given back
+   * with {@link #release(Hunspell.Dictionary)}, usually in a {@code finally} block.
+   * Blocks if the maximum number of handles is in use.
+   * @throws IllegalStateException if the pool has been destroyed
+   */
+  public Hunspell.Dictionary borrow() throws IOException {
+    checkNotDestroyed();
+    Hunspell.Dictionary dictionary = idleDictionaries.poll();
+    if (dictionary == null) {
+      dictionary = createIfBelowMaxSize();
+    }
+    while (dictionary == null) {
+      try {
+        dictionary = idleDictionaries.poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for a Hunspell dictionary handle: " + baseFileName, e);
+      }
+      if (dictionary == null) {
+        // handles returned after destroy() are deallocated, so don't wait for them forever:
+        checkNotDestroyed();
+      }
+    }
+    try {
+      replayAddedWords(dictionary);
+    } catch (UnsupportedEncodingException | RuntimeException e) {
+      release(dictionary);
+      throw e;
+    }
+    return dictionary;
+  }
+
+  /**
+   * Give back a handle obtained with {@link #borrow()}. If the pool has been destroyed
+   * in the meantime, the handle is deallocated.
+   */
+  public void release(Hunspell.Dictionary dictionary) {
+    if (destroyed) {
+      appliedWordCounts.remove(dictionary);
+      dictionary.destroy();
+    } else {
+      idleDictionaries.offer(dictionary);
+      if (destroyed) {
+        // destroy() might have run between the check and offer():
+        destroyIdleDictionaries();
+      }
+    }
+  }
+
+  /**
+   * The number of native handles created so far.
+   */
+  int getCreatedCount() {
+    return createdCount.get();
+  }
+
+  int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * The estimated memory used by the native handles, based on the size of the dictionary files.
+   */
+  long getSize() {
+    final long fileSize = new File(baseFileName + ".dic").length() + new File(baseFileName + ".aff").length();
+    return destroyed ? 0 : createdCount.get() * fileSize;
+  }
+
+  boolean isDestroyed() {
+    return destroyed;
+  }
+
+  /**
+   * Deallocate the idle handles. Handles that are currently borrowed are deallocated
+   * when they are given back with {@link #release(Hunspell.Dictionary)}, and the pool
+   * cannot be used anymore.
+   */
+  void destroy() {
+    destroyed = true;
+    destroyIdleDictionaries();
+  }
+
+  private void destroyIdleDictionaries() {
+    Hunspell.Dictionary dictionary;
+    while ((dictionary = idleDictionaries.poll()) != null) {
+      appliedWordCounts.remove(dictionary);
+      dictionary.destroy();
+    }
+  }
+
+  private void checkNotDestroyed() {
+    if (destroyed) {
+      throw new IllegalStateException("Hunspell dictionary pool has been destroyed: " + baseFileName);
+    }
+  }
+
+  private Hunspell.Dictionary createIfBelowMaxSize() throws IOException {
+    while (true) {
+      final int count = createdCount.get();
+      if (count >= maxSize) {
+        return null;
+      }
+      if (createdCount.compareAndSet(count, count + 1)) {
+        try {
+          final Hunspell.Dictionary dictionary = hunspell.createDictionary(baseFileName);
+          appliedWordCounts.put(dictionary, 0);
+          return dictionary;
+        } catch (IOException | RuntimeException e) {
+          createdCount.decrementAndGet();
+          throw e;
+        }
+      }
+    }
+  }
+
+  private void replayAddedWords(Hunspell.Dictionary dictionary) throws UnsupportedEncodingException {
+    final Integer applied = appliedWordCounts.get(dictionary);
+    final int appliedCount = applied != null ? applied : 0;
+    final int wordCount = addedWords.size();
+    if (appliedCount < wordCount) {
+      for (String word : addedWords.subList(appliedCount, wordCount)) {
+        dictionary.addWord(word);
+      }
+      appliedWordCounts.put(dictionary, wordCount);
+    }
+  }
+
+}
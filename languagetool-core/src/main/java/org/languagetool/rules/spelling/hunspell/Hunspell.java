@@ -60,7 +60,7 @@ public class Hunspell {
      *
      * @param libDir Optional absolute directory where the native lib can be found. 
      */
-    public static Hunspell getInstance(String libDir) throws UnsatisfiedLinkError, UnsupportedOperationException { 
+    public static synchronized Hunspell getInstance(String libDir) throws UnsatisfiedLinkError, UnsupportedOperationException { 
         if (hunspell != null) {
             return hunspell;
         }
@@ -200,6 +200,11 @@ public class Hunspell {
      */
     private HashMap<String, Dictionary> map = new HashMap<>();
 
+    /**
+     * The pools of native handles, one pool per dictionary base name
+     */
+    private HashMap<String, DictionaryPool> pools = new HashMap<>();
+
     
     private static CharBuffer ensureCapacity(CharBuffer buffer, int capacity) {
         if (buffer == null || buffer.capacity() < capacity) {
@@ -216,7 +221,7 @@ public class Hunspell {
      * and /dict/da_DK.aff get loaded
      * @throws IOException 
      */
-    public Dictionary getDictionary(String baseFileName)
+    public synchronized Dictionary getDictionary(String baseFileName)
             throws IOException {
 
         // TODO: Detect if the dictionary files have changed and reload if they have.
@@ -230,16 +235,57 @@ public class Hunspell {
         }
     }   
 
+    /**
+     * Gets the pool of native handles for a dictionary. Unlike the instance returned
+     * by {@link #getDictionary(String)}, the handles of a pool are never used by more
+     * than one thread at a time.
+     *
+     * @param baseFileName the base name of the dictionary, see {@link #getDictionary(String)}
+     * @since 2.5
+     */
+    public synchronized DictionaryPool getDictionaryPool(String baseFileName) {
+        DictionaryPool pool = pools.get(baseFileName);
+        if (pool == null) {
+            pool = new DictionaryPool(this, baseFileName);
+            pools.put(baseFileName, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Gets the pool of native handles for a dictionary if it has been created, or {@code null}.
+     *
+     * @param baseFileName the base name of the dictionary, see {@link #getDictionary(String)}
+     * @since 2.5
+     */
+    synchronized DictionaryPool getLoadedDictionaryPool(String baseFileName) {
+        return pools.get(baseFileName);
+    }
+
+    /**
+     * Creates a new, uncached instance of the dictionary with its own native handle.
+     *
+     * @param baseFileName the base name of the dictionary, see {@link #getDictionary(String)}
+     * @since 2.5
+     */
+    Dictionary createDictionary(String baseFileName) throws IOException {
+        return new Dictionary(baseFileName);
+    }
+
     /**
      * Removes a dictionary from the internal cache
      *
      * @param baseFileName the base name of the dictionary, as passed to
      * getDictionary()
      */
-    public void destroyDictionary(String baseFileName) {
+    public synchronized void destroyDictionary(String baseFileName) {
         if (map.containsKey(baseFileName)) {
             map.remove(baseFileName);
         }
+        final DictionaryPool pool = pools.remove(baseFileName);
+        if (pool != null) {
+            pool.destroy();
+        }
     }
 
     /**
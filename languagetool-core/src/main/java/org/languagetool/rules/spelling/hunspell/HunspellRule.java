@@ -37,7 +37,10 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 /**
@@ -52,8 +55,18 @@ public class HunspellRule extends SpellingCheckRule {
 
   public static final String RULE_ID = "HUNSPELL_RULE";
 
+  // dictionary path -> language code, so the native handles can be released with the other resources of a language:
+  private static final ConcurrentMap<String, String> dictionaryLanguages = new ConcurrentHashMap<>();
+
   protected boolean needsInit = true;
+  /**
+   * Not set anymore, as a native handle must not be used by more than one thread
+   * at a time. This rule checks words with the handles of {@link #getDictionaryPool()}.
+   * @deprecated use {@link #getDictionaryPool()} instead (deprecated since 2.5)
+   */
+  @Deprecated
   protected Hunspell.Dictionary dictionary = null;
+  private DictionaryPool dictionaryPool = null;
   
   private static final String NON_ALPHABETIC = "[^\\p{L}]";
 
@@ -77,10 +90,10 @@ public class HunspellRule extends SpellingCheckRule {
   @Override
   public RuleMatch[] match(AnalyzedSentence text) throws IOException {
     final List<RuleMatch> ruleMatches = new ArrayList<>();
-    if (needsInit) {
+    if (isInitNeeded()) {
       init();
     }
-    if (dictionary == null) {
+    if (dictionaryPool == null) {
       // some languages might not have a dictionary, be silent about it
       return toRuleMatchArray(ruleMatches);
     }
@@ -97,7 +110,7 @@ public class HunspellRule extends SpellingCheckRule {
       if (word.length() == 1) { // hunspell dictionaries usually do not contain punctuation
         isAlphabetic = StringTools.isAlphabetic(word.charAt(0));
       }
-      if (isAlphabetic && !word.equals("--") && dictionary.misspelled(word)) {
+      if (isAlphabetic && !word.equals("--") && dictionaryPool.misspelled(word)) {
         final RuleMatch ruleMatch = new RuleMatch(this,
                 len, len + word.length(),
                 messages.getString("spelling"),
@@ -116,10 +129,65 @@ public class HunspellRule extends SpellingCheckRule {
   }
 
   public List<String> getSuggestions(String word) throws IOException {
-    if (needsInit) {
+    if (isInitNeeded()) {
       init();
     }
-    return dictionary.suggest(word);
+    return dictionaryPool.suggest(word);
+  }
+
+  /**
+   * The native dictionary handles, safe to use from several threads, or {@code null}
+   * if there's no dictionary or the rule hasn't been initialized yet.
+   * @since 2.5
+   */
+  protected DictionaryPool getDictionaryPool() {
+    return dictionaryPool;
+  }
+
+  /**
+   * Whether {@link #init()} needs to be called before checking, also because the
+   * dictionary handles have been {@link #releaseDictionaries(String) released}.
+   */
+  boolean isInitNeeded() {
+    return needsInit || dictionaryPool != null && dictionaryPool.isDestroyed();
+  }
+
+  /**
+   * Destroy the native dictionary handles of the given language. Rules that used them
+   * get new handles on their next check.
+   * @param languageCode the language's short code (e.g. {@code de})
+   * @return the estimated number of bytes released
+   * @since 2.5
+   */
+  public static long releaseDictionaries(String languageCode) {
+    long released = 0;
+    for (Map.Entry<String, String> entry : dictionaryLanguages.entrySet()) {
+      if (entry.getValue().equals(languageCode) && dictionaryLanguages.remove(entry.getKey()) != null) {
+        // the entry is only added after the library has been loaded:
+        final Hunspell hunspell = Hunspell.getInstance();
+        final DictionaryPool pool = hunspell.getLoadedDictionaryPool(entry.getKey());
+        released += pool != null ? pool.getSize() : 0;
+        hunspell.destroyDictionary(entry.getKey());
+      }
+    }
+    return released;
+  }
+
+  /**
+   * The estimated memory used by the native dictionary handles of the given language,
+   * based on the size of the dictionary files.
+   * @param languageCode the language's short code (e.g. {@code de})
+   * @since 2.5
+   */
+  public static long getDictionarySize(String languageCode) {
+    long size = 0;
+    for (Map.Entry<String, String> entry : dictionaryLanguages.entrySet()) {
+      if (entry.getValue().equals(languageCode)) {
+        final DictionaryPool pool = Hunspell.getInstance().getLoadedDictionaryPool(entry.getKey());
+        size += pool != null ? pool.getSize() : 0;
+      }
+    }
+    return size;
   }
 
   protected String[] tokenizeText(final String sentence) {
@@ -162,17 +230,18 @@ public class HunspellRule extends SpellingCheckRule {
     if (JLanguageTool.getDataBroker().resourceExists(shortDicPath)) {
       final String path = getDictionaryPath(langCountry, shortDicPath);
       if ("".equals(path)) {
-        dictionary = null;
+        dictionaryPool = null;
       } else {
-        dictionary = Hunspell.getInstance().
-                getDictionary(path);
+        dictionaryPool = Hunspell.getInstance().
+                getDictionaryPool(path);
+        dictionaryLanguages.put(path, language.getShortName());
 
-        if (!"".equals(dictionary.getWordChars())) {
-          wordChars = "(?![" + dictionary.getWordChars().replace("-", "\\-") + "])";
+        if (!"".equals(dictionaryPool.getWordChars())) {
+          wordChars = "(?![" + dictionaryPool.getWordChars().replace("-", "\\-") + "])";
         }
 
-        dictionary.addWord(SpellingCheckRule.LANGUAGETOOL); // to make demo text check 4 times faster...
-        dictionary.addWord(SpellingCheckRule.LANGUAGETOOL_FX);
+        dictionaryPool.addWord(SpellingCheckRule.LANGUAGETOOL); // to make demo text check 4 times faster...
+        dictionaryPool.addWord(SpellingCheckRule.LANGUAGETOOL_FX);
       }
     }
     nonWordPattern = Pattern.compile(wordChars + NON_ALPHABETIC);
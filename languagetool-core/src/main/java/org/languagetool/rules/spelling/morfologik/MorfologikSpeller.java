@@ -23,26 +23,48 @@ import morfologik.stemming.Dictionary;
 
 import org.languagetool.JLanguageTool;
 import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.languagetool.tools.DictionaryRegistry;
 import org.languagetool.tools.StringTools;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.CharacterCodingException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Morfologik-based spell checker.
  */
 public class MorfologikSpeller {
 
+  // index URL -> index, so every index is mapped only once, no matter how many spellers use it:
+  private static final ConcurrentMap<String, Future<SymmetricDeleteIndex>> deleteIndexes = new ConcurrentHashMap<>();
+  // index URL -> language code, so the index can be released with the other resources of its language:
+  private static final ConcurrentMap<String, String> deleteIndexLanguages = new ConcurrentHashMap<>();
+
   private final Dictionary dictionary;
   private final Speller speller;
   private final Locale conversionLocale;
+  private final int maxEditDistance;
+  private final SymmetricDeleteIndex deleteIndex;
 
   /**
-   * Creates a speller with the given maximum edit distance.
+   * Creates a speller with the given maximum edit distance. If there's a {@link SymmetricDeleteIndex}
+   * next to the dictionary (same name, but with suffix {@link SymmetricDeleteIndex#FILE_SUFFIX}), it
+   * will be used to find suggestions.
    * @param filename path in classpath to morfologik dictionary
    * @param conversionLocale used when transforming the word to lowercase
    */
@@ -50,10 +72,11 @@ public class MorfologikSpeller {
     if (maxEditDistance <= 0) {
       throw new RuntimeException("maxEditDistance must be > 0: " + maxEditDistance);
     }
-    final URL url = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(filename);
-    dictionary = Dictionary.read(url);
+    dictionary = DictionaryRegistry.getDictionary(filename);
     speller = new Speller(dictionary, maxEditDistance);
     this.conversionLocale = conversionLocale != null ? conversionLocale : Locale.getDefault();
+    this.maxEditDistance = maxEditDistance;
+    this.deleteIndex = loadDeleteIndexOrNull(filename);
   }
 
   /**
@@ -83,9 +106,9 @@ public class MorfologikSpeller {
   public List<String> getSuggestions(String word) {
     final List<String> suggestions = new ArrayList<>();
     try {
-      suggestions.addAll(speller.findReplacements(word));
+      suggestions.addAll(findReplacements(word));
       if (suggestions.isEmpty() && !word.toLowerCase(conversionLocale).equals(word)) {
-        suggestions.addAll(speller.findReplacements(word.toLowerCase(conversionLocale)));
+        suggestions.addAll(findReplacements(word.toLowerCase(conversionLocale)));
       }
       suggestions.addAll(speller.replaceRunOnWords(word));
     } catch (CharacterCodingException e) {
@@ -99,4 +122,118 @@ public class MorfologikSpeller {
     return suggestions;
   }
 
+  /**
+   * Remove the symmetric delete indexes of the given language from the shared indexes, so their
+   * memory can be reclaimed once no speller uses them anymore. Spellers created later load them again.
+   * @param languageCode the language's short code, as used in the resource directory (e.g. {@code en})
+   * @return the estimated number of bytes released
+   * @since 2.5
+   */
+  public static long releaseDeleteIndexes(String languageCode) {
+    long released = 0;
+    for (Map.Entry<String, String> entry : deleteIndexLanguages.entrySet()) {
+      if (entry.getValue().equals(languageCode)) {
+        released += getSize(deleteIndexes.remove(entry.getKey()));
+      }
+    }
+    return released;
+  }
+
+  /**
+   * The size of the loaded symmetric delete indexes of the given language.
+   * @param languageCode the language's short code, as used in the resource directory (e.g. {@code en})
+   * @since 2.5
+   */
+  public static long getDeleteIndexSize(String languageCode) {
+    long size = 0;
+    for (Map.Entry<String, String> entry : deleteIndexLanguages.entrySet()) {
+      if (entry.getValue().equals(languageCode)) {
+        size += getSize(deleteIndexes.get(entry.getKey()));
+      }
+    }
+    return size;
+  }
+
+  private static long getSize(Future<SymmetricDeleteIndex> future) {
+    if (future == null || !future.isDone()) {
+      return 0;
+    }
+    try {
+      return future.get().getSize();
+    } catch (InterruptedException | ExecutionException e) {
+      return 0;
+    }
+  }
+
+  private List<String> findReplacements(String word) throws CharacterCodingException {
+    if (deleteIndex != null) {
+      return deleteIndex.getSuggestions(word, maxEditDistance);
+    }
+    return speller.findReplacements(word);
+  }
+
+  private static SymmetricDeleteIndex loadDeleteIndexOrNull(String dictFilename) throws IOException {
+    final String indexFilename = dictFilename.replaceFirst("\\.dict$", SymmetricDeleteIndex.FILE_SUFFIX);
+    if (indexFilename.equals(dictFilename) || !JLanguageTool.getDataBroker().resourceExists(indexFilename)) {
+      return null;
+    }
+    final URL url = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(indexFilename);
+    final String key = url.toExternalForm();
+    final String languageCode = DictionaryRegistry.getLanguageCode(dictFilename);
+    if (languageCode != null) {
+      deleteIndexLanguages.put(key, languageCode);
+    }
+    Future<SymmetricDeleteIndex> future = deleteIndexes.get(key);
+    if (future == null) {
+      final FutureTask<SymmetricDeleteIndex> task = new FutureTask<>(new Callable<SymmetricDeleteIndex>() {
+        @Override
+        public SymmetricDeleteIndex call() throws Exception {
+          return loadDeleteIndex(url);
+        }
+      });
+      future = deleteIndexes.putIfAbsent(key, task);
+      if (future == null) {
+        future = task;
+        task.run();
+      }
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while loading " + url, e);
+    } catch (ExecutionException e) {
+      // don't cache the failure, so the next speller will try again:
+      deleteIndexes.remove(key, future);
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Could not load " + url, cause);
+    }
+  }
+
+  private static SymmetricDeleteIndex loadDeleteIndex(URL url) throws IOException {
+    if ("file".equals(url.getProtocol())) {
+      try {
+        return SymmetricDeleteIndex.load(new File(url.toURI()));
+      } catch (URISyntaxException e) {
+        throw new IOException("Could not open " + url, e);
+      }
+    }
+    // inside a JAR, so copy the index to a file that can be memory-mapped:
+    final File indexFile = File.createTempFile("languagetool", SymmetricDeleteIndex.FILE_SUFFIX);
+    try {
+      try (InputStream in = url.openStream()) {
+        Files.copy(in, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      return SymmetricDeleteIndex.load(indexFile);
+    } finally {
+      // the mapping stays valid after deletion, except on Windows, where mapped files can't be deleted:
+      if (!indexFile.delete()) {
+        indexFile.deleteOnExit();
+      }
+    }
+  }
+
 }
@@ -0,0 +1,324 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.morfologik;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A precomputed symmetric-delete ("SymSpell") candidate index for a spelling dictionary.
+ * For every dictionary word, all strings that can be created by deleting up to
+ * {@link #getMaxDistance()} characters are hashed into buckets. At lookup time, the same
+ * deletes are created for the misspelled word, so finding all words within the
+ * maximum edit distance only needs a few bucket lookups instead of a walk of the
+ * whole automaton. Candidates are ranked by edit distance, then by frequency.
+ *
+ * <p>The index is built offline (see {@code SymmetricDeleteIndexBuilder} in the standalone
+ * module) and stored next to the {@code .dict} file with the suffix {@link #FILE_SUFFIX}.
+ * It is memory-mapped at runtime. Note that the replacement pairs and equivalent characters
+ * from the dictionary's {@code .info} file are not considered by this index.
+ *
+ * @since 2.5
+ */
+public class SymmetricDeleteIndex {
+
+  /** The suffix of the index file, which replaces the {@code .dict} suffix of the dictionary. */
+  public static final String FILE_SUFFIX = ".sdi";
+
+  private static final int MAGIC = 0x4C545344;  // "LTSD"
+  private static final int VERSION = 1;
+  private static final int HEADER_INTS = 6;
+  private static final Charset UTF8 = Charset.forName("utf-8");
+
+  private final int maxDistance;
+  private final int wordCount;
+  private final int bucketCount;
+  private final IntBuffer wordOffsets;
+  private final ByteBuffer frequencies;
+  private final IntBuffer bucketOffsets;
+  private final IntBuffer entries;
+  private final ByteBuffer words;
+  private final int size;
+
+  /**
+   * Load an index by memory-mapping the given file.
+   */
+  public static SymmetricDeleteIndex load(File file) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      final FileChannel channel = raf.getChannel();
+      // the mapping stays valid after the channel has been closed:
+      return new SymmetricDeleteIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  SymmetricDeleteIndex(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < HEADER_INTS * 4 || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a symmetric delete index");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported symmetric delete index version " + buffer.getInt(4) + ", expected " + VERSION);
+    }
+    size = buffer.remaining();
+    maxDistance = buffer.getInt(8);
+    wordCount = buffer.getInt(12);
+    bucketCount = buffer.getInt(16);
+    final int entryCount = buffer.getInt(20);
+    int pos = HEADER_INTS * 4;
+    wordOffsets = slice(buffer, pos, (wordCount + 1) * 4).asIntBuffer();
+    pos += (wordCount + 1) * 4;
+    frequencies = slice(buffer, pos, wordCount);
+    pos += wordCount;
+    bucketOffsets = slice(buffer, pos, (bucketCount + 1) * 4).asIntBuffer();
+    pos += (bucketCount + 1) * 4;
+    entries = slice(buffer, pos, entryCount * 4).asIntBuffer();
+    pos += entryCount * 4;
+    words = slice(buffer, pos, wordOffsets.get(wordCount));
+  }
+
+  /**
+   * The maximum edit distance this index was built for.
+   */
+  public int getMaxDistance() {
+    return maxDistance;
+  }
+
+  /**
+   * The size of the index in bytes.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Number of words in the index.
+   */
+  public int getWordCount() {
+    return wordCount;
+  }
+
+  /**
+   * Get the dictionary words within the given edit distance of {@code word}, the closest
+   * and most frequent ones first. The word itself is not part of the result.
+   * @param maxEditDistance the maximum edit distance, capped at {@link #getMaxDistance()}
+   */
+  public List<String> getSuggestions(String word, int maxEditDistance) {
+    final int distance = Math.min(maxEditDistance, maxDistance);
+    final Set<Integer> seenIds = new HashSet<>();
+    final List<Candidate> candidates = new ArrayList<>();
+    for (String delete : getDeletes(word, distance)) {
+      final int bucket = getBucket(delete, bucketCount);
+      final int end = bucketOffsets.get(bucket + 1);
+      for (int i = bucketOffsets.get(bucket); i < end; i++) {
+        final int wordId = entries.get(i);
+        if (!seenIds.add(wordId)) {
+          continue;
+        }
+        final String candidate = getWord(wordId);
+        if (candidate.equals(word)) {
+          continue;
+        }
+        final int editDistance = getEditDistance(word, candidate, distance);
+        if (editDistance <= distance) {
+          candidates.add(new Candidate(candidate, editDistance, frequencies.get(wordId)));
+        }
+      }
+    }
+    Collections.sort(candidates, new Comparator<Candidate>() {
+      @Override
+      public int compare(Candidate c1, Candidate c2) {
+        if (c1.distance != c2.distance) {
+          return c1.distance - c2.distance;
+        }
+        return c2.frequency - c1.frequency;
+      }
+    });
+    final List<String> result = new ArrayList<>(candidates.size());
+    for (Candidate candidate : candidates) {
+      result.add(candidate.word);
+    }
+    return result;
+  }
+
+  private String getWord(int wordId) {
+    final int start = wordOffsets.get(wordId);
+    final byte[] bytes = new byte[wordOffsets.get(wordId + 1) - start];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = words.get(start + i);
+    }
+    return new String(bytes, UTF8);
+  }
+
+  /**
+   * Write an index for the given words.
+   * @param words the dictionary words, without duplicates
+   * @param frequencies a frequency value for each word, higher values meaning more frequent words
+   * @param maxDistance the maximum edit distance for which lookups will be supported
+   */
+  public static void write(List<String> words, byte[] frequencies, int maxDistance, OutputStream out) throws IOException {
+    if (words.size() != frequencies.length) {
+      throw new IllegalArgumentException("Got " + words.size() + " words but " + frequencies.length + " frequencies");
+    }
+    // about one entry per bucket, so most lookups only need to verify real candidates:
+    long deleteCount = 0;
+    for (String word : words) {
+      deleteCount += getDeletes(word, maxDistance).size();
+    }
+    final int bucketCount = (int) Math.max(1, Math.min(deleteCount, Integer.MAX_VALUE / 8));
+    // (bucket << 32 | wordId), sorted so entries are grouped by bucket:
+    long[] pairs = new long[Math.max(16, words.size() * 8)];
+    int pairCount = 0;
+    for (int wordId = 0; wordId < words.size(); wordId++) {
+      final Set<Integer> buckets = new HashSet<>();
+      for (String delete : getDeletes(words.get(wordId), maxDistance)) {
+        buckets.add(getBucket(delete, bucketCount));
+      }
+      for (int bucket : buckets) {
+        if (pairCount == pairs.length) {
+          pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        }
+        pairs[pairCount++] = ((long) bucket << 32) | wordId;
+      }
+    }
+    Arrays.sort(pairs, 0, pairCount);
+    final List<byte[]> encodedWords = new ArrayList<>(words.size());
+    for (String word : words) {
+      encodedWords.add(word.getBytes(UTF8));
+    }
+    final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+    dos.writeInt(MAGIC);
+    dos.writeInt(VERSION);
+    dos.writeInt(maxDistance);
+    dos.writeInt(words.size());
+    dos.writeInt(bucketCount);
+    dos.writeInt(pairCount);
+    int wordOffset = 0;
+    for (byte[] encodedWord : encodedWords) {
+      dos.writeInt(wordOffset);
+      wordOffset += encodedWord.length;
+    }
+    dos.writeInt(wordOffset);
+    dos.write(frequencies);
+    int pairIdx = 0;
+    for (int bucket = 0; bucket <= bucketCount; bucket++) {
+      dos.writeInt(pairIdx);
+      while (pairIdx < pairCount && (int) (pairs[pairIdx] >>> 32) == bucket) {
+        pairIdx++;
+      }
+    }
+    for (int i = 0; i < pairCount; i++) {
+      dos.writeInt((int) pairs[i]);
+    }
+    for (byte[] encodedWord : encodedWords) {
+      dos.write(encodedWord);
+    }
+    dos.flush();
+  }
+
+  static Set<String> getDeletes(String word, int maxDistance) {
+    final Set<String> deletes = new HashSet<>();
+    deletes.add(word);
+    Set<String> current = deletes;
+    for (int distance = 1; distance <= maxDistance; distance++) {
+      final Set<String> next = new HashSet<>();
+      for (String s : current) {
+        for (int i = 0; i < s.length(); i++) {
+          next.add(s.substring(0, i) + s.substring(i + 1));
+        }
+      }
+      deletes.addAll(next);
+      current = next;
+    }
+    return deletes;
+  }
+
+  static int getBucket(String delete, int bucketCount) {
+    return (delete.hashCode() & 0x7fffffff) % bucketCount;
+  }
+
+  /**
+   * Optimal string alignment distance (Levenshtein plus transposition of adjacent characters).
+   * @return the distance, or {@code maxDistance + 1} if the distance is larger than {@code maxDistance}
+   */
+  static int getEditDistance(String s1, String s2, int maxDistance) {
+    if (Math.abs(s1.length() - s2.length()) > maxDistance) {
+      return maxDistance + 1;
+    }
+    int[] prevPrev = new int[s2.length() + 1];
+    int[] prev = new int[s2.length() + 1];
+    int[] current = new int[s2.length() + 1];
+    for (int j = 0; j <= s2.length(); j++) {
+      prev[j] = j;
+    }
+    for (int i = 1; i <= s1.length(); i++) {
+      current[0] = i;
+      int rowMin = i;
+      for (int j = 1; j <= s2.length(); j++) {
+        final int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+        int value = Math.min(Math.min(prev[j] + 1, current[j - 1] + 1), prev[j - 1] + cost);
+        if (i > 1 && j > 1 && s1.charAt(i - 1) == s2.charAt(j - 2) && s1.charAt(i - 2) == s2.charAt(j - 1)) {
+          value = Math.min(value, prevPrev[j - 2] + 1);
+        }
+        current[j] = value;
+        rowMin = Math.min(rowMin, value);
+      }
+      if (rowMin > maxDistance) {
+        return maxDistance + 1;
+      }
+      final int[] tmp = prevPrev;
+      prevPrev = prev;
+      prev = current;
+      current = tmp;
+    }
+    return Math.min(prev[s2.length()], maxDistance + 1);
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+    final ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(position);
+    duplicate.limit(position + length);
+    return duplicate.slice();
+  }
+
+  private static class Candidate {
+    private final String word;
+    private final int distance;
+    private final int frequency;
+    private Candidate(String word, int distance, byte frequency) {
+      this.word = word;
+      this.distance = distance;
+      this.frequency = frequency & 0xff;
+    }
+  }
+
+}
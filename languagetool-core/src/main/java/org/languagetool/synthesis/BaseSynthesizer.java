@@ -19,10 +19,13 @@
 package org.languagetool.synthesis;
 
 import java.io.IOException;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import morfologik.stemming.Dictionary;
@@ -32,17 +35,30 @@ import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
 import org.languagetool.JLanguageTool;
+import org.languagetool.tools.ConcurrentLruCache;
+import org.languagetool.tools.DictionaryRegistry;
 
-public class BaseSynthesizer implements Synthesizer {
+public class BaseSynthesizer implements CachingSynthesizer {
+
+  /**
+   * The default maximum number of lemma/POS tag combinations whose inflected forms are cached.
+   * @since 2.5
+   */
+  public static final int DEFAULT_CACHE_SIZE = 10000;
+
+  // all synthesizers, so their caches can be cleared when the resources of their language are released:
+  private static final Set<BaseSynthesizer> synthesizers =
+          Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<BaseSynthesizer, Boolean>()));
 
   protected List<String> possibleTags;
 
   private final String tagFileName;
   private final String resourceFileName;
 
-  private Dictionary dictionary;
+  // POS tag regex -> the tags from possibleTags it matches:
+  private final ConcurrentMap<String, List<String>> tagsForRegex = new ConcurrentHashMap<>();
 
-  private final IStemmer stemmer;
+  private volatile ConcurrentLruCache<String, List<String>> cache = new ConcurrentLruCache<>(DEFAULT_CACHE_SIZE);
 
   /**
    * @param resourceFileName The dictionary file name.
@@ -51,25 +67,19 @@ public class BaseSynthesizer implements Synthesizer {
   public BaseSynthesizer(final String resourceFileName, final String tagFileName) {
     this.resourceFileName = resourceFileName;
     this.tagFileName = tagFileName;
-    this.stemmer = createStemmer();
+    synthesizers.add(this);
   }
 
   /**
    * Returns the {@link Dictionary} used for this synthesizer.
    * The dictionary file can be defined in the {@link #BaseSynthesizer(String, String) constructor}.
    * 
+   * It's not kept in a field, so it can be released while the language isn't used.
+   * 
    * @throws IOException In case the dictionary cannot be loaded.
    */
   protected Dictionary getDictionary() throws IOException {
-    if (this.dictionary == null) {
-      synchronized (this) {
-        if (this.dictionary == null) {
-          final URL url = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(resourceFileName);
-          this.dictionary = Dictionary.read(url);
-        }
-      }
-    }
-    return this.dictionary;
+    return DictionaryRegistry.getDictionary(resourceFileName);
   }
 
   /**
@@ -94,12 +104,113 @@ public class BaseSynthesizer implements Synthesizer {
    * @param results the list to collect the inflected forms.
    */
   protected void lookup(String lemma, String posTag, List<String> results) {
-    final List<WordData> wordForms = stemmer.lookup(lemma + "|" + posTag);
+    results.addAll(lookup(lemma, posTag));
+  }
+
+  /**
+   * Lookup the inflected forms of a lemma defined by a part-of-speech tag. The result
+   * is served from the cache if the same lookup has been done before.
+   * @param lemma the lemma to be inflected.
+   * @param posTag the desired part-of-speech tag.
+   * @return the inflected forms (unmodifiable)
+   * @since 2.5
+   */
+  protected List<String> lookup(String lemma, String posTag) {
+    final String key = lemma + "|" + posTag;
+    final ConcurrentLruCache<String, List<String>> currentCache = cache;
+    if (currentCache != null) {
+      final List<String> cachedForms = currentCache.get(key);
+      if (cachedForms != null) {
+        return cachedForms;
+      }
+    }
+    final List<WordData> wordForms = getStemmer().lookup(key);
+    final List<String> forms = new ArrayList<>(wordForms.size());
     for (WordData wd : wordForms) {
-      results.add(wd.getStem().toString());
+      forms.add(wd.getStem().toString());
+    }
+    final List<String> result = Collections.unmodifiableList(forms);
+    if (currentCache != null) {
+      currentCache.put(key, result);
+    }
+    return result;
+  }
+
+  /**
+   * Set the maximum number of lemma/POS tag combinations whose inflected forms are cached,
+   * the default is {@link #DEFAULT_CACHE_SIZE}. Use {@code 0} to disable the cache.
+   * Setting the size clears the cache.
+   * @since 2.5
+   */
+  public void setCacheSize(int maxSize) {
+    cache = maxSize > 0 ? new ConcurrentLruCache<String, List<String>>(maxSize) : null;
+  }
+
+  /**
+   * The cache of inflected forms, e.g. to get its hit rate, or {@code null} if caching is disabled.
+   * @since 2.5
+   */
+  @Override
+  public ConcurrentLruCache<String, List<String>> getCache() {
+    return cache;
+  }
+
+  /**
+   * Clear the caches of all synthesizers whose dictionary belongs to the given language,
+   * as they would keep the forms found in a released dictionary in memory.
+   * @param languageCode the language's short code, as used in the resource directory (e.g. {@code en})
+   * @see org.languagetool.tools.LanguageResources#release(String)
+   * @since 2.5
+   */
+  public static void clearCaches(String languageCode) {
+    synchronized (synthesizers) {
+      for (BaseSynthesizer synthesizer : synthesizers) {
+        final ConcurrentLruCache<String, List<String>> synthesizerCache = synthesizer.cache;
+        if (synthesizerCache != null && synthesizer.resourceFileName.startsWith("/" + languageCode + "/")) {
+          synthesizerCache.clear();
+        }
+      }
+    }
+  }
+
+  /**
+   * Lookup the inflected forms of a lemma for several part-of-speech tags.
+   * @param lemma the lemma to be inflected.
+   * @param posTags the desired part-of-speech tags.
+   * @param results the list to collect the inflected forms.
+   * @since 2.5
+   */
+  protected void lookup(String lemma, List<String> posTags, List<String> results) {
+    for (String posTag : posTags) {
+      lookup(lemma, posTag, results);
     }
   }
 
+  /**
+   * Get all tags from the tag file that match the given regular expression. The regular
+   * expression is only compiled and matched against the tags once, later calls
+   * for the same expression are served from a cache.
+   * @param posTagRegex a regular expression that needs to match the complete tag
+   * @return the matching tags, in the order of the tag file (unmodifiable)
+   * @since 2.5
+   */
+  protected List<String> getMatchingTags(String posTagRegex) throws IOException {
+    List<String> tags = tagsForRegex.get(posTagRegex);
+    if (tags == null) {
+      initPossibleTags();
+      final Pattern pattern = Pattern.compile(posTagRegex);
+      final List<String> matchingTags = new ArrayList<>();
+      for (String tag : possibleTags) {
+        if (pattern.matcher(tag).matches()) {
+          matchingTags.add(tag);
+        }
+      }
+      tags = Collections.unmodifiableList(matchingTags);
+      tagsForRegex.put(posTagRegex, tags);
+    }
+    return tags;
+  }
+
   /**
    * Get a form of a given AnalyzedToken, where the form is defined by a
    * part-of-speech tag.
@@ -121,16 +232,8 @@ public class BaseSynthesizer implements Synthesizer {
       final boolean posTagRegExp) throws IOException {
     if (posTagRegExp) {
       initSynthesizer();
-      initPossibleTags();
-      final Pattern p = Pattern.compile(posTag);
       final ArrayList<String> results = new ArrayList<>();
-
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          lookup(token.getLemma(), tag, results);
-        }
-      }
+      lookup(token.getLemma(), getMatchingTags(posTag), results);
       return results.toArray(new String[results.size()]);
     }
     return synthesize(token, posTag);
@@ -144,10 +247,12 @@ public class BaseSynthesizer implements Synthesizer {
   /**
    * @since 2.5
    * 
-   * @return the stemmer interface to be used.
+   * @return a new stemmer for the current dictionary, to be used only by the calling thread.
+   * It's created for every lookup, like the taggers do, so that a released dictionary isn't
+   * kept in memory by threads that don't use the language anymore.
    */
   public IStemmer getStemmer() {
-    return stemmer;
+    return createStemmer();
   }
 
   protected void initPossibleTags() throws IOException {
@@ -0,0 +1,38 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.synthesis;
+
+import org.languagetool.tools.ConcurrentLruCache;
+
+import java.util.List;
+
+/**
+ * A synthesizer that caches the forms it has synthesized, so applications
+ * can report how well the cache works.
+ * @since 2.5
+ */
+public interface CachingSynthesizer extends Synthesizer {
+
+  /**
+   * The cache of synthesized forms, e.g. to get its hit rate, or {@code null} if caching is disabled.
+   * The cache may be replaced, e.g. when its size is changed, so callers should not keep it.
+   */
+  ConcurrentLruCache<String, List<String>> getCache();
+
+}
@@ -19,7 +19,6 @@
 package org.languagetool.tagging;
 
 import java.io.IOException;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -31,7 +30,7 @@ import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
-import org.languagetool.JLanguageTool;
+import org.languagetool.tools.DictionaryRegistry;
 import org.languagetool.tools.StringTools;
 
 /**
@@ -44,7 +43,8 @@ public abstract class BaseTagger implements Tagger {
   protected Locale conversionLocale = Locale.getDefault();
 
   private boolean tagLowercaseWithUppercase = true;
-  private Dictionary dictionary;
+  // from the dictionary's metadata, which stays the same when the dictionary is loaded again:
+  private volatile boolean frequencyIncluded;
 
   /**
    * Get the filename, e.g., {@code /en/english.dict}.
@@ -55,15 +55,13 @@ public abstract class BaseTagger implements Tagger {
     conversionLocale = locale;
   }
 
+  /**
+   * Get the dictionary from the {@link DictionaryRegistry}. It's not kept in a field, so it
+   * can be released while the language isn't used, thus subclasses shouldn't keep it either.
+   */
   protected Dictionary getDictionary() throws IOException {
-    if (dictionary == null) {
-      synchronized (this) {
-        if (dictionary == null) {
-          final URL url = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(getFileName());
-          dictionary = Dictionary.read(url);
-        }
-      }
-    }
+    final Dictionary dictionary = DictionaryRegistry.getDictionary(getFileName());
+    frequencyIncluded = dictionary.metadata.isFrequencyIncluded();
     return dictionary;
   }
 
@@ -135,7 +133,7 @@ public abstract class BaseTagger implements Tagger {
     String tag = StringTools.asString(wd.getTag());
     // Remove frequency data from tags (if exists)
     // The frequency data is in the last byte after a separator
-    if (dictionary.metadata.isFrequencyIncluded() && tag.length()>2) {
+    if (frequencyIncluded && tag.length()>2) {
       tag = tag.substring(0, tag.length()-2);
     }
     return new AnalyzedToken(
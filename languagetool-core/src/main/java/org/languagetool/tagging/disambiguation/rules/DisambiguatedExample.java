@@ -19,13 +19,17 @@
 
 package org.languagetool.tagging.disambiguation.rules;
 
+import java.io.Serializable;
+
 /**
  * Disambiguated example. Used for testing
  * disambiguator rules.
  * @author Marcin Milkowski
  * @since 0.9.8
  */
-public class DisambiguatedExample {
+public class DisambiguatedExample implements Serializable {
+
+  private static final long serialVersionUID = 8625735173441396225L;
 
   private final String example;
   private final String input;
@@ -36,6 +36,8 @@ import org.languagetool.rules.patterns.Match;
  */
 public class DisambiguationPatternRule extends AbstractPatternRule {
 
+  private static final long serialVersionUID = -5404135466836665992L;
+
   /** Possible disambiguator actions. **/
   public enum DisambiguatorAction {
     ADD, FILTER, REMOVE, REPLACE, UNIFY, IMMUNIZE, FILTERALL
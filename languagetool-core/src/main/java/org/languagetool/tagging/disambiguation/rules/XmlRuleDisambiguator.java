@@ -19,16 +19,26 @@
 
 package org.languagetool.tagging.disambiguation.rules;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.rules.patterns.CompiledRules;
 import org.languagetool.tagging.disambiguation.Disambiguator;
+import org.languagetool.tools.ResourceLoaderPool;
 import org.languagetool.tools.Tools;
 import org.xml.sax.SAXException;
 
@@ -41,8 +51,13 @@ import org.xml.sax.SAXException;
 public class XmlRuleDisambiguator implements Disambiguator {
 
   private static final String DISAMBIGUATION_FILE = "disambiguation.xml";
-  
-  private List<DisambiguationPatternRule> disambiguationRules;
+
+  // shared by all instances and replaced as a whole by reloadRules(), keyed by file name. Futures
+  // so that a rule file that is being loaded in the background is not loaded a second time:
+  private static final ConcurrentMap<String, Future<List<DisambiguationPatternRule>>> rulesByFile = new ConcurrentHashMap<>();
+  // file name -> size of the XML file in bytes, as an estimate of the memory used by its rules:
+  private static final ConcurrentMap<String, Long> fileSizes = new ConcurrentHashMap<>();
+
   private final Language language;
 
   public XmlRuleDisambiguator(final Language language) {
@@ -52,21 +67,129 @@ public class XmlRuleDisambiguator implements Disambiguator {
   @Override
   public AnalyzedSentence disambiguate(final AnalyzedSentence input) throws IOException {
     AnalyzedSentence sentence = input;
-    if (disambiguationRules == null) {
-      final String disambiguationFile =
-        JLanguageTool.getDataBroker().getResourceDir() + "/" + language.getShortName() + "/" + DISAMBIGUATION_FILE;
-      try {
-        disambiguationRules = loadPatternRules(disambiguationFile);
-      } catch (final Exception e) {
-        throw new RuntimeException("Problems with loading disambiguation file: " + disambiguationFile, e);
-      }
-    }
+    // read only once, so a sentence is disambiguated completely by either the old or the reloaded rules:
+    final List<DisambiguationPatternRule> disambiguationRules = getRules();
     for (final DisambiguationPatternRule patternRule : disambiguationRules) {
       sentence = patternRule.replace(sentence);
     }
     return sentence;
   }
 
+  /**
+   * Start loading the disambiguation rules of the given language in the {@link ResourceLoaderPool},
+   * so they are available when the first sentence is disambiguated. Does nothing if the
+   * language has no disambiguation file or its rules have been loaded already.
+   * @since 2.5
+   */
+  public static void preloadRules(final Language language) {
+    final XmlRuleDisambiguator disambiguator = new XmlRuleDisambiguator(language);
+    if (rulesByFile.containsKey(disambiguator.getDisambiguationFile())
+        || !JLanguageTool.getDataBroker().resourceExists("/" + language.getShortName() + "/" + DISAMBIGUATION_FILE)) {
+      return;
+    }
+    ResourceLoaderPool.submit(new Callable<Void>() {
+      @Override
+      public Void call() {
+        try {
+          disambiguator.getRules();
+        } catch (RuntimeException e) {
+          // will be thrown again when the rules are actually needed:
+          System.err.println("Could not preload disambiguation rules for " + language + ": " + e);
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Load the disambiguation rules of the given language again, e.g. after {@code disambiguation.xml}
+   * has been modified. The new rules are completely parsed before they replace the old ones, so if
+   * the file cannot be loaded, the old rules stay active. Sentences that are being disambiguated
+   * while the rules are replaced still use the old rules.
+   * @return {@code false} if the rules of the language have not been loaded yet, so there was nothing to reload
+   * @since 2.5
+   */
+  public static boolean reloadRules(final Language language) throws ParserConfigurationException, SAXException, IOException {
+    final XmlRuleDisambiguator disambiguator = new XmlRuleDisambiguator(language);
+    final String disambiguationFile = disambiguator.getDisambiguationFile();
+    if (!rulesByFile.containsKey(disambiguationFile)) {
+      return false;
+    }
+    final List<DisambiguationPatternRule> rules = disambiguator.loadPatternRules(disambiguationFile);
+    final FutureTask<List<DisambiguationPatternRule>> loaded = new FutureTask<>(new Callable<List<DisambiguationPatternRule>>() {
+      @Override
+      public List<DisambiguationPatternRule> call() {
+        return rules;
+      }
+    });
+    loaded.run();
+    rulesByFile.put(disambiguationFile, loaded);
+    return true;
+  }
+
+  /**
+   * Remove the disambiguation rules of the given language, so their memory can be reclaimed
+   * while the language isn't used. They will be loaded again when the next sentence is disambiguated.
+   * @param languageCode the language's short code (e.g. {@code en})
+   * @return the estimated number of bytes released
+   * @since 2.5
+   */
+  public static long releaseRules(String languageCode) {
+    final String disambiguationFile = getDisambiguationFile(languageCode);
+    if (rulesByFile.remove(disambiguationFile) == null) {
+      return 0;
+    }
+    final Long size = fileSizes.remove(disambiguationFile);
+    return size != null ? size : 0;
+  }
+
+  /**
+   * The estimated memory used by the loaded disambiguation rules of the given language, based on the size of the rule file.
+   * @param languageCode the language's short code (e.g. {@code en})
+   * @since 2.5
+   */
+  public static long getSize(String languageCode) {
+    final String disambiguationFile = getDisambiguationFile(languageCode);
+    final Long size = fileSizes.get(disambiguationFile);
+    return size != null && rulesByFile.containsKey(disambiguationFile) ? size : 0;
+  }
+
+  private List<DisambiguationPatternRule> getRules() {
+    final String disambiguationFile = getDisambiguationFile();
+    Future<List<DisambiguationPatternRule>> future = rulesByFile.get(disambiguationFile);
+    if (future == null) {
+      final FutureTask<List<DisambiguationPatternRule>> task = new FutureTask<>(new Callable<List<DisambiguationPatternRule>>() {
+        @Override
+        public List<DisambiguationPatternRule> call() throws Exception {
+          return loadPatternRules(disambiguationFile);
+        }
+      });
+      future = rulesByFile.putIfAbsent(disambiguationFile, task);
+      if (future == null) {
+        future = task;
+        task.run();
+      }
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while loading disambiguation file: " + disambiguationFile, e);
+    } catch (ExecutionException e) {
+      // don't cache the failure, so the next call will try again:
+      rulesByFile.remove(disambiguationFile, future);
+      throw new RuntimeException("Problems with loading disambiguation file: " + disambiguationFile, e.getCause());
+    }
+  }
+
+  private String getDisambiguationFile() {
+    return getDisambiguationFile(language.getShortName());
+  }
+
+  private static String getDisambiguationFile(String languageCode) {
+    return JLanguageTool.getDataBroker().getResourceDir() + "/" + languageCode + "/" + DISAMBIGUATION_FILE;
+  }
+
   /**
    * Load disambiguation rules from an XML file. Use {@link org.languagetool.JLanguageTool#addRule} to add
    * these rules to the checking process.
@@ -77,8 +200,18 @@ public class XmlRuleDisambiguator implements Disambiguator {
    * @return a List of {@link DisambiguationPatternRule} objects
    */
   protected List<DisambiguationPatternRule> loadPatternRules(final String filename) throws ParserConfigurationException, SAXException, IOException {
+    final byte[] xml;
+    try (InputStream is = Tools.getStream(filename)) {
+      xml = CompiledRules.readBytes(is);
+    }
+    fileSizes.put(filename, (long) xml.length);
+    // prefer the precompiled rules, if they have been created at build time:
+    final List<DisambiguationPatternRule> compiledRules = CompiledRules.load(filename, xml, DisambiguationPatternRule.class);
+    if (compiledRules != null) {
+      return compiledRules;
+    }
     final DisambiguationRuleLoader ruleLoader = new DisambiguationRuleLoader();
-    return ruleLoader.getRules(Tools.getStream(filename));
+    return ruleLoader.getRules(new ByteArrayInputStream(xml));
   }
 
 }
@@ -0,0 +1,161 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache that can be used from several threads. The entries are spread
+ * over independently locked segments, each of which evicts its least recently used
+ * entries once it is full, so threads working on different keys rarely block each other.
+ * Hits and misses are counted so the cache's usefulness can be monitored.
+ * @since 2.5
+ */
+public class ConcurrentLruCache<K, V> {
+
+  private static final int MAX_SEGMENTS = 16;
+
+  private final Segment<K, V>[] segments;
+  private final int maxSize;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param maxSize the maximum number of entries, must be &gt; 0
+   */
+  @SuppressWarnings("unchecked")
+  public ConcurrentLruCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be > 0: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    final int segmentCount = Math.min(MAX_SEGMENTS, maxSize);
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      // distribute the capacity so that the segment sizes add up to maxSize:
+      final int segmentSize = maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+      segments[i] = new Segment<>(segmentSize);
+    }
+  }
+
+  /**
+   * @return the cached value or {@code null}
+   */
+  public V get(K key) {
+    final Segment<K, V> segment = getSegment(key);
+    final V value;
+    synchronized (segment) {
+      value = segment.get(key);
+    }
+    if (value == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return value;
+  }
+
+  public void put(K key, V value) {
+    if (value == null) {
+      throw new NullPointerException("Cannot cache null values, key: " + key);
+    }
+    final Segment<K, V> segment = getSegment(key);
+    synchronized (segment) {
+      segment.put(key, value);
+    }
+  }
+
+  public void remove(K key) {
+    final Segment<K, V> segment = getSegment(key);
+    synchronized (segment) {
+      segment.remove(key);
+    }
+  }
+
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  /**
+   * The current number of entries.
+   */
+  public int size() {
+    int size = 0;
+    for (Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * The share of {@link #get(Object)} calls that found a value, between 0 and 1.
+   */
+  public float getHitRate() {
+    final long hitCount = hits.get();
+    final long total = hitCount + misses.get();
+    return total == 0 ? 0.0f : (float) hitCount / total;
+  }
+
+  @Override
+  public String toString() {
+    return "size=" + size() + "/" + maxSize + ", hits=" + hits.get() + ", misses=" + misses.get();
+  }
+
+  private Segment<K, V> getSegment(K key) {
+    int hash = key.hashCode();
+    hash ^= (hash >>> 16);
+    return segments[(hash & 0x7fffffff) % segments.length];
+  }
+
+  private static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+    private final int maxSize;
+
+    private Segment(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+
+}
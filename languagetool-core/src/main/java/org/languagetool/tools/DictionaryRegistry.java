@@ -0,0 +1,192 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import morfologik.stemming.Dictionary;
+import org.languagetool.JLanguageTool;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Process-wide registry of Morfologik dictionaries. Every {@code .dict} file is loaded
+ * only once per JVM, no matter how many taggers, synthesizers, or spellers use it, and
+ * the same {@link Dictionary} instance is handed out to all of them. Dictionary objects
+ * are immutable, so sharing them across threads is safe (unlike {@code DictionaryLookup}
+ * objects, which must not be shared).
+ *
+ * <p>The dictionaries of a language can be {@link #release(String) released} when the
+ * language is not used anymore. They are loaded again on the next call to
+ * {@link #getDictionary(String)}, so code that wants to allow this must not keep a reference
+ * to the dictionary but get it from the registry when it's needed.
+ *
+ * @since 2.5
+ */
+public final class DictionaryRegistry {
+
+  private static final ConcurrentMap<String, Future<Dictionary>> dictionaries = new ConcurrentHashMap<>();
+  // resource filename -> resolved URL, as resolving is too slow to be done for every lookup:
+  private static final ConcurrentMap<String, URL> urls = new ConcurrentHashMap<>();
+  // URL -> language code, for dictionaries loaded by resource filename:
+  private static final ConcurrentMap<String, String> languageCodes = new ConcurrentHashMap<>();
+  // URL -> file size in bytes, as an estimate of the memory used by the dictionary:
+  private static final ConcurrentMap<String, Long> sizes = new ConcurrentHashMap<>();
+
+  private DictionaryRegistry() {
+  }
+
+  /**
+   * Get the shared dictionary for a file in the resource directory.
+   * @param filename path in the resource directory, e.g. {@code /en/english.dict}
+   */
+  public static Dictionary getDictionary(String filename) throws IOException {
+    URL url = urls.get(filename);
+    if (url == null) {
+      url = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(filename);
+      final String languageCode = getLanguageCode(filename);
+      if (languageCode != null) {
+        languageCodes.put(url.toExternalForm(), languageCode);
+      }
+      urls.put(filename, url);
+    }
+    return getDictionary(url);
+  }
+
+  /**
+   * Get the shared dictionary for the given URL. The {@code .info} file is expected
+   * in the same location as the {@code .dict} file.
+   */
+  public static Dictionary getDictionary(final URL url) throws IOException {
+    final String key = url.toExternalForm();
+    Future<Dictionary> future = dictionaries.get(key);
+    if (future == null) {
+      final FutureTask<Dictionary> task = new FutureTask<>(new Callable<Dictionary>() {
+        @Override
+        public Dictionary call() throws Exception {
+          final Dictionary dictionary = load(url);
+          sizes.put(key, getSize(url));
+          return dictionary;
+        }
+      });
+      future = dictionaries.putIfAbsent(key, task);
+      if (future == null) {
+        future = task;
+        task.run();
+      }
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while loading dictionary " + url, e);
+    } catch (ExecutionException e) {
+      // don't cache the failure, so the next call will try again:
+      dictionaries.remove(key, future);
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Could not load dictionary " + url, cause);
+    }
+  }
+
+  /**
+   * Number of dictionaries that have been loaded (or are being loaded).
+   */
+  public static int getDictionaryCount() {
+    return dictionaries.size();
+  }
+
+  /**
+   * Remove the dictionaries of the given language from the registry, so their memory can be
+   * reclaimed once they're not referenced anymore. They will be loaded again when needed.
+   * Only dictionaries loaded with {@link #getDictionary(String)} are associated with a language.
+   * @param languageCode the language's short code, as used in the resource directory (e.g. {@code en})
+   * @return the estimated number of bytes released
+   * @since 2.5
+   */
+  public static long release(String languageCode) {
+    long released = 0;
+    for (Map.Entry<String, String> entry : languageCodes.entrySet()) {
+      final String key = entry.getKey();
+      if (entry.getValue().equals(languageCode) && dictionaries.remove(key) != null) {
+        final Long size = sizes.remove(key);
+        released += size != null ? size : 0;
+      }
+    }
+    return released;
+  }
+
+  /**
+   * The estimated memory used by the loaded dictionaries of the given language, based on their file sizes.
+   * @param languageCode the language's short code, as used in the resource directory (e.g. {@code en})
+   * @since 2.5
+   */
+  public static long getSize(String languageCode) {
+    long size = 0;
+    for (Map.Entry<String, String> entry : languageCodes.entrySet()) {
+      final Long dictionarySize = sizes.get(entry.getKey());
+      if (entry.getValue().equals(languageCode) && dictionarySize != null) {
+        size += dictionarySize;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * The code of the language a file in the resource directory belongs to, e.g. {@code en}
+   * for {@code /en/english.dict}, or {@code null} if it's not in a language's directory.
+   * @since 2.5
+   */
+  public static String getLanguageCode(String filename) {
+    final String[] parts = filename.split("/");
+    return parts.length > 2 && parts[0].isEmpty() ? parts[1] : null;
+  }
+
+  /**
+   * The size of a resource file in bytes, or {@code 0} if it's not known.
+   */
+  static long getSize(URL url) {
+    try {
+      if ("file".equals(url.getProtocol())) {
+        // asking a file URL's connection for the length would open a stream that's never closed:
+        return new File(url.toURI()).length();
+      }
+      return Math.max(url.openConnection().getContentLengthLong(), 0);
+    } catch (IOException | URISyntaxException e) {
+      return 0;
+    }
+  }
+
+  private static Dictionary load(URL url) throws IOException {
+    // Morfologik copies the automaton into a byte array on the heap anyway, so memory-mapping
+    // the file (or extracting it from a JAR first) wouldn't save memory:
+    return Dictionary.read(url);
+  }
+
+}
@@ -0,0 +1,362 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.databroker.ResourceDataBroker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Detects the language of a text. This gives the same results as Tika's
+ * {@link org.apache.tika.language.LanguageIdentifier} with the profiles added by
+ * {@link LanguageIdentifierTools#addLtProfiles()}, but is much faster:
+ * <ul>
+ *   <li>only a prefix of the text (see {@link #DEFAULT_SAMPLE_SIZE}) is considered,
+ *       so the cost doesn't grow with the text length</li>
+ *   <li>the trigrams are packed into {@code long}s and the profiles are stored in primitive
+ *       arrays, so the distance to all profiles is computed in one pass over the trigrams
+ *       of the text, without creating any strings</li>
+ *   <li>results are cached by a hash of the sample</li>
+ * </ul>
+ * Instances are thread-safe.
+ * @since 2.5
+ */
+public final class LanguageDetector {
+
+  /** The maximum number of characters at the start of a text that are used for detection. */
+  public static final int DEFAULT_SAMPLE_SIZE = 2000;
+  public static final int DEFAULT_CACHE_SIZE = 1000;
+
+  private static final String TIKA_PROFILE_DIR = "/org/apache/tika/language/";
+  private static final String PROFILE_SUFFIX = ".ngp";
+  private static final String PROFILE_ENCODING = "UTF-8";
+  private static final int NGRAM_LENGTH = 3;
+  // Tika's maximum distance, texts that are farther away from all profiles are "unknown":
+  private static final double MAX_DISTANCE = 1.0;
+  private static final String UNKNOWN = "";
+  private static final char SEPARATOR = '_';
+
+  private static volatile LanguageDetector instance;
+
+  private final int sampleSize;
+  private final ConcurrentLruCache<Long, String> cache;
+  private final String[] languageCodes;
+  // sum of the squared relative frequencies of each profile's trigrams:
+  private final double[] profileSquareSums;
+  // open addressing hash table from trigram to trigram id:
+  private final long[] ngramKeys;
+  private final int[] ngramIds;
+  // for trigram id i, the languages and relative frequencies are at postingStarts[i] to postingStarts[i+1]-1:
+  private final int[] postingStarts;
+  private final int[] postingLanguages;
+  private final double[] postingFrequencies;
+
+  /**
+   * Get a shared detector with the default sample and cache sizes that knows Tika's language
+   * profiles and the additional profiles that come with LanguageTool. It's created on first use.
+   */
+  public static LanguageDetector getInstance() {
+    LanguageDetector result = instance;
+    if (result == null) {
+      synchronized (LanguageDetector.class) {
+        result = instance;
+        if (result == null) {
+          try {
+            result = new LanguageDetector(loadDefaultProfiles(), DEFAULT_SAMPLE_SIZE, DEFAULT_CACHE_SIZE);
+          } catch (IOException e) {
+            throw new RuntimeException("Could not load language profiles", e);
+          }
+          instance = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param profiles trigram counts per language code
+   * @param sampleSize the maximum number of characters at the start of a text that are used for detection
+   * @param cacheSize the maximum number of cached results, {@code 0} to disable the cache
+   */
+  LanguageDetector(Map<String, Map<String, Long>> profiles, int sampleSize, int cacheSize) {
+    if (sampleSize <= 0) {
+      throw new IllegalArgumentException("sampleSize must be > 0: " + sampleSize);
+    }
+    this.sampleSize = sampleSize;
+    this.cache = cacheSize > 0 ? new ConcurrentLruCache<Long, String>(cacheSize) : null;
+    languageCodes = profiles.keySet().toArray(new String[profiles.size()]);
+    profileSquareSums = new double[languageCodes.length];
+    // assign ids to all trigrams and count their postings:
+    final Map<Long, Integer> ids = new LinkedHashMap<>();
+    final List<Integer> postingCounts = new ArrayList<>();
+    int postingCount = 0;
+    for (String languageCode : languageCodes) {
+      for (String ngram : profiles.get(languageCode).keySet()) {
+        final Long key = pack(ngram.charAt(0), ngram.charAt(1), ngram.charAt(2));
+        Integer id = ids.get(key);
+        if (id == null) {
+          id = ids.size();
+          ids.put(key, id);
+          postingCounts.add(0);
+        }
+        postingCounts.set(id, postingCounts.get(id) + 1);
+        postingCount++;
+      }
+    }
+    final int tableSize = Integer.highestOneBit(Math.max(ids.size(), 1) * 2) * 2;
+    ngramKeys = new long[tableSize];
+    ngramIds = new int[tableSize];
+    Arrays.fill(ngramIds, -1);
+    for (Map.Entry<Long, Integer> entry : ids.entrySet()) {
+      int slot = getSlot(entry.getKey(), tableSize);
+      while (ngramIds[slot] != -1) {
+        slot = (slot + 1) & (tableSize - 1);
+      }
+      ngramKeys[slot] = entry.getKey();
+      ngramIds[slot] = entry.getValue();
+    }
+    postingStarts = new int[ids.size() + 1];
+    for (int i = 0; i < ids.size(); i++) {
+      postingStarts[i + 1] = postingStarts[i] + postingCounts.get(i);
+    }
+    postingLanguages = new int[postingCount];
+    postingFrequencies = new double[postingCount];
+    final int[] nextPosting = Arrays.copyOf(postingStarts, ids.size());
+    for (int lang = 0; lang < languageCodes.length; lang++) {
+      final Map<String, Long> profile = profiles.get(languageCodes[lang]);
+      long total = 0;
+      for (Long count : profile.values()) {
+        total += count;
+      }
+      final double length = Math.max(total, 1.0);
+      for (Map.Entry<String, Long> entry : profile.entrySet()) {
+        final String ngram = entry.getKey();
+        final int id = ids.get(pack(ngram.charAt(0), ngram.charAt(1), ngram.charAt(2)));
+        final double frequency = entry.getValue() / length;
+        postingLanguages[nextPosting[id]] = lang;
+        postingFrequencies[nextPosting[id]] = frequency;
+        nextPosting[id]++;
+        profileSquareSums[lang] += frequency * frequency;
+      }
+    }
+  }
+
+  /**
+   * Detect the language of a text.
+   * @return the language or {@code null} if the language couldn't be detected or isn't supported by LanguageTool
+   */
+  public Language detectLanguage(String text) {
+    final String code = detectLanguageCode(text);
+    if (code == null) {
+      return null;
+    }
+    try {
+      return Language.getLanguageForShortName(code);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Detect the language of a text.
+   * @return the code of the language with the closest profile, or {@code null} if no profile is close enough
+   */
+  public String detectLanguageCode(String text) {
+    final int length = Math.min(text.length(), sampleSize);
+    final Long key = cache != null ? getHash(text, length) : null;
+    String code = cache != null ? cache.get(key) : null;
+    if (code == null) {
+      code = detect(text, length);
+      if (cache != null) {
+        cache.put(key, code);
+      }
+    }
+    return code.equals(UNKNOWN) ? null : code;
+  }
+
+  /**
+   * The cache of detection results, or {@code null} if caching is disabled.
+   */
+  public ConcurrentLruCache<Long, String> getCache() {
+    return cache;
+  }
+
+  private String detect(String text, int length) {
+    // count the trigrams like Tika's ProfilingWriter: lowercase letters, runs of other
+    // characters count as one separator, words are padded with one separator on each side:
+    final int tableSize = Integer.highestOneBit(length * 2 + 2) * 2;
+    final long[] keys = new long[tableSize];
+    final int[] counts = new int[tableSize];
+    final int[] usedSlots = new int[length + 1];
+    int usedSlotCount = 0;
+    int total = 0;
+    char c0 = 0;
+    char c1 = 0;
+    char c2 = SEPARATOR;
+    int n = 1;
+    for (int i = 0; i < length; i++) {
+      final char c = Character.toLowerCase(text.charAt(i));
+      final boolean isLetter = Character.isLetter(c);
+      c0 = c1;
+      c1 = c2;
+      c2 = isLetter ? c : SEPARATOR;
+      n++;
+      if (n >= NGRAM_LENGTH) {
+        final long ngram = pack(c0, c1, c2);
+        int slot = getSlot(ngram, tableSize);
+        while (counts[slot] != 0 && keys[slot] != ngram) {
+          slot = (slot + 1) & (tableSize - 1);
+        }
+        if (counts[slot] == 0) {
+          keys[slot] = ngram;
+          usedSlots[usedSlotCount++] = slot;
+        }
+        counts[slot]++;
+        total++;
+      }
+      if (!isLetter) {
+        n = 1;
+      }
+    }
+    // squared Euclidean distance of relative frequencies, like LanguageProfile.distance(),
+    // expanded so only trigrams that occur in the text need to be looked at:
+    // sum (t - p)^2 = sum t^2 + sum p^2 - 2 * sum t*p
+    final double textLength = Math.max(total, 1.0);
+    double textSquareSum = 0;
+    final double[] crossSums = new double[languageCodes.length];
+    for (int i = 0; i < usedSlotCount; i++) {
+      final int slot = usedSlots[i];
+      final double frequency = counts[slot] / textLength;
+      textSquareSum += frequency * frequency;
+      final int id = getNgramId(keys[slot]);
+      if (id != -1) {
+        for (int j = postingStarts[id]; j < postingStarts[id + 1]; j++) {
+          crossSums[postingLanguages[j]] += frequency * postingFrequencies[j];
+        }
+      }
+    }
+    String result = UNKNOWN;
+    double minDistance = MAX_DISTANCE * MAX_DISTANCE;
+    for (int lang = 0; lang < languageCodes.length; lang++) {
+      final double distance = textSquareSum + profileSquareSums[lang] - 2 * crossSums[lang];
+      if (distance < minDistance) {
+        minDistance = distance;
+        result = languageCodes[lang];
+      }
+    }
+    return result;
+  }
+
+  private int getNgramId(long ngram) {
+    int slot = getSlot(ngram, ngramKeys.length);
+    while (ngramIds[slot] != -1) {
+      if (ngramKeys[slot] == ngram) {
+        return ngramIds[slot];
+      }
+      slot = (slot + 1) & (ngramKeys.length - 1);
+    }
+    return -1;
+  }
+
+  private static long pack(char c0, char c1, char c2) {
+    return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+  }
+
+  private static int getSlot(long key, int tableSize) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    hash ^= hash >>> 32;
+    return (int) hash & (tableSize - 1);
+  }
+
+  /**
+   * 64 bit FNV-1a hash of the first {@code length} characters and the length itself.
+   */
+  private static long getHash(String text, int length) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < length; i++) {
+      hash ^= text.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= length;
+    hash *= 0x100000001b3L;
+    return hash;
+  }
+
+  /**
+   * Load Tika's profiles and the ones that come with LanguageTool, the latter
+   * replacing Tika's for the same language (like {@link LanguageIdentifierTools#addLtProfiles()} does).
+   */
+  private static Map<String, Map<String, Long>> loadDefaultProfiles() throws IOException {
+    final Map<String, Map<String, Long>> profiles = new LinkedHashMap<>();
+    final Properties properties = new Properties();
+    try (InputStream stream = LanguageDetector.class.getResourceAsStream(TIKA_PROFILE_DIR + "tika.language.properties")) {
+      if (stream == null) {
+        throw new IOException("Tika's language properties not found in classpath");
+      }
+      properties.load(stream);
+    }
+    for (String languageCode : properties.getProperty("languages", "").split(",")) {
+      try (InputStream stream = LanguageDetector.class.getResourceAsStream(TIKA_PROFILE_DIR + languageCode.trim() + PROFILE_SUFFIX)) {
+        if (stream != null) {
+          profiles.put(languageCode.trim(), loadProfile(stream));
+        }
+      }
+    }
+    final ResourceDataBroker dataBroker = JLanguageTool.getDataBroker();
+    for (Language language : Language.REAL_LANGUAGES) {
+      final String languageCode = language.getShortName();
+      final String profileFile = "/" + languageCode + "/" + languageCode + PROFILE_SUFFIX;
+      if (dataBroker.resourceExists(profileFile)) {
+        try (InputStream stream = dataBroker.getFromResourceDirAsStream(profileFile)) {
+          profiles.put(languageCode, loadProfile(stream));
+        }
+      }
+    }
+    return profiles;
+  }
+
+  static Map<String, Long> loadProfile(InputStream stream) throws IOException {
+    final Map<String, Long> profile = new LinkedHashMap<>();
+    final BufferedReader reader = new BufferedReader(new InputStreamReader(stream, PROFILE_ENCODING));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.length() > 0 && !line.startsWith("#")) {
+        final int space = line.indexOf(' ');
+        final String ngram = line.substring(0, space);
+        if (ngram.length() == NGRAM_LENGTH) {  // Tika would throw an exception for other lengths
+          final Long count = profile.get(ngram);
+          profile.put(ngram, Long.parseLong(line.substring(space + 1)) + (count != null ? count : 0));
+        }
+      }
+    }
+    return profile;
+  }
+
+}
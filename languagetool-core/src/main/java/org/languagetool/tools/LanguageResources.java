@@ -0,0 +1,173 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import org.languagetool.rules.spelling.hunspell.HunspellRule;
+import org.languagetool.rules.spelling.morfologik.MorfologikSpeller;
+import org.languagetool.synthesis.BaseSynthesizer;
+import org.languagetool.tagging.disambiguation.rules.XmlRuleDisambiguator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Process-wide registry of the heavy resources of a language, like statistical models, that
+ * can be released while the language isn't used and are loaded again transparently on next use.
+ * Code using such a resource must not keep a reference to it, but get it with
+ * {@link #get(String, String, Loader)} whenever it's needed.
+ *
+ * <p>{@link #release(String)} also releases the language's dictionaries in the
+ * {@link DictionaryRegistry}, its spellers' native Hunspell dictionaries and symmetric delete
+ * indexes, and its disambiguation rules, so a long-running process
+ * can limit its memory use to the languages that are actually used.
+ *
+ * @since 2.5
+ */
+public final class LanguageResources {
+
+  private static final ConcurrentMap<Key, Future<Object>> resources = new ConcurrentHashMap<>();
+  // size of the resource file in bytes, as an estimate of the memory used by the resource:
+  private static final ConcurrentMap<Key, Long> sizes = new ConcurrentHashMap<>();
+
+  private LanguageResources() {
+  }
+
+  /**
+   * Creates a resource from its file.
+   */
+  public interface Loader<T> {
+    T load(InputStream stream) throws IOException;
+  }
+
+  /**
+   * Get the shared resource, loading it from the classpath if it hasn't been loaded yet
+   * or has been released.
+   * @param languageCode the short code of the language the resource belongs to (e.g. {@code en})
+   * @param path absolute path of the resource file in the classpath, e.g. {@code /en-token.bin}
+   * @param loader creates the resource - it's called only once per path, even if several threads need the resource
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T get(String languageCode, final String path, final Loader<T> loader) throws IOException {
+    final Key key = new Key(languageCode, path);
+    Future<Object> future = resources.get(key);
+    if (future == null) {
+      final FutureTask<Object> task = new FutureTask<>(new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          final URL url = LanguageResources.class.getResource(path);
+          if (url == null) {
+            throw new IOException("Could not load file from classpath : " + path);
+          }
+          final T resource;
+          try (InputStream stream = url.openStream()) {
+            resource = loader.load(stream);
+          }
+          sizes.put(key, DictionaryRegistry.getSize(url));
+          return resource;
+        }
+      });
+      future = resources.putIfAbsent(key, task);
+      if (future == null) {
+        future = task;
+        task.run();
+      }
+    }
+    try {
+      return (T) ResourceLoaderPool.get(future);
+    } catch (IOException | RuntimeException e) {
+      // don't cache the failure, so the next call will try again:
+      resources.remove(key, future);
+      throw e;
+    }
+  }
+
+  /**
+   * Release the resources of the given language: the resources loaded with
+   * {@link #get(String, String, Loader)}, its dictionaries in the {@link DictionaryRegistry},
+   * the native Hunspell dictionaries and symmetric delete indexes of its spellers,
+   * its disambiguation rules, and the forms cached by its synthesizers. Their memory can be reclaimed once they're not referenced
+   * anymore, e.g. by {@link org.languagetool.JLanguageTool} instances that are still in use.
+   * @param languageCode the language's short code (e.g. {@code en})
+   * @return the estimated number of bytes released
+   */
+  public static long release(String languageCode) {
+    long released = 0;
+    for (Key key : resources.keySet()) {
+      if (key.languageCode.equals(languageCode) && resources.remove(key) != null) {
+        final Long size = sizes.remove(key);
+        released += size != null ? size : 0;
+      }
+    }
+    released += DictionaryRegistry.release(languageCode);
+    released += HunspellRule.releaseDictionaries(languageCode);
+    released += MorfologikSpeller.releaseDeleteIndexes(languageCode);
+    released += XmlRuleDisambiguator.releaseRules(languageCode);
+    BaseSynthesizer.clearCaches(languageCode);
+    return released;
+  }
+
+  /**
+   * The estimated memory used by the loaded resources of the given language, including its
+   * dictionaries, spellers and disambiguation rules. The estimate is based on the size of the files
+   * the resources have been loaded from.
+   * @param languageCode the language's short code (e.g. {@code en})
+   */
+  public static long getSize(String languageCode) {
+    long size = 0;
+    for (Map.Entry<Key, Long> entry : sizes.entrySet()) {
+      if (entry.getKey().languageCode.equals(languageCode) && resources.containsKey(entry.getKey())) {
+        size += entry.getValue();
+      }
+    }
+    return size + DictionaryRegistry.getSize(languageCode) + HunspellRule.getDictionarySize(languageCode)
+            + MorfologikSpeller.getDeleteIndexSize(languageCode) + XmlRuleDisambiguator.getSize(languageCode);
+  }
+
+  private static class Key {
+
+    private final String languageCode;
+    private final String path;
+
+    private Key(String languageCode, String path) {
+      this.languageCode = languageCode;
+      this.path = path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final Key other = (Key) o;
+      return languageCode.equals(other.languageCode) && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * languageCode.hashCode() + path.hashCode();
+    }
+  }
+
+}
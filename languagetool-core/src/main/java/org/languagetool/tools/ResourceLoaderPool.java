@@ -0,0 +1,136 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide pool of threads that load resources like rule files and dictionaries,
+ * so that several of them can be loaded at the same time. The threads are daemon threads,
+ * so they don't keep the JVM from exiting.
+ *
+ * <p>Tasks submitted from a loader thread are run directly in that thread, so loading
+ * code can use the pool itself without waiting for threads that are all busy waiting.
+ *
+ * @since 2.5
+ */
+public final class ResourceLoaderPool {
+
+  private static final AtomicInteger threadCount = new AtomicInteger();
+  private static final ExecutorService executor = Executors.newFixedThreadPool(
+      Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          final Thread thread = new LoaderThread(runnable, "lt-loader-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
+  private ResourceLoaderPool() {
+  }
+
+  /**
+   * Start loading in the background.
+   */
+  public static <T> Future<T> submit(Callable<T> task) {
+    if (Thread.currentThread() instanceof LoaderThread) {
+      final FutureTask<T> future = new FutureTask<>(task);
+      future.run();
+      return future;
+    }
+    return executor.submit(task);
+  }
+
+  /**
+   * Run all tasks concurrently and wait for them.
+   * @return the results, in the same order as the tasks
+   * @throws IOException if any task failed, with the cause of the first failure
+   */
+  public static <T> List<T> loadAll(List<? extends Callable<T>> tasks) throws IOException {
+    final List<Future<T>> futures = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      futures.add(submit(task));
+    }
+    final List<T> results = new ArrayList<>(futures.size());
+    for (Future<T> future : futures) {
+      results.add(get(future));
+    }
+    return results;
+  }
+
+  /**
+   * Wait for a loading task to finish.
+   * @throws IOException if loading failed, with the task's exception as the cause unless it's an IOException itself
+   */
+  public static <T> T get(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while loading", e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Start loading the given dictionary into the {@link DictionaryRegistry}, unless
+   * it has been loaded already. Errors are ignored here, as they will occur again
+   * when the dictionary is actually needed.
+   * @param filename path in the resource directory, e.g. {@code /en/english.dict}
+   */
+  public static void preloadDictionary(final String filename) {
+    submit(new Callable<Void>() {
+      @Override
+      public Void call() {
+        try {
+          DictionaryRegistry.getDictionary(filename);
+        } catch (Exception e) {
+          System.err.println("Could not preload dictionary " + filename + ": " + e);
+        }
+        return null;
+      }
+    });
+  }
+
+  private static class LoaderThread extends Thread {
+    private LoaderThread(Runnable runnable, String name) {
+      super(runnable, name);
+    }
+  }
+
+}
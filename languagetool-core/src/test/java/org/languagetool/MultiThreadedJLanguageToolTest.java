@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -112,4 +113,97 @@ public class MultiThreadedJLanguageToolTest {
     });
     langTool.check("my test text");
   }
+
+  @Test
+  public void testCancellationToken() throws Exception {
+    final String input = "First sentence. Second sentence. Third sentence. Fourth sentence.";
+    for (JLanguageTool tool : Arrays.asList(new JLanguageTool(new Demo()), new MultiThreadedJLanguageTool(new Demo()))) {
+      tool.addRule(new SlowRule());
+      final CancellationToken token = new CancellationToken();
+      tool.setCancellationToken(token);
+      final Thread canceller = new Thread() {
+        @Override
+        public void run() {
+          try {
+            Thread.sleep(40);
+          } catch (InterruptedException ignored) {}
+          token.cancel("Not needed anymore");
+        }
+      };
+      canceller.start();
+      try {
+        tool.check(input);
+        Assert.fail("Expected cancellation for " + tool);
+      } catch (CheckCancelledException expected) {
+        Assert.assertEquals("Not needed anymore", expected.getMessage());
+      }
+      canceller.join();
+      tool.setCancellationToken(new CancellationToken(50));
+      try {
+        tool.check(input);
+        Assert.fail("Expected timeout for " + tool);
+      } catch (CheckTimeoutException expected) {
+        // expected
+      }
+      tool.setCancellationToken(null);
+      tool.check(input);
+    }
+  }
+
+  @Test
+  public void testSentenceChunkListener() throws Exception {
+    final String input = "First sentence. Second sentence. Third sentence. Fourth sentence.";
+    final JLanguageTool tool = new JLanguageTool(new Demo());
+    tool.activateDefaultPatternRules();
+    final List<RuleMatch> expected = tool.check(input);
+    final AtomicInteger chunks = new AtomicInteger();
+    tool.setSentenceChunkListener(new SentenceChunkListener() {
+      @Override
+      public void chunkDone() {
+        chunks.incrementAndGet();
+      }
+    }, 1);
+    Assert.assertEquals(expected.toString(), tool.check(input).toString());
+    // between the four sentences, once when analyzing and once when matching them:
+    Assert.assertEquals(6, chunks.get());
+    chunks.set(0);
+    tool.setSentenceChunkListener(null, 0);
+    tool.check(input);
+    Assert.assertEquals(0, chunks.get());
+  }
+
+  @Test
+  public void testWarmUp() throws Exception {
+    final JLanguageTool tool = new JLanguageTool(new Demo());
+    tool.warmUp();
+    Assert.assertEquals(0, tool.getSentenceCount());
+    tool.activateDefaultPatternRules();
+    tool.warmUp();
+    // the text is made of the rules' examples:
+    Assert.assertTrue(tool.getSentenceCount() > 0);
+  }
+
+  private static class SlowRule extends Rule {
+    @Override
+    public String getId() {
+      return "SLOW_RULE";
+    }
+    @Override
+    public String getDescription() {
+      return "A rule that takes 30ms per sentence";
+    }
+    @Override
+    public RuleMatch[] match(AnalyzedSentence text) {
+      try {
+        Thread.sleep(30);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return new RuleMatch[0];
+    }
+    @Override
+    public void reset() {
+    }
+  }
+
 }
@@ -0,0 +1,86 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.databroker;
+
+import junit.framework.TestCase;
+import org.languagetool.rules.patterns.CompiledRules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+
+public class DefaultResourceDataBrokerTest extends TestCase {
+
+  private static final String SMALL_RESOURCE = "/api-output.dtd";
+  private static final String LARGE_RESOURCE = "/segment.srx";
+
+  public void testUrlsAndExistence() {
+    final DefaultResourceDataBroker broker = new DefaultResourceDataBroker();
+    final URL url = broker.getFromResourceDirAsUrl(SMALL_RESOURCE);
+    assertSame(url, broker.getFromResourceDirAsUrl(SMALL_RESOURCE));
+    assertTrue(broker.resourceExists(SMALL_RESOURCE));
+    assertFalse(broker.resourceExists("/does-not-exist.txt"));
+    assertFalse(broker.resourceExists("/does-not-exist.txt"));
+    try {
+      broker.getFromResourceDirAsUrl("/does-not-exist.txt");
+      fail();
+    } catch (RuntimeException expected) {
+      // expected
+    }
+    broker.clearCache();
+    assertEquals(url, broker.getFromResourceDirAsUrl(SMALL_RESOURCE));
+  }
+
+  public void testContentCache() throws IOException {
+    final DefaultResourceDataBroker broker = new DefaultResourceDataBroker();
+    final byte[] expected = readFromClassPath(SMALL_RESOURCE);
+    assertTrue(expected.length <= DefaultResourceDataBroker.DEFAULT_MAX_CACHED_CONTENT_SIZE);
+    assertTrue(Arrays.equals(expected, read(broker.getFromResourceDirAsStream(SMALL_RESOURCE))));
+    assertTrue(Arrays.equals(expected, read(broker.getFromResourceDirAsStream(SMALL_RESOURCE))));
+    assertEquals(1, broker.getContentCache().getHitCount());
+    assertEquals(1, broker.getContentCache().size());
+
+    broker.setMaxCachedContentSize(0);
+    assertEquals(0, broker.getContentCache().size());
+    assertTrue(Arrays.equals(expected, read(broker.getFromResourceDirAsStream(SMALL_RESOURCE))));
+    assertEquals(0, broker.getContentCache().size());
+  }
+
+  public void testLargeResourceIsNotCached() throws IOException {
+    final DefaultResourceDataBroker broker = new DefaultResourceDataBroker();
+    final byte[] expected = readFromClassPath(LARGE_RESOURCE);
+    assertTrue(expected.length > DefaultResourceDataBroker.DEFAULT_MAX_CACHED_CONTENT_SIZE);
+    assertTrue(Arrays.equals(expected, read(broker.getFromResourceDirAsStream(LARGE_RESOURCE))));
+    assertEquals(0, broker.getContentCache().size());
+  }
+
+  private byte[] readFromClassPath(String path) throws IOException {
+    return read(ResourceDataBroker.class.getResourceAsStream(ResourceDataBroker.RESOURCE_DIR + path));
+  }
+
+  private byte[] read(InputStream stream) throws IOException {
+    try {
+      return CompiledRules.readBytes(stream);
+    } finally {
+      stream.close();
+    }
+  }
+
+}
@@ -0,0 +1,122 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import junit.framework.TestCase;
+import org.languagetool.JLanguageTool;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.IncorrectExample;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+public class CompiledRulesTest extends TestCase {
+
+  private static final String RULE_FILE = "/org/languagetool/rules/xx/grammar.xml";
+
+  public void testRoundTrip() throws Exception {
+    final byte[] xml = getXml();
+    final List<PatternRule> rules = new PatternRuleLoader().getRules(new ByteArrayInputStream(xml), RULE_FILE);
+    final List<PatternRule> compiledRules = CompiledRules.read(new ByteArrayInputStream(compile(rules, xml)), xml, PatternRule.class);
+    assertEquals(rules.size(), compiledRules.size());
+    final JLanguageTool lt = new JLanguageTool(new Demo());
+    for (int i = 0; i < rules.size(); i++) {
+      final PatternRule rule = rules.get(i);
+      final PatternRule compiledRule = compiledRules.get(i);
+      assertEquals(rule.getId(), compiledRule.getId());
+      assertEquals(rule.getSubId(), compiledRule.getSubId());
+      assertEquals(rule.toPatternString(), compiledRule.toPatternString());
+      assertEquals(rule.getMessage(), compiledRule.getMessage());
+      assertSame(rule.getLanguage(), compiledRule.getLanguage());
+      assertEquals(rule.getCategory().getName(), compiledRule.getCategory().getName());
+      assertEquals(rule.getIncorrectExamples().size(), compiledRule.getIncorrectExamples().size());
+      for (IncorrectExample example : rule.getIncorrectExamples()) {
+        final String sentence = example.getExample().replaceAll("</?marker>", "");
+        assertEquals(toString(rule.match(lt.getAnalyzedSentence(sentence))),
+                     toString(compiledRule.match(lt.getAnalyzedSentence(sentence))));
+      }
+    }
+  }
+
+  public void testOutdatedRules() throws Exception {
+    final byte[] xml = getXml();
+    final List<PatternRule> rules = new PatternRuleLoader().getRules(new ByteArrayInputStream(xml), RULE_FILE);
+    final byte[] compiled = compile(rules, xml);
+    final byte[] modifiedXml = Arrays.copyOf(xml, xml.length + 1);
+    modifiedXml[xml.length] = '\n';
+    try {
+      CompiledRules.read(new ByteArrayInputStream(compiled), modifiedXml, PatternRule.class);
+      fail();
+    } catch (IOException expected) {
+      // expected
+    }
+  }
+
+  public void testUnexpectedClass() throws Exception {
+    final byte[] xml = getXml();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final DataOutputStream dos = new DataOutputStream(out);
+    final byte[] header = Arrays.copyOf(compile(Arrays.<PatternRule>asList(), xml), 16);  // magic, version, checksum
+    dos.write(header);
+    final ObjectOutputStream oos = new ObjectOutputStream(dos);
+    oos.writeInt(1);
+    oos.writeObject(new Date());
+    oos.flush();
+    try {
+      CompiledRules.read(new ByteArrayInputStream(out.toByteArray()), xml, PatternRule.class);
+      fail();
+    } catch (IOException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().contains("java.util.Date"));
+    }
+  }
+
+  public void testLoadWithoutCompiledFile() throws Exception {
+    assertNull(CompiledRules.load(RULE_FILE, getXml(), PatternRule.class));
+  }
+
+  private byte[] getXml() throws IOException {
+    try (InputStream is = JLanguageTool.getDataBroker().getFromRulesDirAsStream("/xx/grammar.xml")) {
+      return CompiledRules.readBytes(is);
+    }
+  }
+
+  private byte[] compile(List<PatternRule> rules, byte[] xml) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    CompiledRules.write(rules, xml, out);
+    return out.toByteArray();
+  }
+
+  private String toString(RuleMatch[] matches) {
+    final StringBuilder sb = new StringBuilder();
+    for (RuleMatch match : matches) {
+      sb.append(match.getFromPos()).append('-').append(match.getToPos()).append(' ')
+        .append(match.getMessage()).append(' ').append(match.getSuggestedReplacements()).append('\n');
+    }
+    return sb.toString();
+  }
+
+}
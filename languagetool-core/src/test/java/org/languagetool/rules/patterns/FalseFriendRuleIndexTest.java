@@ -0,0 +1,110 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2012 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import junit.framework.TestCase;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class FalseFriendRuleIndexTest extends TestCase {
+
+  private static final String RULES = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+      "<rules>\n" +
+      "  <rulegroup id=\"GROUP1\">\n" +
+      "    <rule><pattern lang=\"en\"><token>a</token></pattern><translation lang=\"de\">b</translation></rule>\n" +
+      "  </rulegroup>\n" +
+      "  <rulegroup id=\"GROUP2\">\n" +
+      "    <rule><pattern lang=\"en-GB\"><token>c</token></pattern><translation lang=\"fr\">d</translation></rule>\n" +
+      "  </rulegroup>\n" +
+      "  <!--\n" +
+      "  <rulegroup id=\"GROUP3\">\n" +
+      "    <rule><pattern lang=\"en\"><token>e</token></pattern><translation lang=\"de\">f</translation></rule>\n" +
+      "  </rulegroup>\n" +
+      "  -->\n" +
+      "</rules>\n";
+
+  public void testGetDocument() throws Exception {
+    final FalseFriendRuleIndex index = new FalseFriendRuleIndex(RULES);
+    final String enDe = new String(index.getDocument("en", "de"), "utf-8");
+    assertTrue(enDe.contains("GROUP1"));
+    assertFalse(enDe.contains("GROUP2"));
+    assertFalse(enDe.contains("GROUP3"));
+    // same rule groups, the rule loader decides about the direction:
+    assertEquals(enDe, new String(index.getDocument("de", "en"), "utf-8"));
+    final String frEn = new String(index.getDocument("fr", "en"), "utf-8");
+    assertFalse(frEn.contains("GROUP1"));
+    assertTrue(frEn.contains("GROUP2"));
+    assertFalse(new String(index.getDocument("de", "fr"), "utf-8").contains("rulegroup"));
+  }
+
+  public void testRulesOutsideOfRuleGroups() throws Exception {
+    final String rules = RULES.replace("</rules>",
+        "<rule><pattern lang=\"es\"><token>g</token></pattern><translation lang=\"de\">h</translation></rule>\n</rules>");
+    final FalseFriendRuleIndex index = new FalseFriendRuleIndex(rules);
+    // the index can't be used, so the whole document is returned:
+    assertEquals(rules, new String(index.getDocument("en", "de"), "utf-8"));
+  }
+
+  public void testReload() throws Exception {
+    final File file = File.createTempFile("false-friends", ".xml");
+    try {
+      write(file, RULES);
+      final String filename = file.getAbsolutePath();
+      final FalseFriendRuleIndex index = FalseFriendRuleIndex.getIndex(filename);
+      assertSame(index, FalseFriendRuleIndex.getIndex(filename));
+      write(file, RULES.replace("GROUP1", "NEW_GROUP1"));
+      FalseFriendRuleIndex.reload(filename);
+      final FalseFriendRuleIndex reloadedIndex = FalseFriendRuleIndex.getIndex(filename);
+      assertNotSame(index, reloadedIndex);
+      assertTrue(new String(reloadedIndex.getDocument("en", "de"), "utf-8").contains("NEW_GROUP1"));
+    } finally {
+      assertTrue(file.delete());
+    }
+  }
+
+  public void testReloadBrokenFile() throws Exception {
+    final File file = File.createTempFile("false-friends", ".xml");
+    try {
+      write(file, RULES);
+      final String filename = file.getAbsolutePath();
+      final FalseFriendRuleIndex index = FalseFriendRuleIndex.getIndex(filename);
+      write(file, RULES.replace("</rules>", ""));
+      try {
+        FalseFriendRuleIndex.reload(filename);
+        fail("broken rule file was not detected");
+      } catch (SAXException expected) {
+        // the old index stays in use:
+        assertSame(index, FalseFriendRuleIndex.getIndex(filename));
+      }
+    } finally {
+      assertTrue(file.delete());
+    }
+  }
+
+  private void write(File file, String content) throws IOException {
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(content.getBytes("utf-8"));
+    }
+  }
+
+}
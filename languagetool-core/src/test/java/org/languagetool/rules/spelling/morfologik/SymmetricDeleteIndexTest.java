@@ -0,0 +1,85 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.morfologik;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+public class SymmetricDeleteIndexTest extends TestCase {
+
+  private static final List<String> WORDS = Arrays.asList("Haus", "Maus", "Laus", "Hausflur", "heiße", "Straße", "Tür");
+  private static final byte[] FREQUENCIES = {120, 10, 50, 5, 100, 80, 110};
+
+  public void testSuggestions() throws IOException {
+    final SymmetricDeleteIndex index = createIndex(2);
+    assertEquals(2, index.getMaxDistance());
+    assertEquals(7, index.getWordCount());
+    assertEquals("[Haus]", index.getSuggestions("Hauss", 1).toString());
+    assertEquals("[Haus, Laus, Maus]", index.getSuggestions("Xaus", 1).toString());  // sorted by frequency
+    assertEquals("[Maus, Haus, Laus]", index.getSuggestions("Mau", 2).toString());  // sorted by distance first
+    assertEquals("[heiße]", index.getSuggestions("hieße", 1).toString());  // transposition
+    assertEquals("[Straße]", index.getSuggestions("Strasse", 2).toString());
+    assertEquals("[]", index.getSuggestions("Strasse", 1).toString());
+    assertEquals("[Haus, Laus]", index.getSuggestions("Maus", 1).toString());  // the word itself is not a suggestion
+    assertEquals("[]", index.getSuggestions("Elefant", 2).toString());
+  }
+
+  public void testMaxDistanceIsCapped() throws IOException {
+    final SymmetricDeleteIndex index = createIndex(1);
+    assertEquals("[]", index.getSuggestions("Strasse", 2).toString());
+  }
+
+  public void testMemoryMappedFile() throws IOException {
+    final File file = File.createTempFile(SymmetricDeleteIndexTest.class.getSimpleName(), SymmetricDeleteIndex.FILE_SUFFIX);
+    try {
+      try (OutputStream out = new FileOutputStream(file)) {
+        SymmetricDeleteIndex.write(WORDS, FREQUENCIES, 2, out);
+      }
+      final SymmetricDeleteIndex index = SymmetricDeleteIndex.load(file);
+      assertEquals("[Tür]", index.getSuggestions("Tüür", 2).toString());
+      assertEquals(file.length(), index.getSize());
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testEditDistance() {
+    assertEquals(0, SymmetricDeleteIndex.getEditDistance("Haus", "Haus", 2));
+    assertEquals(1, SymmetricDeleteIndex.getEditDistance("Haus", "Maus", 2));
+    assertEquals(1, SymmetricDeleteIndex.getEditDistance("Haus", "Hasu", 2));
+    assertEquals(2, SymmetricDeleteIndex.getEditDistance("Haus", "Ha", 2));
+    assertEquals(3, SymmetricDeleteIndex.getEditDistance("Haus", "H", 2));
+    assertEquals(3, SymmetricDeleteIndex.getEditDistance("Haus", "Elefant", 2));
+  }
+
+  private SymmetricDeleteIndex createIndex(int maxDistance) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    SymmetricDeleteIndex.write(WORDS, FREQUENCIES, maxDistance, out);
+    return new SymmetricDeleteIndex(ByteBuffer.wrap(out.toByteArray()));
+  }
+
+}
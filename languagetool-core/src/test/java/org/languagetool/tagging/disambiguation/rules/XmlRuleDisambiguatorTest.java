@@ -0,0 +1,109 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation.rules;
+
+import junit.framework.TestCase;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.language.Demo;
+import org.xml.sax.SAXException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class XmlRuleDisambiguatorTest extends TestCase {
+
+  // the rules are loaded from the classpath, so the test's resource directory is next to this class:
+  private static final String RESOURCE_DIR = "/org/languagetool/tagging/disambiguation/rules/reload-test";
+
+  private final Language language = new Demo();
+
+  private String oldResourceDir;
+  private File ruleFile;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    oldResourceDir = JLanguageTool.getDataBroker().getResourceDir();
+    final File classDir = new File(XmlRuleDisambiguatorTest.class.getResource("XmlRuleDisambiguatorTest.class").toURI()).getParentFile();
+    ruleFile = new File(classDir, "reload-test/" + language.getShortName() + "/disambiguation.xml");
+    assertTrue(ruleFile.getParentFile().isDirectory() || ruleFile.getParentFile().mkdirs());
+    JLanguageTool.getDataBroker().setResourceDir(RESOURCE_DIR);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    XmlRuleDisambiguator.releaseRules(language.getShortName());
+    JLanguageTool.getDataBroker().setResourceDir(oldResourceDir);
+    assertTrue(ruleFile.delete());
+    super.tearDown();
+  }
+
+  public void testReloadRules() throws Exception {
+    writeRules("FIRST_TAG");
+    assertFalse("nothing loaded yet, so nothing to reload", XmlRuleDisambiguator.reloadRules(language));
+    assertTrue(disambiguate("foo").hasPosTag("FIRST_TAG"));
+    writeRules("SECOND_TAG");
+    assertTrue("the loaded rules stay in use until they are reloaded", disambiguate("foo").hasPosTag("FIRST_TAG"));
+    assertTrue(XmlRuleDisambiguator.reloadRules(language));
+    final AnalyzedTokenReadings readings = disambiguate("foo");
+    assertTrue(readings.hasPosTag("SECOND_TAG"));
+    assertFalse(readings.hasPosTag("FIRST_TAG"));
+  }
+
+  public void testReloadBrokenRules() throws Exception {
+    writeRules("FIRST_TAG");
+    assertTrue(disambiguate("foo").hasPosTag("FIRST_TAG"));
+    writeFile("<rules lang=\"xx\"><rule id=\"BROKEN\">");
+    try {
+      XmlRuleDisambiguator.reloadRules(language);
+      fail("broken rule file was not detected");
+    } catch (SAXException expected) {
+      // the old rules stay active:
+      assertTrue(disambiguate("foo").hasPosTag("FIRST_TAG"));
+    }
+  }
+
+  private AnalyzedTokenReadings disambiguate(String word) throws IOException {
+    final AnalyzedSentence sentence = new JLanguageTool(language).getRawAnalyzedSentence(word);
+    // index 0 is the sentence start:
+    return new XmlRuleDisambiguator(language).disambiguate(sentence).getTokens()[1];
+  }
+
+  private void writeRules(String posTag) throws IOException {
+    writeFile("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+        "<rules lang=\"xx\">\n" +
+        "  <rule name=\"foo\" id=\"FOO\">\n" +
+        "    <pattern><token>foo</token></pattern>\n" +
+        "    <disambig action=\"add\"><wd lemma=\"foo\" pos=\"" + posTag + "\"/></disambig>\n" +
+        "  </rule>\n" +
+        "</rules>\n");
+  }
+
+  private void writeFile(String content) throws IOException {
+    try (OutputStream out = new FileOutputStream(ruleFile)) {
+      out.write(content.getBytes("utf-8"));
+    }
+  }
+
+}
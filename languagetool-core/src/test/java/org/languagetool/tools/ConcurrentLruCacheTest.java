@@ -0,0 +1,57 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import junit.framework.TestCase;
+
+public class ConcurrentLruCacheTest extends TestCase {
+
+  public void testEviction() {
+    final ConcurrentLruCache<Integer, String> cache = new ConcurrentLruCache<>(100);
+    for (int i = 0; i < 1000; i++) {
+      cache.put(i, "value" + i);
+    }
+    assertTrue(cache.size() <= 100);
+    assertEquals("value999", cache.get(999));
+    assertNull(cache.get(0));
+  }
+
+  public void testHitRate() {
+    final ConcurrentLruCache<String, String> cache = new ConcurrentLruCache<>(10);
+    assertEquals(0.0f, cache.getHitRate());
+    cache.put("a", "b");
+    assertEquals("b", cache.get("a"));
+    assertNull(cache.get("x"));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0.5f, cache.getHitRate());
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  public void testInvalidSize() {
+    try {
+      new ConcurrentLruCache<String, String>(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import junit.framework.TestCase;
+import org.apache.tika.language.LanguageIdentifier;
+
+public class LanguageDetectorTest extends TestCase {
+
+  private static final String[] TEXTS = {
+    "This is a short English text that should be detected without any problems.",
+    "Das ist ein deutscher Text, der ohne Probleme erkannt werden sollte.",
+    "Ceci est un texte français qui devrait être reconnu sans problème.",
+    "Este es un texto en español que debería ser reconocido sin problemas.",
+    "To jest polski tekst, który powinien zostać rozpoznany bez problemów.",
+    "Это русский текст, который должен быть распознан без проблем.",
+    "Dit is een Nederlandse tekst die zonder problemen herkend moet worden.",
+    "Questo è un testo italiano che dovrebbe essere riconosciuto senza problemi.",
+    "Aquest és un text en català que s'hauria de reconèixer sense problemes.",
+    "Este é um texto em português que deve ser reconhecido sem problemas.",
+    "12345 678",
+    "",
+    "a",
+    "A\ttext   with  \"odd\" spacing,,, and punctuation!!! x y z",
+  };
+
+  public void testSameResultsAsTika() {
+    final LanguageDetector detector = LanguageDetector.getInstance();
+    for (String text : TEXTS) {
+      final String tikaCode = new LanguageIdentifier(text).getLanguage();
+      assertEquals("Text: " + text, "unknown".equals(tikaCode) ? null : tikaCode, detector.detectLanguageCode(text));
+    }
+  }
+
+  public void testOnlyPrefixIsUsed() {
+    final StringBuilder sb = new StringBuilder(TEXTS[1]);
+    while (sb.length() < LanguageDetector.DEFAULT_SAMPLE_SIZE) {
+      sb.append(' ').append(TEXTS[1]);
+    }
+    for (int i = 0; i < 200; i++) {
+      sb.append(' ').append(TEXTS[0]);
+    }
+    assertEquals("de", LanguageDetector.getInstance().detectLanguageCode(sb.toString()));
+  }
+
+  public void testCache() {
+    final LanguageDetector detector = LanguageDetector.getInstance();
+    final long hits = detector.getCache().getHitCount();
+    final String text = "Yet another English text, used to test the cache of the language detector.";
+    assertEquals("en", detector.detectLanguageCode(text));
+    assertEquals("en", detector.detectLanguageCode(text));
+    assertEquals(hits + 1, detector.getCache().getHitCount());
+  }
+
+}
@@ -0,0 +1,80 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import junit.framework.TestCase;
+import org.languagetool.rules.patterns.CompiledRules;
+import org.languagetool.synthesis.BaseSynthesizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LanguageResourcesTest extends TestCase {
+
+  private static final String RESOURCE = "/org/languagetool/MessagesBundle.properties";
+
+  public void testGetAndRelease() throws Exception {
+    final CountingLoader loader = new CountingLoader();
+    final byte[] resource1 = LanguageResources.get("zz", RESOURCE, loader);
+    assertSame(resource1, LanguageResources.get("zz", RESOURCE, loader));
+    assertEquals(1, loader.count.get());
+    assertEquals(resource1.length, LanguageResources.getSize("zz"));
+    assertEquals(0, LanguageResources.getSize("yy"));
+
+    assertEquals(0, LanguageResources.release("yy"));
+    assertSame(resource1, LanguageResources.get("zz", RESOURCE, loader));
+
+    assertEquals(resource1.length, LanguageResources.release("zz"));
+    assertEquals(0, LanguageResources.getSize("zz"));
+    final byte[] resource2 = LanguageResources.get("zz", RESOURCE, loader);
+    assertNotSame(resource1, resource2);
+    assertEquals(2, loader.count.get());
+    LanguageResources.release("zz");
+  }
+
+  public void testReleaseClearsSynthesizerCache() throws Exception {
+    final BaseSynthesizer synthesizer = new BaseSynthesizer("/zz/zz_synth.dict", "/zz/zz_tags.txt");
+    synthesizer.getCache().put("lemma|tag", Collections.singletonList("form"));
+    LanguageResources.release("yy");
+    assertEquals(1, synthesizer.getCache().size());
+    LanguageResources.release("zz");
+    assertEquals(0, synthesizer.getCache().size());
+  }
+
+  public void testMissingResource() throws Exception {
+    try {
+      LanguageResources.get("zz", "/does-not-exist.bin", new CountingLoader());
+      fail();
+    } catch (IOException expected) {
+      // expected
+    }
+  }
+
+  private static class CountingLoader implements LanguageResources.Loader<byte[]> {
+    private final AtomicInteger count = new AtomicInteger();
+    @Override
+    public byte[] load(InputStream stream) throws IOException {
+      count.incrementAndGet();
+      return CompiledRules.readBytes(stream);
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+public class ResourceLoaderPoolTest extends TestCase {
+
+  public void testLoadAll() throws Exception {
+    final List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      final int value = i;
+      tasks.add(new Callable<Integer>() {
+        @Override
+        public Integer call() throws Exception {
+          Thread.sleep(20 - value);
+          return value;
+        }
+      });
+    }
+    final List<Integer> results = ResourceLoaderPool.loadAll(tasks);
+    assertEquals(20, results.size());
+    for (int i = 0; i < 20; i++) {
+      assertEquals(i, (int) results.get(i));
+    }
+  }
+
+  public void testFailure() {
+    final List<Callable<String>> tasks = Arrays.<Callable<String>>asList(new Callable<String>() {
+      @Override
+      public String call() throws IOException {
+        throw new IOException("file not found");
+      }
+    });
+    try {
+      ResourceLoaderPool.loadAll(tasks);
+      fail();
+    } catch (IOException e) {
+      assertEquals("file not found", e.getMessage());
+    }
+  }
+
+  public void testNestedLoading() throws Exception {
+    // more nested tasks than threads, which must not block each other:
+    final int count = Runtime.getRuntime().availableProcessors() * 2;
+    final List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      tasks.add(new Callable<Integer>() {
+        @Override
+        public Integer call() throws Exception {
+          return ResourceLoaderPool.get(ResourceLoaderPool.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+              return 1;
+            }
+          }));
+        }
+      });
+    }
+    int sum = 0;
+    for (int result : ResourceLoaderPool.loadAll(tasks)) {
+      sum += result;
+    }
+    assertEquals(count, sum);
+  }
+
+}
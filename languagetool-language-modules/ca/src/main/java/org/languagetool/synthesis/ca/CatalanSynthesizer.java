@@ -24,9 +24,6 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import morfologik.stemming.IStemmer;
-import morfologik.stemming.WordData;
-
 import org.languagetool.AnalyzedToken;
 import org.languagetool.synthesis.BaseSynthesizer;
 
@@ -73,8 +70,7 @@ public class CatalanSynthesizer extends BaseSynthesizer {
   @Override
   public String[] synthesize(final AnalyzedToken token, final String posTag) throws IOException {
     initSynthesizer();
-    initPossibleTags();
-    Pattern p;
+    final List<String> tags;
     boolean addDt = false; 
     String prep = ""; 
     final Matcher mPrep = pPrep.matcher(posTag);
@@ -85,33 +81,23 @@ public class CatalanSynthesizer extends BaseSynthesizer {
       }
     }
     if (addDt) {
-      p = Pattern.compile("N.*|A.*|V.P.*|PX.");
+      tags = getMatchingTags("N.*|A.*|V.P.*|PX.");
     } else {
-      p = Pattern.compile(posTag);
+      tags = getMatchingTags(posTag);
     }
     final ArrayList<String> results = new ArrayList<>();
-    final IStemmer synthesizer = createStemmer();
     
-    for (final String tag : possibleTags) {
-      final Matcher m = p.matcher(tag);
-      if (m.matches()) {
-        if (addDt) {
-          lookupWithEl(token.getLemma(), tag, prep, results, synthesizer);
-        } else {
-          lookup(token.getLemma(), tag, results);
-        }
+    if (addDt) {
+      for (final String tag : tags) {
+        lookupWithEl(token.getLemma(), tag, prep, results);
       }
+    } else {
+      lookup(token.getLemma(), tags, results);
     }
     
     // if not found, try verbs from any regional variant
     if ((results.size()==0) && posTag.startsWith("V") && !posTag.endsWith(".") && !posTag.endsWith("*")) {
-      p=Pattern.compile(posTag.substring(0, posTag.length()-1).concat("0"));
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {       
-            lookup(token.getLemma(), tag, results);
-        }
-      }
+      lookup(token.getLemma(), getMatchingTags(posTag.substring(0, posTag.length()-1).concat("0")), results);
     }
     
     return results.toArray(new String[results.size()]);
@@ -124,16 +110,14 @@ public class CatalanSynthesizer extends BaseSynthesizer {
    * @param lemma the lemma to be inflected.
    * @param posTag the desired part-of-speech tag.
    * @param results the list to collect the inflected forms.
-   * @param synthesizer the stemmer to use.
    */
-  private void lookupWithEl(String lemma, String posTag, String prep, List<String> results, IStemmer synthesizer) {
-    final List<WordData> wordForms = synthesizer.lookup(lemma + "|" + posTag);
+  private void lookupWithEl(String lemma, String posTag, String prep, List<String> results) {
+    final List<String> wordForms = lookup(lemma, posTag);
     final Matcher mMS = pMS.matcher(posTag);
     final Matcher mFS = pFS.matcher(posTag);
     final Matcher mMP = pMP.matcher(posTag);
     final Matcher mFP = pFP.matcher(posTag);
-    for (WordData wd : wordForms) {
-      final String word = wd.getStem().toString();
+    for (String word : wordForms) {
       if (mMS.matches()) {
         final Matcher mMascYes = pMascYes.matcher(word);
         final Matcher mMascNo = pMascNo.matcher(word);
@@ -19,11 +19,9 @@
 package org.languagetool.tagging.de;
 
 import java.io.IOException;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
-import morfologik.stemming.Dictionary;
 import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
 import morfologik.stemming.WordData;
@@ -34,6 +32,7 @@ import org.languagetool.JLanguageTool;
 import org.languagetool.tagging.ManualTagger;
 import org.languagetool.tagging.Tagger;
 import org.languagetool.tokenizers.de.GermanCompoundTokenizer;
+import org.languagetool.tools.DictionaryRegistry;
 import org.languagetool.tools.StringTools;
 
 /**
@@ -48,7 +47,6 @@ public class GermanTagger implements Tagger {
   private static final String DICT_FILENAME = "/de/german.dict";
   private static final String USER_DICT_FILENAME = "/de/added.txt";
 
-  private Dictionary dictionary;
   private ManualTagger manualTagger;
   private GermanCompoundTokenizer compoundTokenizer;
 
@@ -56,17 +54,15 @@ public class GermanTagger implements Tagger {
   }
 
   protected void initialize() throws IOException {
-    final URL url = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(DICT_FILENAME);
-    dictionary = Dictionary.read(url);
     manualTagger = new ManualTagger(JLanguageTool.getDataBroker().getFromResourceDirAsStream(USER_DICT_FILENAME));
     compoundTokenizer = new GermanCompoundTokenizer();
   }
 
   protected void initializeIfRequired() throws IOException {
     // Lazy initialize all fields when needed and only once.
-    if (dictionary == null || manualTagger == null || compoundTokenizer == null) {
+    if (manualTagger == null || compoundTokenizer == null) {
       synchronized (this) {
-        if (dictionary == null || manualTagger == null || compoundTokenizer == null) {
+        if (manualTagger == null || compoundTokenizer == null) {
           initialize();
         }
       }
@@ -97,7 +93,8 @@ public class GermanTagger implements Tagger {
     final List<AnalyzedTokenReadings> tokenReadings = new ArrayList<>();
     int pos = 0;
 
-    final IStemmer morfologik = new DictionaryLookup(dictionary);
+    // the dictionary is not kept in a field, so it can be released while the language isn't used:
+    final IStemmer morfologik = new DictionaryLookup(DictionaryRegistry.getDictionary(DICT_FILENAME));
 
     for (String word: sentenceTokens) {
       final List<AnalyzedGermanToken> l = new ArrayList<>();
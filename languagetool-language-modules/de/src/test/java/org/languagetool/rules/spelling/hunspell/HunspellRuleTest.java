@@ -30,11 +30,17 @@ import org.languagetool.language.SwissGerman;
 import org.languagetool.rules.de.GermanSpellerRule;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class HunspellRuleTest {
 
@@ -84,6 +90,31 @@ public class HunspellRuleTest {
     assertEquals(2, rule.match(langTool.getAnalyzedSentence("Der asdegfue orkt")).length);
   }
 
+  @Test
+  public void testConcurrentUse() throws Exception {
+    final HunspellRule rule = new HunspellRule(TestTools.getMessages("German"), new GermanyGerman());
+    final JLanguageTool langTool = new JLanguageTool(new German());
+    final int threads = 4;
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < threads * 5; i++) {
+        futures.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            return rule.match(langTool.getAnalyzedSentence("Der asdegfue orkt, LanguageTool nicht.")).length;
+          }
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        assertEquals(2, (int) future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertTrue(rule.getDictionaryPool().getCreatedCount() <= rule.getDictionaryPool().getMaxSize());
+  }
+
   @Ignore("just for internal performance testing, thus ignored by default")
   @Test
   public void testPerformance() throws Exception {
@@ -25,9 +25,10 @@ import opennlp.tools.postag.POSTaggerME;
 import opennlp.tools.tokenize.TokenizerME;
 import opennlp.tools.tokenize.TokenizerModel;
 import org.languagetool.AnalyzedTokenReadings;
-import org.languagetool.tools.Tools;
+import org.languagetool.tools.LanguageResources;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -43,28 +44,40 @@ public class EnglishChunker implements Chunker {
   private static final String POS_TAGGER_MODEL = "/en-pos-maxent.bin";
   private static final String CHUNKER_MODEL = "/en-chunker.bin";
 
+  private static final String LANGUAGE_CODE = "en";
+
   /**
-   * This needs to be static to save memory: as Language.LANGUAGES is static, any language
-   * that is once created there will never be released. As English has several variants,
-   * we'd have as many posModels etc. as we have variants -> huge waste of memory:
+   * The models are shared by all instances (English has several variants, and we'd waste memory
+   * with a copy per variant) and are kept in {@link LanguageResources}, so they can be released
+   * when English isn't used for a while. Thus don't keep them in fields.
    */
-  private static TokenizerModel tokenModel;
-  private static POSModel posModel;
-  private static ChunkerModel chunkerModel;
+  private static final LanguageResources.Loader<TokenizerModel> TOKEN_MODEL_LOADER = new LanguageResources.Loader<TokenizerModel>() {
+    @Override
+    public TokenizerModel load(InputStream stream) throws IOException {
+      return new TokenizerModel(stream);
+    }
+  };
+  private static final LanguageResources.Loader<POSModel> POS_MODEL_LOADER = new LanguageResources.Loader<POSModel>() {
+    @Override
+    public POSModel load(InputStream stream) throws IOException {
+      return new POSModel(stream);
+    }
+  };
+  private static final LanguageResources.Loader<ChunkerModel> CHUNKER_MODEL_LOADER = new LanguageResources.Loader<ChunkerModel>() {
+    @Override
+    public ChunkerModel load(InputStream stream) throws IOException {
+      return new ChunkerModel(stream);
+    }
+  };
 
   private final EnglishChunkFilter chunkFilter;
 
   public EnglishChunker() {
     try {
-      if (tokenModel == null) {
-        tokenModel = new TokenizerModel(Tools.getStream(TOKENIZER_MODEL));
-      }
-      if (posModel == null) {
-        posModel = new POSModel(Tools.getStream(POS_TAGGER_MODEL));
-      }
-      if (chunkerModel == null) {
-        chunkerModel = new ChunkerModel(Tools.getStream(CHUNKER_MODEL));
-      }
+      // load the models now, so problems show up early:
+      LanguageResources.get(LANGUAGE_CODE, TOKENIZER_MODEL, TOKEN_MODEL_LOADER);
+      LanguageResources.get(LANGUAGE_CODE, POS_TAGGER_MODEL, POS_MODEL_LOADER);
+      LanguageResources.get(LANGUAGE_CODE, CHUNKER_MODEL, CHUNKER_MODEL_LOADER);
       chunkFilter = new EnglishChunkFilter();
     } catch (IOException e) {
       throw new RuntimeException("Could not initialize English chunker", e);
@@ -92,21 +105,29 @@ public class EnglishChunker implements Chunker {
 
   // non-private for test cases
   String[] tokenize(String sentence) {
-    TokenizerME tokenizer = new TokenizerME(tokenModel);
+    TokenizerME tokenizer = new TokenizerME(getModel(TOKENIZER_MODEL, TOKEN_MODEL_LOADER));
     String cleanString = sentence.replace('’', '\'');  // this is the type of apostrophe that OpenNLP expects
     return tokenizer.tokenize(cleanString);
   }
 
   private String[] posTag(String[] tokens) {
-    POSTaggerME posTagger = new POSTaggerME(posModel);
+    POSTaggerME posTagger = new POSTaggerME(getModel(POS_TAGGER_MODEL, POS_MODEL_LOADER));
     return posTagger.tag(tokens);
   }
 
   private String[] chunk(String[] tokens, String[] posTags) {
-    ChunkerME chunker = new ChunkerME(chunkerModel);
+    ChunkerME chunker = new ChunkerME(getModel(CHUNKER_MODEL, CHUNKER_MODEL_LOADER));
     return chunker.chunk(tokens, posTags);
   }
 
+  private <T> T getModel(String path, LanguageResources.Loader<T> loader) {
+    try {
+      return LanguageResources.get(LANGUAGE_CODE, path, loader);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not load chunker model " + path, e);
+    }
+  }
+
   private List<ChunkTaggedToken> getTokensWithTokenReadings(List<AnalyzedTokenReadings> tokenReadings, String[] tokens, String[] chunkTags) {
     List<ChunkTaggedToken> result = new ArrayList<>();
     int i = 0;
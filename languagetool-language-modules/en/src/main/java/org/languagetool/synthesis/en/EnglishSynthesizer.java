@@ -21,11 +21,6 @@ package org.languagetool.synthesis.en;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import morfologik.stemming.IStemmer;
-import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
 import org.languagetool.rules.en.AvsAnRule;
@@ -83,12 +78,7 @@ public class EnglishSynthesizer extends BaseSynthesizer {
       return new String[] { rule.suggestAorAn(token.getToken()) };
     }
 
-    final IStemmer synthesizer = createStemmer();
-    final List<WordData> wordData = synthesizer.lookup(token.getLemma() + "|" + posTag);
-    final List<String> wordForms = new ArrayList<>();
-    for (WordData wd : wordData) {
-      wordForms.add(wd.getStem().toString());
-    }
+    final List<String> wordForms = lookup(token.getLemma(), posTag);
     return wordForms.toArray(new String[wordForms.size()]);
   }
 
@@ -118,15 +108,9 @@ public class EnglishSynthesizer extends BaseSynthesizer {
       }
 
       initSynthesizer();
-      initPossibleTags();
-      final Pattern p = Pattern.compile(myPosTag);
       final ArrayList<String> results = new ArrayList<>();
-
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          lookup(token.getLemma(), tag, results, det);
-        }
+      for (final String tag : getMatchingTags(myPosTag)) {
+        lookup(token.getLemma(), tag, results, det);
       }
       return results.toArray(new String[results.size()]);
     }
@@ -135,9 +119,8 @@ public class EnglishSynthesizer extends BaseSynthesizer {
   }
 
   private void lookup(String lemma, String posTag, List<String> results, String determiner) {
-    final List<WordData> wordForms = getStemmer().lookup(lemma + "|" + posTag);
-    for (WordData wd : wordForms) {
-      results.add(determiner + wd.getStem().toString());
+    for (String wordForm : lookup(lemma, posTag)) {
+      results.add(determiner + wordForm);
     }
   }
 
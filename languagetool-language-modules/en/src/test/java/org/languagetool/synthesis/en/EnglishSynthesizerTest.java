@@ -58,4 +58,12 @@ public class EnglishSynthesizerTest extends TestCase {
     assertEquals("[the hour]", Arrays.toString(synth.synthesize(dummyToken("hours", "hour"), "NN\\+DT", true)));
   }
 
+  public final void testSynthesizeWithCachedTagRegex() throws IOException {
+    EnglishSynthesizer synth = new EnglishSynthesizer();
+    // the tags matching a regex are cached, make sure that works for different lemmas:
+    assertEquals("[tested, testing]", Arrays.toString(synth.synthesize(dummyToken("test"), "VBD|VBG", true)));
+    assertEquals("[walked, walking]", Arrays.toString(synth.synthesize(dummyToken("walk"), "VBD|VBG", true)));
+    assertEquals(0, synth.synthesize(dummyToken("walk"), "XYZ.*", true).length);
+  }
+
 }
@@ -0,0 +1,46 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import junit.framework.TestCase;
+import morfologik.stemming.Dictionary;
+import morfologik.stemming.DictionaryLookup;
+
+import java.io.IOException;
+
+public class DictionaryRegistryTest extends TestCase {
+
+  public void testSharedInstance() throws IOException {
+    final Dictionary dictionary1 = DictionaryRegistry.getDictionary("/en/english.dict");
+    final Dictionary dictionary2 = DictionaryRegistry.getDictionary("/en/english.dict");
+    assertSame(dictionary1, dictionary2);
+    assertNotSame(dictionary1, DictionaryRegistry.getDictionary("/en/english_synth.dict"));
+    assertFalse(new DictionaryLookup(dictionary1).lookup("house").isEmpty());
+  }
+
+  public void testMissingDictionary() throws IOException {
+    try {
+      DictionaryRegistry.getDictionary("/en/does-not-exist.dict");
+      fail();
+    } catch (RuntimeException expected) {
+      // the data broker complains about the missing file
+    }
+  }
+
+}
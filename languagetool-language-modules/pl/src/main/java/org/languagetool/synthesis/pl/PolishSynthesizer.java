@@ -19,22 +19,12 @@
 package org.languagetool.synthesis.pl;
 
 import java.io.IOException;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import morfologik.stemming.Dictionary;
-import morfologik.stemming.DictionaryLookup;
-import morfologik.stemming.IStemmer;
-import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
-import org.languagetool.JLanguageTool;
-import org.languagetool.synthesis.Synthesizer;
-import org.languagetool.synthesis.SynthesizerTools;
+import org.languagetool.synthesis.BaseSynthesizer;
 
 /**
  * Polish word form synthesizer. Based on project Morfologik.
@@ -42,7 +32,7 @@ import org.languagetool.synthesis.SynthesizerTools;
  * @author Marcin Milkowski
  */
 
-public class PolishSynthesizer implements Synthesizer {
+public class PolishSynthesizer extends BaseSynthesizer {
 
   private static final String RESOURCE_FILENAME = "/pl/polish_synth.dict";
 
@@ -53,29 +43,16 @@ public class PolishSynthesizer implements Synthesizer {
   private static final String COMP_TAG = "com";
   private static final String SUP_TAG = "sup";
 
-  private Dictionary dictionary;
-  private List<String> possibleTags;
-  
-  protected Dictionary getDictionary() throws IOException {
-    if (this.dictionary == null) {
-      synchronized (this) {
-        if (this.dictionary == null) {
-          final URL url = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(RESOURCE_FILENAME);
-          this.dictionary = Dictionary.read(url);
-        }
-      }
-    }
-    
-    return this.dictionary;
+  public PolishSynthesizer() {
+    super(RESOURCE_FILENAME, TAGS_FILE_NAME);
   }
-  
+
   @Override
   public final String[] synthesize(final AnalyzedToken token,
       final String posTag) throws IOException {
     if (posTag == null) {
       return null;
     }
-    final IStemmer synthesizer = new DictionaryLookup(getDictionary());
     boolean isNegated = false;
     if (token.getPOSTag() != null) {
       isNegated = posTag.indexOf(NEGATION_TAG) > 0
@@ -85,7 +62,7 @@ public class PolishSynthesizer implements Synthesizer {
     if (posTag.indexOf('+') > 0) {
       return synthesize(token, posTag, true);
     }
-    final List<String> forms = getWordForms(token, posTag, isNegated, synthesizer);
+    final List<String> forms = getWordForms(token, posTag, isNegated);
     return forms.toArray(new String[forms.size()]);
   }
 
@@ -97,11 +74,6 @@ public class PolishSynthesizer implements Synthesizer {
     }
     String posTag = pos;
     if (posTagRegExp) {
-      if (possibleTags == null) {
-        possibleTags = SynthesizerTools.loadWords(JLanguageTool.getDataBroker().
-            getFromResourceDirAsStream(TAGS_FILE_NAME));
-      }
-      final IStemmer synthesizer = new DictionaryLookup(getDictionary());
       final ArrayList<String> results = new ArrayList<>();
 
       boolean isNegated = false;
@@ -117,15 +89,8 @@ public class PolishSynthesizer implements Synthesizer {
       }
 
   
-      final Pattern p = Pattern.compile(posTag.replace('+', '|'));
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          final List<String> wordForms = getWordForms(token, tag, isNegated, synthesizer);
-          if (wordForms != null) {
-            results.addAll(wordForms);
-          }
-        }
+      for (final String tag : getMatchingTags(posTag.replace('+', '|'))) {
+        results.addAll(getWordForms(token, tag, isNegated));
       }
       //remove duplicates
       HashSet<String> hs = new HashSet<>();
@@ -164,27 +129,15 @@ public class PolishSynthesizer implements Synthesizer {
   }
 
   private List<String> getWordForms(final AnalyzedToken token, final String posTag,
-      final boolean isNegated, final IStemmer synthesizer) {
-    final List<String> forms = new ArrayList<>();
-    final List<WordData> wordForms;
+      final boolean isNegated) {
     if (isNegated) {
-      wordForms = synthesizer.lookup(token.getLemma() + "|"
-          + posTag.replaceFirst(NEGATION_TAG, POTENTIAL_NEGATION_TAG));
-      if (wordForms != null) {                      
-        for (WordData wd : wordForms) {
-          forms.add("nie" + wd.getStem().toString());
-        }
+      final List<String> forms = new ArrayList<>();
+      for (String wordForm : lookup(token.getLemma(), posTag.replaceFirst(NEGATION_TAG, POTENTIAL_NEGATION_TAG))) {
+        forms.add("nie" + wordForm);
       }
-    } else {
-      wordForms = synthesizer.lookup(token.getLemma() + "|" + posTag);
-      for (WordData wd : wordForms) {
-        if (wd.getStem() != null) {
-          forms.add(wd.getStem().toString());
-        }
-      }      
+      return forms;
     }
-    
-    return forms;
+    return lookup(token.getLemma(), posTag);
   }
 
 }
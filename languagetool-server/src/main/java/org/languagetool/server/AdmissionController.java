@@ -0,0 +1,81 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the amount of work the server accepts at the same time. Each request has
+ * a weight that depends on the length of its text, so a few very long texts
+ * can occupy the server as much as many short ones.
+ * @since 2.5
+ */
+class AdmissionController {
+
+  /** Texts count as one more request for every this many characters. */
+  static final int CHARS_PER_WEIGHT_UNIT = 10_000;
+
+  private final int capacity;
+  private final AtomicInteger load = new AtomicInteger();
+
+  /**
+   * @param capacity the maximum total weight of the requests being processed
+   */
+  AdmissionController(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be >= 1: " + capacity);
+    }
+    this.capacity = capacity;
+  }
+
+  static int getWeight(int textLength) {
+    return 1 + textLength / CHARS_PER_WEIGHT_UNIT;
+  }
+
+  /**
+   * Try to admit a request of the given weight. A request is always admitted if nothing
+   * else is being processed, so even texts heavier than the capacity can be checked.
+   * @return true if the request is admitted, in which case {@link #release(int)} must
+   *   be called with the same weight once the request is done
+   */
+  boolean tryAcquire(int weight) {
+    while (true) {
+      final int current = load.get();
+      if (current > 0 && current + weight > capacity) {
+        return false;
+      }
+      if (load.compareAndSet(current, current + weight)) {
+        return true;
+      }
+    }
+  }
+
+  void release(int weight) {
+    load.addAndGet(-weight);
+  }
+
+  int getLoad() {
+    return load.get();
+  }
+
+  int getCapacity() {
+    return capacity;
+  }
+
+}
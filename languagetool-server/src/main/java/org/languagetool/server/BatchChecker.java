@@ -0,0 +1,232 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.CancellationToken;
+import org.languagetool.JLanguageTool;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Checks the texts of a batch request in parallel. The thread that checks the batch
+ * works on it itself and additionally asks other threads of the {@link CheckScheduler}
+ * for help. All threads take the next unchecked text until none is left, so the batch's
+ * thread never waits for a helper that hasn't started yet, and helpers that start late
+ * just find nothing to do. No thread waits for the others either: the last thread to finish
+ * its work, including giving back its checker instances, reports the result.
+ * @since 2.5
+ */
+class BatchChecker {
+
+  private final LanguageToolPool languageToolPool;
+  private final CheckScheduler checkScheduler;
+  private final ServerMetrics metrics;
+
+  /**
+   * @param checkScheduler scheduler whose threads may help, or {@code null} to check all texts in the calling thread
+   */
+  BatchChecker(LanguageToolPool languageToolPool, CheckScheduler checkScheduler, ServerMetrics metrics) {
+    this.languageToolPool = languageToolPool;
+    this.checkScheduler = checkScheduler;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Called once all texts of a batch have been checked.
+   */
+  interface Callback {
+    /**
+     * @param matches the matches for each item, in the order of the items, or {@code null} if the check failed
+     * @param exception why the check failed, or {@code null}
+     */
+    void done(List<List<RuleMatch>> matches, Exception exception);
+  }
+
+  /**
+   * Check the texts, starting in the calling thread. Returns once there's no unchecked text left
+   * for the calling thread, other threads may still be checking texts then.
+   * @param cancellationToken used for all checks of the batch, so cancelling it stops the whole batch;
+   *                          it's cancelled when checking one of the texts fails. Its timeout is not extended
+   *                          by the time spent on other checks that a thread runs between chunks of a text.
+   * @param priority the lane in which the helpers wait, also decides whether the checks let other checks run
+   * @param callback called exactly once, after all texts have been checked and the threads that
+   *                 checked them have given back their instances
+   */
+  void check(List<Item> items, CancellationToken cancellationToken, CheckScheduler.Priority priority, Callback callback) {
+    if (items.isEmpty()) {
+      throw new IllegalArgumentException("items must not be empty");
+    }
+    // the calling thread is registered from the start, so the batch can't finish before it has submitted the helpers:
+    final Batch batch = new Batch(items, cancellationToken, priority, callback);
+    if (checkScheduler != null) {
+      // the calling thread is one of the scheduler's threads, too:
+      final int helpers = Math.min(items.size(), checkScheduler.getThreadCount()) - 1;
+      try {
+        for (int i = 0; i < helpers; i++) {
+          checkScheduler.execute(priority, batch);
+        }
+      } catch (RejectedExecutionException e) {
+        // shutting down, the texts are checked by this thread (or cancelled)
+      }
+    }
+    batch.work();
+  }
+
+  /**
+   * A text of a batch request and the configuration to check it with.
+   */
+  static class Item {
+    private final String text;
+    private final LanguageToolPool.Key key;
+    Item(String text, LanguageToolPool.Key key) {
+      this.text = text;
+      this.key = key;
+    }
+    String getText() {
+      return text;
+    }
+    LanguageToolPool.Key getKey() {
+      return key;
+    }
+  }
+
+  private class Batch implements Runnable {
+
+    private final List<Item> items;
+    private final CancellationToken cancellationToken;
+    private final CheckScheduler.Priority priority;
+    private final AtomicInteger nextItem = new AtomicInteger();
+    private final AtomicReferenceArray<List<RuleMatch>> results;
+    private final AtomicReference<Exception> exception = new AtomicReference<>();
+    // unchecked texts plus threads working on the batch, the result is reported when it drops to zero:
+    private final AtomicInteger pending;
+    private final Callback callback;
+
+    private Batch(List<Item> items, CancellationToken cancellationToken, CheckScheduler.Priority priority, Callback callback) {
+      this.items = items;
+      this.cancellationToken = cancellationToken;
+      this.priority = priority;
+      this.results = new AtomicReferenceArray<>(items.size());
+      this.pending = new AtomicInteger(items.size() + 1);
+      this.callback = callback;
+    }
+
+    /**
+     * Run by the helpers. A helper that starts after the batch has been finished does nothing.
+     */
+    @Override
+    public void run() {
+      if (register()) {
+        work();
+      }
+    }
+
+    private boolean register() {
+      int count;
+      do {
+        count = pending.get();
+        if (count == 0) {
+          return false;
+        }
+      } while (!pending.compareAndSet(count, count + 1));
+      return true;
+    }
+
+    /**
+     * Check texts until none is left. The calling thread must have been registered.
+     */
+    private void work() {
+      // instances used by this thread, returned to the pool when there's nothing left to check:
+      final Map<LanguageToolPool.Key, JLanguageTool> instances = new HashMap<>();
+      boolean failed = false;
+      int i;
+      while ((i = nextItem.getAndIncrement()) < items.size()) {
+        try {
+          if (exception.get() == null) {
+            results.set(i, check(items.get(i), instances));
+          }
+        } catch (Exception e) {
+          failed = true;
+          exception.compareAndSet(null, e);
+          // the result isn't needed anymore, so stop the other threads:
+          cancellationToken.cancel("Checking another text of the batch failed");
+        } finally {
+          finish();
+        }
+      }
+      try {
+        if (!failed) {
+          checkIn(instances);
+        }
+      } finally {
+        finish();
+      }
+    }
+
+    private void finish() {
+      if (pending.decrementAndGet() == 0) {
+        done();
+      }
+    }
+
+    private void checkIn(Map<LanguageToolPool.Key, JLanguageTool> instances) {
+      for (Map.Entry<LanguageToolPool.Key, JLanguageTool> entry : instances.entrySet()) {
+        languageToolPool.checkIn(entry.getKey(), entry.getValue());
+      }
+    }
+
+    private void done() {
+      final Exception failure = exception.get();
+      if (failure != null) {
+        callback.done(null, failure);
+        return;
+      }
+      final List<List<RuleMatch>> matches = new ArrayList<>(items.size());
+      for (int i = 0; i < items.size(); i++) {
+        matches.add(results.get(i));
+      }
+      callback.done(matches, null);
+    }
+
+    private List<RuleMatch> check(Item item, Map<LanguageToolPool.Key, JLanguageTool> instances) throws Exception {
+      final long startTime = System.currentTimeMillis();
+      JLanguageTool lt = instances.get(item.key);
+      if (lt == null) {
+        lt = languageToolPool.checkOut(item.key);
+        instances.put(item.key, lt);
+      }
+      lt.setCancellationToken(cancellationToken);
+      // the token is shared by all threads checking the batch, so its deadline stays fixed:
+      lt.setSentenceChunkListener(checkScheduler != null ? checkScheduler.getChunkListener(priority, null) : null, CheckScheduler.CHUNK_SIZE);
+      final List<RuleMatch> matches = lt.check(item.text);
+      metrics.checkDone(item.key.getLanguage(), item.text.length(), System.currentTimeMillis() - startTime,
+              lt.getAnalysisTimeNanos(), lt.getMatchingTimeNanos());
+      return matches;
+    }
+  }
+
+}
@@ -0,0 +1,192 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.Language;
+import org.languagetool.rules.bitext.BitextRule;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of bitext rules per language pair. Loading them means parsing the bitext rules of the
+ * target language and all false friend rules, which is too slow to do for every bilingual request.
+ * Like {@link org.languagetool.JLanguageTool} instances, the pattern rules must not be used by several
+ * threads at once, so a request checks out the rules of a language pair, uses them exclusively,
+ * and returns them. At most {@code maxIdlePerPair} rule sets are kept per language pair.
+ * @since 2.5
+ */
+class BitextRulePool implements ServerMetrics.CacheStatistics {
+
+  interface RuleLoader {
+    List<BitextRule> load(Language source, Language target) throws Exception;
+  }
+
+  private final ConcurrentMap<LanguagePair, Deque<Rules>> idleRules = new ConcurrentHashMap<>();
+  // language code -> generation at its last invalidation:
+  private final ConcurrentMap<String, Integer> invalidations = new ConcurrentHashMap<>();
+  private final AtomicInteger generation = new AtomicInteger();
+  private final RuleLoader loader;
+  private final int maxIdlePerPair;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param maxIdlePerPair the maximum number of idle rule sets kept per language pair
+   */
+  BitextRulePool(RuleLoader loader, int maxIdlePerPair) {
+    if (maxIdlePerPair < 1) {
+      throw new IllegalArgumentException("maxIdlePerPair must be >= 1: " + maxIdlePerPair);
+    }
+    this.loader = loader;
+    this.maxIdlePerPair = maxIdlePerPair;
+  }
+
+  /**
+   * Get the rules for checking a translation from {@code source} to {@code target} for exclusive use.
+   * Give them back with {@link #checkIn(Rules)} once the check is done.
+   */
+  Rules checkOut(Language source, Language target) throws Exception {
+    final LanguagePair pair = new LanguagePair(source, target);
+    final Deque<Rules> rules = idleRules.get(pair);
+    if (rules != null) {
+      final Rules idle = rules.pollFirst();
+      if (idle != null) {
+        hits.incrementAndGet();
+        return idle;
+      }
+    }
+    misses.incrementAndGet();
+    // taken before loading, so rules loaded during an invalidation count as invalidated:
+    final int loadGeneration = generation.get();
+    return new Rules(pair, loadGeneration, loader.load(source, target));
+  }
+
+  /**
+   * Return rules obtained with {@link #checkOut(Language, Language)}. Don't use them after calling this.
+   */
+  void checkIn(Rules rules) {
+    if (isInvalidatedSince(rules.pair.source, rules.generation) || isInvalidatedSince(rules.pair.target, rules.generation)) {
+      return;
+    }
+    Deque<Rules> idle = idleRules.get(rules.pair);
+    if (idle == null) {
+      final Deque<Rules> newIdle = new ConcurrentLinkedDeque<>();
+      idle = idleRules.putIfAbsent(rules.pair, newIdle);
+      if (idle == null) {
+        idle = newIdle;
+      }
+    }
+    // size() is not constant time, but the deques are small:
+    if (idle.size() < maxIdlePerPair) {
+      idle.offerFirst(rules);
+    }
+  }
+
+  /**
+   * Drop the rules of all language pairs that the given language is part of, e.g. because its
+   * rules have been reloaded. Rules that are checked out at the moment are not kept when they are checked in.
+   * @param languageCode a language code without country or variant, like {@code en}
+   */
+  void invalidate(String languageCode) {
+    invalidations.put(languageCode, generation.incrementAndGet());
+    final Iterator<LanguagePair> iterator = idleRules.keySet().iterator();
+    while (iterator.hasNext()) {
+      final LanguagePair pair = iterator.next();
+      if (pair.source.getShortName().equals(languageCode) || pair.target.getShortName().equals(languageCode)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  int getIdleCount() {
+    int count = 0;
+    for (Deque<Rules> rules : idleRules.values()) {
+      count += rules.size();
+    }
+    return count;
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  private boolean isInvalidatedSince(Language language, int loadGeneration) {
+    final Integer invalidation = invalidations.get(language.getShortName());
+    return invalidation != null && invalidation > loadGeneration;
+  }
+
+  /**
+   * The bitext rules for one language pair.
+   */
+  static final class Rules {
+
+    private final LanguagePair pair;
+    private final int generation;
+    private final List<BitextRule> rules;
+
+    private Rules(LanguagePair pair, int generation, List<BitextRule> rules) {
+      this.pair = pair;
+      this.generation = generation;
+      this.rules = rules;
+    }
+
+    List<BitextRule> getRules() {
+      return rules;
+    }
+  }
+
+  private static final class LanguagePair {
+
+    private final Language source;
+    private final Language target;
+
+    private LanguagePair(Language source, Language target) {
+      this.source = source;
+      this.target = target;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final LanguagePair other = (LanguagePair) o;
+      return source.getShortNameWithCountryAndVariant().equals(other.source.getShortNameWithCountryAndVariant())
+          && target.getShortNameWithCountryAndVariant().equals(other.target.getShortNameWithCountryAndVariant());
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * source.getShortNameWithCountryAndVariant().hashCode() + target.getShortNameWithCountryAndVariant().hashCode();
+    }
+  }
+
+}
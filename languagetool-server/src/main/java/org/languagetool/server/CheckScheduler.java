@@ -0,0 +1,231 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.CancellationToken;
+import org.languagetool.SentenceChunkListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The threads that check texts. The request threads only read requests and write responses,
+ * they hand the checks over to this scheduler, so the number of threads here can match
+ * the number of CPU cores, no matter how many requests are waiting or how slow clients are.
+ *
+ * <p>Checks wait in one of two lanes: short interactive texts and long bulk texts.
+ * When a thread becomes free, interactive checks are preferred, but after {@code interactiveWeight}
+ * interactive checks in a row a waiting bulk check gets its turn, so bulk checks aren't starved.
+ * Bulk checks let waiting interactive checks run after each chunk of sentences
+ * (see {@link #getChunkListener(Priority, CancellationToken)}), so a few large documents cannot keep short
+ * requests waiting for seconds.
+ * @since 2.5
+ */
+class CheckScheduler {
+
+  /** The number of characters after which a bulk check lets waiting interactive checks run. */
+  static final int CHUNK_SIZE = 2000;
+  /** The number of interactive checks started in a row while bulk checks are waiting. */
+  static final int DEFAULT_INTERACTIVE_WEIGHT = 4;
+
+  enum Priority {
+    INTERACTIVE, BULK
+  }
+
+  private final Map<Priority, ArrayDeque<Runnable>> lanes = new EnumMap<>(Priority.class);
+  private final List<Thread> threads = new ArrayList<>();
+  private final int interactiveWeight;
+  private final int bulkTextLength;
+
+  private int interactiveInARow;
+  private boolean shutdown;
+
+  /**
+   * @param threadCount the number of threads, i.e. the maximum number of checks running at the same time
+   * @param bulkTextLength texts with at least this many characters are checked in the bulk lane
+   * @param interactiveWeight the number of interactive checks that are started in a row while bulk checks are waiting
+   */
+  CheckScheduler(int threadCount, int bulkTextLength, int interactiveWeight) {
+    if (threadCount < 1) {
+      throw new IllegalArgumentException("threadCount must be >= 1: " + threadCount);
+    }
+    if (interactiveWeight < 1) {
+      throw new IllegalArgumentException("interactiveWeight must be >= 1: " + interactiveWeight);
+    }
+    this.bulkTextLength = bulkTextLength;
+    this.interactiveWeight = interactiveWeight;
+    for (Priority priority : Priority.values()) {
+      lanes.put(priority, new ArrayDeque<Runnable>());
+    }
+    for (int i = 0; i < threadCount; i++) {
+      final Thread thread = new Thread(new Worker(), "lt-check-" + i);
+      // don't keep the JVM running, e.g. when the server has been started from the GUI:
+      thread.setDaemon(true);
+      threads.add(thread);
+      thread.start();
+    }
+  }
+
+  /**
+   * The lane for a request, as requested by the {@code priority} parameter or, if that's
+   * not set, according to the length of the text.
+   * @param priorityParam {@code interactive}, {@code bulk} or {@code null}
+   */
+  Priority getPriority(String priorityParam, int textLength) {
+    if (priorityParam == null) {
+      return textLength >= bulkTextLength ? Priority.BULK : Priority.INTERACTIVE;
+    }
+    switch (priorityParam) {
+      case "interactive": return Priority.INTERACTIVE;
+      case "bulk": return Priority.BULK;
+      default: throw new IllegalArgumentException("Unknown 'priority' parameter: '" + priorityParam + "', use 'interactive' or 'bulk'");
+    }
+  }
+
+  /**
+   * Run a task in one of the scheduler's threads once it's its turn. The task should
+   * catch its exceptions, exceptions thrown by it are only printed.
+   * @throws RejectedExecutionException if the scheduler has been shut down
+   */
+  synchronized void execute(Priority priority, Runnable task) {
+    if (shutdown) {
+      throw new RejectedExecutionException("Check scheduler has been shut down");
+    }
+    lanes.get(priority).add(task);
+    notify();
+  }
+
+  /**
+   * A listener for {@link org.languagetool.JLanguageTool#setSentenceChunkListener(SentenceChunkListener, int)}
+   * that runs waiting interactive checks in the calling thread between chunks of a bulk text,
+   * up to {@code interactiveWeight} of them per chunk. The time spent on them doesn't count
+   * against the bulk check's time limit, unless no token is given.
+   * @param cancellationToken the bulk check's token, its timeout is extended by the time spent on interactive checks,
+   *                          or {@code null} to keep the timeout, e.g. for a token that's shared by several threads,
+   *                          which would each extend it
+   * @return the listener, or {@code null} for interactive checks, which don't give way to other checks
+   */
+  SentenceChunkListener getChunkListener(Priority priority, final CancellationToken cancellationToken) {
+    if (priority == Priority.INTERACTIVE) {
+      return null;
+    }
+    return new SentenceChunkListener() {
+      @Override
+      public void chunkDone() {
+        final long startTime = System.currentTimeMillis();
+        for (int i = 0; i < interactiveWeight; i++) {
+          final Runnable task;
+          synchronized (CheckScheduler.this) {
+            task = lanes.get(Priority.INTERACTIVE).poll();
+          }
+          if (task == null) {
+            break;
+          }
+          runTask(task);
+        }
+        if (cancellationToken != null) {
+          cancellationToken.extendTimeout(System.currentTimeMillis() - startTime);
+        }
+      }
+    };
+  }
+
+  /**
+   * The number of checks waiting in the given lane.
+   */
+  synchronized int getWaitingCount(Priority priority) {
+    return lanes.get(priority).size();
+  }
+
+  int getThreadCount() {
+    return threads.size();
+  }
+
+  /**
+   * Stop the threads. Checks that are waiting are not run, running checks are interrupted.
+   * @return the tasks that were waiting
+   */
+  List<Runnable> shutdownNow() {
+    final List<Runnable> waiting = new ArrayList<>();
+    synchronized (this) {
+      shutdown = true;
+      for (ArrayDeque<Runnable> lane : lanes.values()) {
+        waiting.addAll(lane);
+        lane.clear();
+      }
+      notifyAll();
+    }
+    for (Thread thread : threads) {
+      thread.interrupt();
+    }
+    return waiting;
+  }
+
+  private Runnable pollNextTask() {
+    final ArrayDeque<Runnable> interactive = lanes.get(Priority.INTERACTIVE);
+    final ArrayDeque<Runnable> bulk = lanes.get(Priority.BULK);
+    if (bulk.isEmpty()) {
+      interactiveInARow = 0;
+      return interactive.poll();
+    }
+    if (!interactive.isEmpty() && interactiveInARow < interactiveWeight) {
+      interactiveInARow++;
+      return interactive.poll();
+    }
+    interactiveInARow = 0;
+    return bulk.poll();
+  }
+
+  private static void runTask(Runnable task) {
+    try {
+      task.run();
+    } catch (RuntimeException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private class Worker implements Runnable {
+    @Override
+    public void run() {
+      while (true) {
+        final Runnable task;
+        synchronized (CheckScheduler.this) {
+          Runnable next;
+          while ((next = pollNextTask()) == null && !shutdown) {
+            try {
+              CheckScheduler.this.wait();
+            } catch (InterruptedException e) {
+              return;
+            }
+          }
+          if (shutdown) {
+            return;
+          }
+          task = next;
+        }
+        runTask(task);
+      }
+    }
+  }
+
+}
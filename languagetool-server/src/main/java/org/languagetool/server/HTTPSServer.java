@@ -35,8 +35,6 @@ import java.net.InetSocketAddress;
 import java.security.KeyStore;
 import java.util.ResourceBundle;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static org.languagetool.server.HTTPServerConfig.DEFAULT_HOST;
 
@@ -48,7 +46,7 @@ import static org.languagetool.server.HTTPServerConfig.DEFAULT_HOST;
  */
 public class HTTPSServer extends Server {
 
-  private final ExecutorService executorService;
+  private final RequestExecutor executorService;
 
   /**
    * Prepare a server on the given host and port - use run() to start it.
@@ -70,11 +68,27 @@ public class HTTPSServer extends Server {
       final HttpsConfigurator configurator = getConfigurator(sslContext);
       ((HttpsServer)server).setHttpsConfigurator(configurator);
       final RequestLimiter limiter = getRequestLimiterOrNull(config);
-      final LanguageToolHttpHandler httpHandler = new LanguageToolHttpHandler(config.isVerbose(), allowedIps, runInternally, limiter);
+      httpHandler = new LanguageToolHttpHandler(config.isVerbose(), allowedIps, runInternally, limiter, config.getCheckThreads());
       httpHandler.setMaxTextLength(config.getMaxTextLength());
       httpHandler.setAllowOriginUrl(config.getAllowOriginUrl());
       server.createContext("/", httpHandler);
-      executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+      server.createContext(METRICS_PATH, new MetricsHttpHandler(httpHandler.getMetrics(), allowedIps));
+      ruleReloadHandler = getRuleReloadHandler(allowedIps);
+      server.createContext(RELOAD_PATH, ruleReloadHandler);
+      httpHandler.setMaxCheckTimeMillis(config.getMaxCheckTimeMillis());
+      httpHandler.setResponseCache(getResponseCacheOrNull(config));
+      httpHandler.setAdmissionController(new AdmissionController(config.getCheckThreads() + config.getMaxQueueSize()));
+      checkScheduler = new CheckScheduler(config.getCheckThreads(), config.getBulkThreshold(), CheckScheduler.DEFAULT_INTERACTIVE_WEIGHT);
+      httpHandler.setCheckScheduler(checkScheduler);
+      httpHandler.getMetrics().setCheckScheduler(checkScheduler);
+      executorService = new RequestExecutor(config.getIoThreads(), config.getMaxQueueSize());
+      httpHandler.setExecutor(executorService);
+      httpHandler.getMetrics().setExecutor(executorService);
+      resourceManager = getResourceManagerOrNull(config);
+      if (resourceManager != null) {
+        httpHandler.setResourceManager(resourceManager);
+        resourceManager.start();
+      }
       server.setExecutor(executorService);
     } catch (BindException e) {
       final ResourceBundle messages = JLanguageTool.getMessageBundle();
@@ -85,15 +99,8 @@ public class HTTPSServer extends Server {
       final String message = Tools.makeTexti18n(messages, "https_server_start_failed_unknown_reason", host, Integer.toString(port));
       throw new RuntimeException(message, e);
     }
-  }
-
-  private RequestLimiter getRequestLimiterOrNull(HTTPSServerConfig config) {
-    final int requestLimit = config.getRequestLimit();
-    final int requestLimitPeriodInSeconds = config.getRequestLimitPeriodInSeconds();
-    if (requestLimit > 0 || requestLimitPeriodInSeconds > 0) {
-      return new RequestLimiter(requestLimit, requestLimitPeriodInSeconds);
-    }
-    return null;
+    // not part of the above, as failing to preload has nothing to do with binding to the port:
+    warmUp(config);
   }
 
   private SSLContext getSslContext(File keyStoreFile, String passPhrase) {
@@ -133,7 +140,7 @@ public class HTTPSServer extends Server {
   }
 
   public static void main(String[] args) {
-    if (args.length > 7 || usageRequested(args)) {
+    if (args.length > 31 || usageRequested(args)) {
       System.out.println("Usage: " + HTTPSServer.class.getSimpleName()
               + " --config propertyFile [--port|-p port] [--public]");
       System.out.println("  --config file  a Java property file with values for:");
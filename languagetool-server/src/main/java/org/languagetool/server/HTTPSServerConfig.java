@@ -31,8 +31,6 @@ public class HTTPSServerConfig extends HTTPServerConfig {
   private final File keystore;
   private final String keyStorePassword;
   
-  private int requestLimit;
-  private int requestLimitPeriodInSeconds;
   private int maxTextLength = Integer.MAX_VALUE;
 
   /**
@@ -121,14 +119,6 @@ public class HTTPSServerConfig extends HTTPServerConfig {
     return keyStorePassword;
   }
 
-  int getRequestLimit() {
-    return requestLimit;
-  }
-
-  int getRequestLimitPeriodInSeconds() {
-    return requestLimitPeriodInSeconds;
-  }
-
   private String getProperty(Properties props, String propertyName, File config) {
     final String propertyValue = (String)props.get(propertyName);
     if (propertyValue == null || propertyValue.trim().isEmpty()) {
@@ -25,8 +25,6 @@ import org.languagetool.gui.Tools;
 import java.net.InetSocketAddress;
 import java.util.ResourceBundle;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static org.languagetool.server.HTTPServerConfig.DEFAULT_HOST;
 
@@ -40,7 +38,7 @@ import static org.languagetool.server.HTTPServerConfig.DEFAULT_HOST;
  */
 public class HTTPServer extends Server {
 
-  private final ExecutorService executorService;
+  private final RequestExecutor executorService;
 
   /**
    * Prepare a server on the given port - use run() to start it. Accepts
@@ -98,16 +96,35 @@ public class HTTPServer extends Server {
       } else {
         server = HttpServer.create(new InetSocketAddress(host, port), 0);
       }
-      final LanguageToolHttpHandler httpHandler = new LanguageToolHttpHandler(config.isVerbose(), allowedIps, runInternally, null);
+      final RequestLimiter limiter = getRequestLimiterOrNull(config);
+      httpHandler = new LanguageToolHttpHandler(config.isVerbose(), allowedIps, runInternally, limiter, config.getCheckThreads());
       httpHandler.setAllowOriginUrl(config.getAllowOriginUrl());
       server.createContext("/", httpHandler);
-      executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+      server.createContext(METRICS_PATH, new MetricsHttpHandler(httpHandler.getMetrics(), allowedIps));
+      ruleReloadHandler = getRuleReloadHandler(allowedIps);
+      server.createContext(RELOAD_PATH, ruleReloadHandler);
+      httpHandler.setMaxCheckTimeMillis(config.getMaxCheckTimeMillis());
+      httpHandler.setResponseCache(getResponseCacheOrNull(config));
+      httpHandler.setAdmissionController(new AdmissionController(config.getCheckThreads() + config.getMaxQueueSize()));
+      checkScheduler = new CheckScheduler(config.getCheckThreads(), config.getBulkThreshold(), CheckScheduler.DEFAULT_INTERACTIVE_WEIGHT);
+      httpHandler.setCheckScheduler(checkScheduler);
+      httpHandler.getMetrics().setCheckScheduler(checkScheduler);
+      executorService = new RequestExecutor(config.getIoThreads(), config.getMaxQueueSize());
+      httpHandler.setExecutor(executorService);
+      httpHandler.getMetrics().setExecutor(executorService);
+      resourceManager = getResourceManagerOrNull(config);
+      if (resourceManager != null) {
+        httpHandler.setResourceManager(resourceManager);
+        resourceManager.start();
+      }
       server.setExecutor(executorService);
     } catch (Exception e) {
       final ResourceBundle messages = JLanguageTool.getMessageBundle();
       final String message = Tools.makeTexti18n(messages, "http_server_start_failed", host, Integer.toString(port));
       throw new PortBindingException(message, e);
     }
+    // not part of the above, as failing to preload has nothing to do with binding to the port:
+    warmUp(config);
   }
 
   @Override
@@ -119,7 +136,7 @@ public class HTTPServer extends Server {
   }
 
   public static void main(String[] args) {
-    if (args.length > 3 || usageRequested(args)) {
+    if (args.length > 27 || usageRequested(args)) {
       System.out.println("Usage: " + HTTPServer.class.getSimpleName() + " [--port|-p port] [--public]");
       printCommonOptions();
       System.exit(1);
@@ -18,6 +18,12 @@
  */
 package org.languagetool.server;
 
+import org.languagetool.Language;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @since 2.0
  */
@@ -28,10 +34,40 @@ public class HTTPServerConfig {
   /** The default port on which the server is running (8081). */
   public static final int DEFAULT_PORT = 8081;
 
+  /**
+   * The default maximum number of requests waiting to be processed (100).
+   * @since 2.5
+   */
+  public static final int DEFAULT_MAX_QUEUE_SIZE = 100;
+
+  /**
+   * The default time in seconds for which responses are cached, if caching is enabled (300).
+   * @since 2.5
+   */
+  public static final int DEFAULT_CACHE_TTL_SECONDS = 300;
+
+  /**
+   * The default minimum length of texts that are checked with low priority (5000).
+   * @since 2.5
+   */
+  public static final int DEFAULT_BULK_THRESHOLD = 5000;
+
   protected boolean verbose = false;
   protected boolean publicAccess = false;
   protected int port = DEFAULT_PORT;
   protected String allowOriginUrl = null;
+  protected List<Language> preloadLanguages = new ArrayList<>();
+  protected int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+  protected long maxCheckTimeMillis = 0;
+  protected int requestLimit;
+  protected int requestLimitPeriodInSeconds;
+  protected int cacheSize = 0;
+  protected int cacheTimeToLiveSeconds = DEFAULT_CACHE_TTL_SECONDS;
+  protected int bulkThreshold = DEFAULT_BULK_THRESHOLD;
+  protected int checkThreads = getDefaultCheckThreads();
+  protected int ioThreads = getDefaultIoThreads();
+  protected int maxLanguageIdleSeconds = 0;
+  protected int heapBudgetMb = 0;
 
   public HTTPServerConfig() {
     this.port = DEFAULT_PORT;
@@ -69,10 +105,56 @@ public class HTTPServerConfig {
         case "--allow-origin":
           allowOriginUrl = args[++i];
           break;
+        case "--max-queue-size":
+          setMaxQueueSize(Integer.parseInt(args[++i]));
+          break;
+        case "--max-check-time":
+          setMaxCheckTimeMillis(Long.parseLong(args[++i]));
+          break;
+        case "--request-limit":
+          requestLimit = Integer.parseInt(args[++i]);
+          break;
+        case "--request-limit-period":
+          requestLimitPeriodInSeconds = Integer.parseInt(args[++i]);
+          break;
+        case "--cache-size":
+          setCacheSize(Integer.parseInt(args[++i]));
+          break;
+        case "--cache-ttl":
+          setCacheTimeToLiveSeconds(Integer.parseInt(args[++i]));
+          break;
+        case "--check-threads":
+          setCheckThreads(Integer.parseInt(args[++i]));
+          break;
+        case "--io-threads":
+          setIoThreads(Integer.parseInt(args[++i]));
+          break;
+        case "--bulk-threshold":
+          setBulkThreshold(Integer.parseInt(args[++i]));
+          break;
+        case "--preload":
+          setPreloadLanguages(getLanguages(args[++i]));
+          break;
+        case "--max-language-idle":
+          setMaxLanguageIdleSeconds(Integer.parseInt(args[++i]));
+          break;
+        case "--heap-budget":
+          setHeapBudgetMb(Integer.parseInt(args[++i]));
+          break;
       }
     }
   }
 
+  private static List<Language> getLanguages(String languageCodes) {
+    final List<Language> languages = new ArrayList<>();
+    for (String languageCode : languageCodes.split(",")) {
+      if (!languageCode.trim().isEmpty()) {
+        languages.add(Language.getLanguageForShortName(languageCode.trim()));
+      }
+    }
+    return languages;
+  }
+
   /*
    * @param verbose if true, the text to be checked will be displayed in case of exceptions
    */
@@ -95,4 +177,232 @@ public class HTTPServerConfig {
     return allowOriginUrl;
   }
 
+  /**
+   * @param preloadLanguages languages whose rules and resources are loaded, and whose checking code is
+   *                         warmed up, when the server is started, so that the first requests for these
+   *                         languages will be fast
+   * @since 2.5
+   */
+  public void setPreloadLanguages(List<Language> preloadLanguages) {
+    this.preloadLanguages = new ArrayList<>(preloadLanguages);
+  }
+
+  /**
+   * @since 2.5
+   */
+  public List<Language> getPreloadLanguages() {
+    return Collections.unmodifiableList(preloadLanguages);
+  }
+
+  /**
+   * @param maxQueueSize the maximum number of requests waiting for a free thread, further
+   *                     requests are answered with "503 Service Unavailable" immediately
+   * @since 2.5
+   */
+  public void setMaxQueueSize(int maxQueueSize) {
+    if (maxQueueSize < 1) {
+      throw new IllegalArgumentException("maxQueueSize must be >= 1: " + maxQueueSize);
+    }
+    this.maxQueueSize = maxQueueSize;
+  }
+
+  /**
+   * @since 2.5
+   */
+  public int getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  /**
+   * @param maxCheckTimeMillis the maximum time a request may take, or {@code 0} for no limit (the default).
+   *                           Requests that take longer are aborted and answered with "503 Service Unavailable".
+   * @since 2.5
+   */
+  public void setMaxCheckTimeMillis(long maxCheckTimeMillis) {
+    this.maxCheckTimeMillis = maxCheckTimeMillis;
+  }
+
+  /**
+   * @since 2.5
+   */
+  public long getMaxCheckTimeMillis() {
+    return maxCheckTimeMillis;
+  }
+
+  /**
+   * @param requestLimit the maximum number of requests per IP address in the period set
+   *                     with {@link #setRequestLimitPeriodInSeconds(int)}
+   * @since 2.5
+   */
+  public void setRequestLimit(int requestLimit) {
+    this.requestLimit = requestLimit;
+  }
+
+  int getRequestLimit() {
+    return requestLimit;
+  }
+
+  /**
+   * @param requestLimitPeriodInSeconds the time period to which the request limit applies
+   * @since 2.5
+   */
+  public void setRequestLimitPeriodInSeconds(int requestLimitPeriodInSeconds) {
+    this.requestLimitPeriodInSeconds = requestLimitPeriodInSeconds;
+  }
+
+  int getRequestLimitPeriodInSeconds() {
+    return requestLimitPeriodInSeconds;
+  }
+
+  /**
+   * @param cacheSize the maximum number of check results that are cached, so that identical
+   *                  requests can be answered without checking the text again; {@code 0} (the default)
+   *                  disables the cache
+   * @since 2.5
+   */
+  public void setCacheSize(int cacheSize) {
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("cacheSize must be >= 0: " + cacheSize);
+    }
+    this.cacheSize = cacheSize;
+  }
+
+  /**
+   * @since 2.5
+   */
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * @param cacheTimeToLiveSeconds how long cached check results are used, {@code 0} means until they're
+   *                               evicted because the cache is full
+   * @since 2.5
+   */
+  public void setCacheTimeToLiveSeconds(int cacheTimeToLiveSeconds) {
+    if (cacheTimeToLiveSeconds < 0) {
+      throw new IllegalArgumentException("cacheTimeToLiveSeconds must be >= 0: " + cacheTimeToLiveSeconds);
+    }
+    this.cacheTimeToLiveSeconds = cacheTimeToLiveSeconds;
+  }
+
+  /**
+   * @since 2.5
+   */
+  public int getCacheTimeToLiveSeconds() {
+    return cacheTimeToLiveSeconds;
+  }
+
+  /**
+   * @param bulkThreshold texts with at least this many characters are checked with low priority, so
+   *                      that short texts don't have to wait for them; clients can override this with
+   *                      the {@code priority} parameter ({@code interactive} or {@code bulk})
+   * @since 2.5
+   */
+  public void setBulkThreshold(int bulkThreshold) {
+    if (bulkThreshold < 1) {
+      throw new IllegalArgumentException("bulkThreshold must be >= 1: " + bulkThreshold);
+    }
+    this.bulkThreshold = bulkThreshold;
+  }
+
+  /**
+   * @since 2.5
+   */
+  public int getBulkThreshold() {
+    return bulkThreshold;
+  }
+
+  /**
+   * The default number of threads checking texts: the number of CPU cores.
+   * @since 2.5
+   */
+  public static int getDefaultCheckThreads() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * The default number of threads reading requests and sending responses. They
+   * don't check texts, so a few of them are enough: a quarter of the CPU cores, but at least 4.
+   * @since 2.5
+   */
+  public static int getDefaultIoThreads() {
+    return Math.max(4, Runtime.getRuntime().availableProcessors() / 4);
+  }
+
+  /**
+   * @param checkThreads the number of threads checking texts, i.e. the maximum number of checks running at the same time
+   * @since 2.5
+   */
+  public void setCheckThreads(int checkThreads) {
+    if (checkThreads < 1) {
+      throw new IllegalArgumentException("checkThreads must be >= 1: " + checkThreads);
+    }
+    this.checkThreads = checkThreads;
+  }
+
+  /**
+   * @since 2.5
+   */
+  public int getCheckThreads() {
+    return checkThreads;
+  }
+
+  /**
+   * @param ioThreads the number of threads reading requests and sending responses
+   * @since 2.5
+   */
+  public void setIoThreads(int ioThreads) {
+    if (ioThreads < 1) {
+      throw new IllegalArgumentException("ioThreads must be >= 1: " + ioThreads);
+    }
+    this.ioThreads = ioThreads;
+  }
+
+  /**
+   * @since 2.5
+   */
+  public int getIoThreads() {
+    return ioThreads;
+  }
+
+  /**
+   * @param maxLanguageIdleSeconds the resources of a language (checker instances, dictionaries, models) are
+   *                               released when it hasn't been used for this time, and loaded again when it's
+   *                               used the next time; {@code 0} (the default) keeps them
+   * @since 2.5
+   */
+  public void setMaxLanguageIdleSeconds(int maxLanguageIdleSeconds) {
+    if (maxLanguageIdleSeconds < 0) {
+      throw new IllegalArgumentException("maxLanguageIdleSeconds must be >= 0: " + maxLanguageIdleSeconds);
+    }
+    this.maxLanguageIdleSeconds = maxLanguageIdleSeconds;
+  }
+
+  /**
+   * @since 2.5
+   */
+  public int getMaxLanguageIdleSeconds() {
+    return maxLanguageIdleSeconds;
+  }
+
+  /**
+   * @param heapBudgetMb when the heap used after garbage collection exceeds this many megabytes, the resources
+   *                     of the least recently used languages are released; {@code 0} (the default) means no limit
+   * @since 2.5
+   */
+  public void setHeapBudgetMb(int heapBudgetMb) {
+    if (heapBudgetMb < 0) {
+      throw new IllegalArgumentException("heapBudgetMb must be >= 0: " + heapBudgetMb);
+    }
+    this.heapBudgetMb = heapBudgetMb;
+  }
+
+  /**
+   * @since 2.5
+   */
+  public int getHeapBudgetMb() {
+    return heapBudgetMb;
+  }
+
 }
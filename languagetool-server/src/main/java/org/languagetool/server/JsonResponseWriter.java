@@ -0,0 +1,222 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.rules.Category;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.patterns.PatternRule;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes matches as compact JSON, with the same information as the XML format:
+ * <pre>
+ * {"software":{"name":"LanguageTool","version":"...","buildDate":"..."},
+ *  "language":{"code":"en-US","name":"English (US)"},
+ *  "matches":[{"ruleId":"...","message":"...","replacements":["..."],"offset":8,"length":2,
+ *    "fromY":0,"fromX":8,"toY":0,"toX":10,"context":{"text":"...","offset":8,"length":2},
+ *    "category":"..."}]}
+ * </pre>
+ * The optional properties {@code motherTongue}, {@code subId}, {@code url}, {@code category}, and
+ * {@code locQualityIssueType} are left out if there's no value. A batch result is an object with
+ * {@code software} and {@code results}, an array with one object per text that has the
+ * properties {@code index}, {@code language}, and {@code matches}.
+ * @since 2.5
+ */
+class JsonResponseWriter extends ResponseWriter {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private boolean firstBatchItem;
+
+  JsonResponseWriter(Writer writer) {
+    super(writer);
+  }
+
+  @Override
+  void writeMatches(List<RuleMatch> matches, String text, Language lang, Language motherTongue) throws IOException {
+    writer.write('{');
+    writeSoftware();
+    writer.write(',');
+    writeMatchProperties(matches, text, lang, motherTongue);
+    writer.write("}\n");
+  }
+
+  @Override
+  void startBatch() throws IOException {
+    writer.write('{');
+    writeSoftware();
+    writer.write(",\"results\":[");
+    firstBatchItem = true;
+  }
+
+  @Override
+  void writeBatchItem(int index, List<RuleMatch> matches, String text, Language lang, Language motherTongue) throws IOException {
+    if (!firstBatchItem) {
+      writer.write(',');
+    }
+    firstBatchItem = false;
+    writer.write("{\"index\":");
+    writer.write(Integer.toString(index));
+    writer.write(',');
+    writeMatchProperties(matches, text, lang, motherTongue);
+    writer.write('}');
+  }
+
+  @Override
+  void endBatch() throws IOException {
+    writer.write("]}\n");
+  }
+
+  private void writeSoftware() throws IOException {
+    writer.write("\"software\":{\"name\":\"LanguageTool\",\"version\":");
+    writeString(JLanguageTool.VERSION);
+    writer.write(",\"buildDate\":");
+    writeString(JLanguageTool.BUILD_DATE);
+    writer.write('}');
+  }
+
+  private void writeMatchProperties(List<RuleMatch> matches, String text, Language lang, Language motherTongue) throws IOException {
+    if (lang != null) {
+      writeLanguage("language", lang);
+      writer.write(',');
+    }
+    if (motherTongue != null) {
+      writeLanguage("motherTongue", motherTongue);
+      writer.write(',');
+    }
+    writer.write("\"matches\":[");
+    for (int i = 0; i < matches.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writeMatch(matches.get(i), text);
+    }
+    writer.write(']');
+  }
+
+  private void writeLanguage(String name, Language lang) throws IOException {
+    writer.write('"');
+    writer.write(name);
+    writer.write("\":{\"code\":");
+    writeString(lang.getShortNameWithCountryAndVariant());
+    writer.write(",\"name\":");
+    writeString(lang.getName());
+    writer.write('}');
+  }
+
+  private void writeMatch(RuleMatch match, String text) throws IOException {
+    writer.write("{\"ruleId\":");
+    writeString(match.getRule().getId());
+    if (match.getRule() instanceof PatternRule) {
+      final String subId = ((PatternRule) match.getRule()).getSubId();
+      if (subId != null) {
+        writer.write(",\"subId\":");
+        writeString(subId);
+      }
+    }
+    writer.write(",\"message\":\"");
+    writeMessage(match.getMessage());
+    writer.write("\",\"replacements\":[");
+    final List<String> replacements = match.getSuggestedReplacements();
+    for (int i = 0; i < replacements.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writeString(replacements.get(i));
+    }
+    final int length = match.getToPos() - match.getFromPos();
+    writer.write("],\"offset\":");
+    writer.write(Integer.toString(match.getFromPos()));
+    writer.write(",\"length\":");
+    writer.write(Integer.toString(length));
+    writeNumber("fromY", match.getLine());
+    writeNumber("fromX", match.getColumn() - 1);
+    writeNumber("toY", match.getEndLine());
+    writeNumber("toX", match.getEndColumn() - 1);
+    writer.write(",\"context\":{\"text\":\"");
+    final int contextOffset = writeContext(match, text);
+    writer.write("\",\"offset\":");
+    writer.write(Integer.toString(contextOffset));
+    writer.write(",\"length\":");
+    writer.write(Integer.toString(length));
+    writer.write('}');
+    if (match.getRule().getUrl() != null) {
+      writer.write(",\"url\":");
+      writeString(match.getRule().getUrl().toString());
+    }
+    final Category category = match.getRule().getCategory();
+    if (category != null) {
+      writer.write(",\"category\":");
+      writeString(category.getName());
+    }
+    final String type = match.getRule().getLocQualityIssueType();
+    if (type != null) {
+      writer.write(",\"locQualityIssueType\":");
+      writeString(type);
+    }
+    writer.write('}');
+  }
+
+  private void writeNumber(String name, int value) throws IOException {
+    writer.write(",\"");
+    writer.write(name);
+    writer.write("\":");
+    writer.write(Integer.toString(value));
+  }
+
+  private void writeString(String s) throws IOException {
+    if (s == null) {
+      writer.write("null");
+    } else {
+      writer.write('"');
+      writeEscaped(s);
+      writer.write('"');
+    }
+  }
+
+  @Override
+  protected void writeEscaped(String s, int start, int end) throws IOException {
+    int unwritten = start;
+    for (int i = start; i < end; i++) {
+      final char c = s.charAt(i);
+      if (c >= 0x20 && c != '"' && c != '\\') {
+        continue;
+      }
+      writer.write(s, unwritten, i - unwritten);
+      if (c == '"' || c == '\\') {
+        writer.write('\\');
+        writer.write(c);
+      } else if (c == '\n' || c == '\r') {
+        writer.write(' ');
+      } else {
+        writer.write("\\u00");
+        writer.write(HEX_DIGITS[c >> 4]);
+        writer.write(HEX_DIGITS[c & 0xf]);
+      }
+      unwritten = i + 1;
+    }
+    writer.write(s, unwritten, end - unwritten);
+  }
+
+}
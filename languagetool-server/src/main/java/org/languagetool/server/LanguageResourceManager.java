@@ -0,0 +1,225 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.Language;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the memory used by languages that are not in use: the checker instances, dictionaries,
+ * disambiguation rules, and models of a language are released when it hasn't been used for
+ * {@code maxIdleMillis}, or - least recently used languages first - when the heap used after
+ * the last garbage collection exceeds {@code heapBudgetBytes}. A released language is loaded
+ * again when it's used the next time, so this only makes the next request for it slower.
+ * @since 2.5
+ */
+class LanguageResourceManager {
+
+  interface Releaser {
+    /**
+     * Release the resources of the given language.
+     * @return the estimated number of bytes released
+     */
+    long release(String languageCode);
+
+    /**
+     * @return the estimated number of bytes used by the resources of the given language
+     */
+    long getSize(String languageCode);
+  }
+
+  // languages used more recently are not released to keep within the heap budget, as they're probably still needed:
+  private static final long MIN_IDLE_MILLIS_FOR_HEAP_BUDGET = 60 * 1000;
+  private static final long MAX_CHECK_INTERVAL_MILLIS = 60 * 1000;
+
+  // language code -> time of last use:
+  private final ConcurrentMap<String, Long> lastAccess = new ConcurrentHashMap<>();
+  private final AtomicLong releaseCount = new AtomicLong();
+  private final AtomicLong releasedBytes = new AtomicLong();
+  private final long maxIdleMillis;
+  private final long heapBudgetBytes;
+  private final Releaser releaser;
+
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * @param maxIdleMillis release languages that haven't been used for this time, {@code 0} to keep them
+   * @param heapBudgetBytes release languages when the heap used after garbage collection exceeds this, {@code 0} for no limit
+   */
+  LanguageResourceManager(long maxIdleMillis, long heapBudgetBytes, Releaser releaser) {
+    if (maxIdleMillis < 0) {
+      throw new IllegalArgumentException("maxIdleMillis must be >= 0: " + maxIdleMillis);
+    }
+    if (heapBudgetBytes < 0) {
+      throw new IllegalArgumentException("heapBudgetBytes must be >= 0: " + heapBudgetBytes);
+    }
+    this.maxIdleMillis = maxIdleMillis;
+    this.heapBudgetBytes = heapBudgetBytes;
+    this.releaser = releaser;
+  }
+
+  /**
+   * Start checking regularly for languages to release, in a background thread.
+   */
+  synchronized void start() {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        final Thread thread = new Thread(runnable, "lt-resource-manager");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    final long interval = getCheckIntervalMillis();
+    scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          releaseUnusedLanguages(System.currentTimeMillis(), getUsedHeapBytes());
+        } catch (Exception e) {
+          // keep the scheduler running:
+          e.printStackTrace();
+        }
+      }
+    }, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  synchronized void shutdown() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Called whenever a language is used, so it's not released while it's needed.
+   */
+  void languageUsed(Language language) {
+    lastAccess.put(language.getShortName(), System.currentTimeMillis());
+  }
+
+  /**
+   * Release the languages that have been idle for too long and, if the heap budget is exceeded, the
+   * least recently used languages until the estimated size of the released resources makes up for the excess.
+   * @return the codes of the released languages
+   */
+  List<String> releaseUnusedLanguages(long now, long usedHeapBytes) {
+    final List<Map.Entry<String, Long>> languages = new ArrayList<>(lastAccess.entrySet());
+    // least recently used first:
+    Collections.sort(languages, new Comparator<Map.Entry<String, Long>>() {
+      @Override
+      public int compare(Map.Entry<String, Long> e1, Map.Entry<String, Long> e2) {
+        return Long.compare(e1.getValue(), e2.getValue());
+      }
+    });
+    long excessBytes = heapBudgetBytes > 0 ? usedHeapBytes - heapBudgetBytes : 0;
+    final List<String> released = new ArrayList<>();
+    for (Map.Entry<String, Long> entry : languages) {
+      final long idleMillis = now - entry.getValue();
+      final boolean idle = maxIdleMillis > 0 && idleMillis >= maxIdleMillis;
+      final boolean overBudget = excessBytes > 0 && idleMillis >= MIN_IDLE_MILLIS_FOR_HEAP_BUDGET;
+      if (!idle && !overBudget) {
+        continue;
+      }
+      // the language may have been used in the meantime:
+      if (lastAccess.remove(entry.getKey(), entry.getValue())) {
+        final long bytes = releaser.release(entry.getKey());
+        excessBytes -= bytes;
+        releaseCount.incrementAndGet();
+        releasedBytes.addAndGet(bytes);
+        released.add(entry.getKey());
+      }
+    }
+    return released;
+  }
+
+  /**
+   * The codes of the languages that have been used and not released since then, with the time of their last use.
+   */
+  Map<String, Long> getLastAccessTimes() {
+    return Collections.unmodifiableMap(lastAccess);
+  }
+
+  long getEstimatedSize(String languageCode) {
+    return releaser.getSize(languageCode);
+  }
+
+  long getReleaseCount() {
+    return releaseCount.get();
+  }
+
+  long getReleasedBytes() {
+    return releasedBytes.get();
+  }
+
+  long getHeapBudgetBytes() {
+    return heapBudgetBytes;
+  }
+
+  long getMaxIdleMillis() {
+    return maxIdleMillis;
+  }
+
+  private long getCheckIntervalMillis() {
+    if (maxIdleMillis > 0) {
+      return Math.max(1000, Math.min(MAX_CHECK_INTERVAL_MILLIS, maxIdleMillis / 2));
+    }
+    return MAX_CHECK_INTERVAL_MILLIS;
+  }
+
+  /**
+   * The heap used after the last garbage collection, i.e. without the garbage that hasn't
+   * been collected yet. Falls back to the current heap usage if the JVM doesn't provide that.
+   */
+  static long getUsedHeapBytes() {
+    long used = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) {
+        final MemoryUsage usage = pool.getCollectionUsage();
+        if (usage != null) {
+          used += usage.getUsed();
+        }
+      }
+    }
+    if (used == 0) {
+      final Runtime runtime = Runtime.getRuntime();
+      used = runtime.totalMemory() - runtime.freeMemory();
+    }
+    return used;
+  }
+
+}
@@ -24,13 +24,32 @@ import java.net.URI;
 import java.net.URLDecoder;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
-import org.apache.tika.language.LanguageIdentifier;
+import org.languagetool.CancellationToken;
+import org.languagetool.CheckCancelledException;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.SentenceChunkListener;
+import org.languagetool.databroker.DefaultResourceDataBroker;
 import org.languagetool.gui.Configuration;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.bitext.BitextRule;
+import org.languagetool.rules.patterns.FalseFriendRuleIndex;
+import org.languagetool.synthesis.CachingSynthesizer;
+import org.languagetool.synthesis.Synthesizer;
+import org.languagetool.tagging.disambiguation.rules.XmlRuleDisambiguator;
+import org.languagetool.tools.LanguageDetector;
+import org.languagetool.tools.LanguageResources;
 import org.languagetool.tools.StringTools;
 import org.languagetool.tools.Tools;
 
@@ -41,35 +60,228 @@ class LanguageToolHttpHandler implements HttpHandler {
 
   private static final String CONTENT_TYPE_VALUE = "text/xml; charset=UTF-8";
   private static final String ENCODING = "utf-8";
-  private static final int CONTEXT_SIZE = 40; // characters
+  private static final int RESPONSE_BUFFER_SIZE = 8192;
   private static final int MIN_LENGTH_FOR_AUTO_DETECTION = 60;  // characters
+  private static final long MAX_POOL_IDLE_MILLIS = 10 * 60 * 1000;
+  // the number of rule configurations whose instances are kept for all check threads:
+  private static final int MAX_POOL_IDLE_CONFIGURATIONS = 50;
 
   private final Set<String> allowedIps;  
   private final boolean verbose;
   private final boolean internalServer;
   private final RequestLimiter requestLimiter;
+  private final LanguageToolPool languageToolPool;
+  private final BitextRulePool bitextRulePool;
+  private final ServerMetrics metrics = new ServerMetrics();
+  private final Set<CancellationToken> runningChecks = Collections.newSetFromMap(new ConcurrentHashMap<CancellationToken, Boolean>());
+  // incremented for every rule reload, so results of checks that used the old rules aren't cached:
+  private final AtomicInteger ruleReloads = new AtomicInteger();
+  // languages whose synthesizer cache has been added to the metrics:
+  private final Set<String> languagesWithSynthesizerMetrics = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
   private int maxTextLength = Integer.MAX_VALUE;
+  private long maxCheckTimeMillis = 0;
+  private AdmissionController admissionController;
+  private RequestExecutor executor;
+  private CheckScheduler checkScheduler;
+  private ResponseCache responseCache;
+  private LanguageResourceManager resourceManager;
   private String allowOriginUrl;
-  
-  private static int handleCount = 0;
 
   /**
    * @param verbose print the input text in case of exceptions
    * @param allowedIps set of IPs that may connect or <tt>null</tt> to allow any IP
    * @param requestLimiter may be null
+   * @param checkThreads the number of threads checking texts, i.e. the number of checker instances per configuration that are kept
    */
-  LanguageToolHttpHandler(boolean verbose, Set<String> allowedIps, boolean internal, RequestLimiter requestLimiter) {
+  LanguageToolHttpHandler(boolean verbose, Set<String> allowedIps, boolean internal, RequestLimiter requestLimiter, int checkThreads) {
     this.verbose = verbose;
     this.allowedIps = allowedIps;
     this.internalServer = internal;
     this.requestLimiter = requestLimiter;
+    this.languageToolPool = new LanguageToolPool(new LanguageToolPool.InstanceFactory() {
+      @Override
+      public JLanguageTool create(LanguageToolPool.Key key) throws Exception {
+        return createLanguageToolInstance(key, false);
+      }
+    }, checkThreads, checkThreads * MAX_POOL_IDLE_CONFIGURATIONS, MAX_POOL_IDLE_MILLIS);
+    this.bitextRulePool = new BitextRulePool(new BitextRulePool.RuleLoader() {
+      @Override
+      public List<BitextRule> load(Language source, Language target) throws Exception {
+        return Tools.getBitextRules(source, target);
+      }
+    }, checkThreads);
+    metrics.addCache("languageToolPool", languageToolPool);
+    metrics.addCache("bitextRulePool", bitextRulePool);
+    metrics.addCache("languageDetection", LanguageDetector.getInstance().getCache());
+    if (JLanguageTool.getDataBroker() instanceof DefaultResourceDataBroker) {
+      metrics.addCache("resourceContents", ((DefaultResourceDataBroker) JLanguageTool.getDataBroker()).getContentCache());
+    }
+  }
+
+  /**
+   * @since 2.5
+   */
+  ServerMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Create checker instances for the default configuration of the given languages now, one language
+   * per thread, and warm them up with {@link JLanguageTool#warmUp()}, so the first requests for these
+   * languages don't have to wait for the rules and dictionaries to be loaded.
+   * @since 2.5
+   */
+  void warmUp(List<Language> languages) throws Exception {
+    if (languages.isEmpty()) {
+      return;
+    }
+    final long startTime = System.currentTimeMillis();
+    final ExecutorService warmUpExecutor = Executors.newFixedThreadPool(Math.min(languages.size(), Runtime.getRuntime().availableProcessors()));
+    try {
+      final List<Future<Void>> futures = new ArrayList<>();
+      for (final Language language : languages) {
+        futures.add(warmUpExecutor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            warmUp(language);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+      }
+    } finally {
+      warmUpExecutor.shutdownNow();
+    }
+    print("Preloaded " + languages.size() + " language(s) in " + (System.currentTimeMillis() - startTime) + "ms");
+  }
+
+  private void warmUp(Language language) throws Exception {
+    final long startTime = System.currentTimeMillis();
+    final LanguageToolPool.Key key = new LanguageToolPool.Key(language, null);
+    languageUsed(language);
+    // not created by the pool, so the resources can be loaded while the rules are parsed:
+    final JLanguageTool languageTool = createLanguageToolInstance(key, true);
+    languageTool.warmUp();
+    languageToolPool.checkIn(key, languageTool);
+    print("Preloaded " + language.getShortNameWithCountryAndVariant() + " in " + (System.currentTimeMillis() - startTime) + "ms");
+  }
+
+  /**
+   * Load the grammar, disambiguation, and false friend rules of the given language again, e.g. after
+   * the rule files have been modified. All rules are parsed before anything is replaced, so broken rule
+   * files don't affect the running server. Then new checks use the new rules, while the checks
+   * that are running already keep their checker instances. Only disambiguation rules are shared by all
+   * instances, so a running check uses the new ones from its next sentence on.
+   * @since 2.5
+   */
+  void reloadRules(Language language) throws Exception {
+    final long startTime = System.currentTimeMillis();
+    // parse all rules first, this throws an exception if a file cannot be loaded:
+    final LanguageToolPool.Key key = new LanguageToolPool.Key(language, null);
+    final JLanguageTool languageTool = createLanguageToolInstance(key, false);
+    // shared by all languages, the whole file is parsed before it replaces the current false friend rules:
+    FalseFriendRuleIndex.reload(JLanguageTool.getDataBroker().getRulesDir() + "/" + JLanguageTool.FALSE_FRIEND_FILE);
+    XmlRuleDisambiguator.reloadRules(language);
+    ruleReloads.incrementAndGet();
+    languageToolPool.invalidate(language.getShortName());
+    bitextRulePool.invalidate(language.getShortName());
+    if (responseCache != null) {
+      responseCache.clear();
+    }
+    // the instance has the new rules, so it's used for the next check instead of parsing them again:
+    languageToolPool.checkIn(key, languageTool);
+    print("Reloaded rules for " + language.getShortName() + " in " + (System.currentTimeMillis() - startTime) + "ms");
   }
 
   void setMaxTextLength(int maxTextLength) {
     this.maxTextLength = maxTextLength;
   }
 
+  /**
+   * @param maxCheckTimeMillis the maximum time for checking a text, {@code 0} means no limit
+   * @since 2.5
+   */
+  void setMaxCheckTimeMillis(long maxCheckTimeMillis) {
+    this.maxCheckTimeMillis = maxCheckTimeMillis;
+  }
+
+  /**
+   * @param admissionController limits the load caused by concurrent requests, or {@code null} for no limit
+   * @since 2.5
+   */
+  void setAdmissionController(AdmissionController admissionController) {
+    this.admissionController = admissionController;
+  }
+
+  /**
+   * @param executor the executor that runs the requests, responses to checks are handed back to it
+   * @since 2.5
+   */
+  void setExecutor(RequestExecutor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * @param checkScheduler the threads that checks are handed over to, or {@code null} to check
+   *                       texts in the request's thread
+   * @since 2.5
+   */
+  void setCheckScheduler(CheckScheduler checkScheduler) {
+    this.checkScheduler = checkScheduler;
+  }
+
+  /**
+   * @param responseCache cache for the results of single text checks, or {@code null} to check every request
+   * @since 2.5
+   */
+  void setResponseCache(ResponseCache responseCache) {
+    this.responseCache = responseCache;
+    if (responseCache != null) {
+      metrics.addCache("responseCache", responseCache);
+    }
+  }
+
+  /**
+   * @param resourceManager releases the resources of languages that are not in use, or {@code null} to keep them
+   * @since 2.5
+   */
+  void setResourceManager(LanguageResourceManager resourceManager) {
+    this.resourceManager = resourceManager;
+    metrics.setResourceManager(resourceManager);
+  }
+
+  /**
+   * Release the checker instances and the resources (dictionaries, disambiguation rules, models)
+   * of the given language, so their memory can be reclaimed. They're loaded again when needed.
+   * @param languageCode a language code without country or variant, like {@code en}
+   * @return the estimated number of bytes released, not including the checker instances
+   * @since 2.5
+   */
+  long releaseLanguage(String languageCode) {
+    languageToolPool.invalidate(languageCode);
+    bitextRulePool.invalidate(languageCode);
+    final long released = LanguageResources.release(languageCode);
+    print("Released resources of unused language " + languageCode + " (about " + released / 1024 + "KB)");
+    return released;
+  }
+
+  /**
+   * Abort all checks that are currently running. Their requests are answered with an error.
+   * @since 2.5
+   */
+  void cancelRunningChecks(String reason) {
+    for (CancellationToken token : runningChecks) {
+      token.cancel(reason);
+    }
+  }
+
   /**
    * Value to set as the "Access-Control-Allow-Origin" http header. Use {@code null}
    * to not return that header at all. Use {@code *} to run a server that any other web site
@@ -81,9 +293,18 @@ class LanguageToolHttpHandler implements HttpHandler {
 
   @Override
   public void handle(HttpExchange httpExchange) throws IOException {
-    handleCount++;
+    metrics.requestStarted();
     String text = null;
+    // once a check has been handed over, the request is finished after sending the check's response:
+    boolean handedOver = false;
     try {
+      if (RequestExecutor.isOverloaded()) {
+        // don't even read the request, so this is fast:
+        sendError(httpExchange, HttpURLConnection.HTTP_UNAVAILABLE, "Error: Server busy, too many requests waiting - please try again later");
+        metrics.requestRejected();
+        print("Request rejected: server busy");
+        return;
+      }
       final URI requestedUri = httpExchange.getRequestURI();
       final String remoteAddress = httpExchange.getRemoteAddress().getAddress().getHostAddress();
       // According to the Javadoc, "Closing an exchange without consuming all of the request body is
@@ -95,6 +316,7 @@ class LanguageToolHttpHandler implements HttpHandler {
                 " denied - too many requests. Allowed maximum requests: " + requestLimiter.getRequestLimit() +
                 " requests per " + requestLimiter.getRequestLimitPeriodInSeconds() + " seconds";
         sendError(httpExchange, HttpURLConnection.HTTP_FORBIDDEN, errorMessage);
+        metrics.requestRejected();
         print(errorMessage);
         return;
       }
@@ -102,35 +324,59 @@ class LanguageToolHttpHandler implements HttpHandler {
         if (requestedUri.getRawPath().endsWith("/Languages")) {
           // request type: list known languages
           printListOfLanguages(httpExchange);
+        } else if (requestedUri.getRawPath().endsWith("/batch")) {
+          // request type: checking several texts at once
+          handedOver = checkBatch(httpExchange, parameters);
         } else {
           // request type: text checking
           text = parameters.get("text");
           if (text == null) {
             throw new IllegalArgumentException("Missing 'text' parameter");
           }
-          checkText(text, httpExchange, parameters);
+          handedOver = checkText(text, httpExchange, parameters);
         }
       } else {
         final String errorMessage = "Error: Access from " + StringTools.escapeXML(remoteAddress) + " denied";
         sendError(httpExchange, HttpURLConnection.HTTP_FORBIDDEN, errorMessage);
+        metrics.requestRejected();
         throw new RuntimeException(errorMessage);
       }
     } catch (Exception e) {
+      sendFailure(httpExchange, e, text);
+    } finally {
+      if (!handedOver) {
+        finishRequest(httpExchange);
+      }
+    }
+  }
+
+  /**
+   * @param text the checked text, printed in verbose mode, may be null
+   */
+  private void sendFailure(HttpExchange httpExchange, Exception e, String text) throws IOException {
+    metrics.requestFailed();
+    if (e instanceof CheckCancelledException) {
+      print("Check aborted: " + e.getMessage());
+      sendError(httpExchange, HttpURLConnection.HTTP_UNAVAILABLE, "Error: " + StringTools.escapeXML(e.getMessage()));
+    } else {
       if (verbose) {
         print("Exception was caused by this text: " + text);
       }
       e.printStackTrace();
       final String response = "Error: " + StringTools.escapeXML(Tools.getFullStackTrace(e));
       sendError(httpExchange, HttpURLConnection.HTTP_INTERNAL_ERROR, response);
-    } finally {
-      handleCount--;
-      httpExchange.close();
     }
   }
 
+  private void finishRequest(HttpExchange httpExchange) {
+    metrics.requestFinished();
+    httpExchange.close();
+  }
+
   private void sendError(HttpExchange httpExchange, int returnCode, String response) throws IOException {
-    httpExchange.sendResponseHeaders(returnCode, response.getBytes(ENCODING).length);
-    httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+    final byte[] responseBytes = response.getBytes(ENCODING);
+    httpExchange.sendResponseHeaders(returnCode, responseBytes.length);
+    httpExchange.getResponseBody().write(responseBytes);
   }
 
   private Map<String, String> getRequestQuery(HttpExchange httpExchange, URI requestedUri) throws IOException {
@@ -144,19 +390,75 @@ class LanguageToolHttpHandler implements HttpHandler {
   }
 
   private void printListOfLanguages(HttpExchange httpExchange) throws IOException {
-    setCommonHeaders(httpExchange);
-    final String response = getSupportedLanguagesAsXML();
-    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-    httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+    setCommonHeaders(httpExchange, CONTENT_TYPE_VALUE);
+    final byte[] responseBytes = getSupportedLanguagesAsXML().getBytes(ENCODING);
+    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, responseBytes.length);
+    httpExchange.getResponseBody().write(responseBytes);
   }
 
-  private void setCommonHeaders(HttpExchange httpExchange) {
-    httpExchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_VALUE);
+  private void setCommonHeaders(HttpExchange httpExchange, String contentType) {
+    httpExchange.getResponseHeaders().set("Content-Type", contentType);
     if (allowOriginUrl != null) {
       httpExchange.getResponseHeaders().set("Access-Control-Allow-Origin", allowOriginUrl);
     }
   }
 
+  /**
+   * Send the headers of a successful response and get a writer for its body. The body is sent
+   * in chunks while it's being written, so its length doesn't need to be known in advance.
+   * It's compressed if the client accepts gzip.
+   */
+  private ResponseWriter startResponse(HttpExchange httpExchange, ResponseWriter.Format format) throws IOException {
+    setCommonHeaders(httpExchange, format.getContentType());
+    httpExchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+    final boolean gzip = acceptsGzip(httpExchange.getRequestHeaders().getFirst("Accept-Encoding"));
+    if (gzip) {
+      httpExchange.getResponseHeaders().set("Content-Encoding", "gzip");
+    }
+    // length 0 means chunked transfer encoding:
+    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+    OutputStream out = httpExchange.getResponseBody();
+    if (gzip) {
+      out = new GZIPOutputStream(out, RESPONSE_BUFFER_SIZE);
+    }
+    return ResponseWriter.create(format, new BufferedWriter(new OutputStreamWriter(out, ENCODING), RESPONSE_BUFFER_SIZE));
+  }
+
+  /**
+   * The response format, XML unless the {@code format} parameter asks for JSON.
+   */
+  private ResponseWriter.Format getFormat(Map<String, String> parameters) {
+    final String formatParam = parameters.get("format");
+    if (formatParam == null || formatParam.equals("xml")) {
+      return ResponseWriter.Format.XML;
+    } else if (formatParam.equals("json")) {
+      return ResponseWriter.Format.JSON;
+    }
+    throw new IllegalArgumentException("Unknown 'format' parameter: '" + formatParam + "', use 'xml' or 'json'");
+  }
+
+  /**
+   * @param acceptEncoding value of the "Accept-Encoding" header, may be null
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      final String[] parts = coding.split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        for (int i = 1; i < parts.length; i++) {
+          final String param = parts[i].trim();
+          if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
   private static Language detectLanguageOfString(final String text, final String fallbackLanguage) {
     // TODO: use identifier.isReasonablyCertain() - but make sure it works!
     if (text.length() < MIN_LENGTH_FOR_AUTO_DETECTION && fallbackLanguage != null) {
@@ -164,11 +466,8 @@ class LanguageToolHttpHandler implements HttpHandler {
       return Language.getLanguageForShortName(fallbackLanguage);
     }
     
-    final LanguageIdentifier identifier = new LanguageIdentifier(text);
-    Language lang;
-    try {
-      lang = Language.getLanguageForShortName(identifier.getLanguage());
-    } catch (IllegalArgumentException e) {
+    Language lang = LanguageDetector.getInstance().detectLanguage(text);
+    if (lang == null) {
       // fall back to English
       lang = Language.getLanguageForLocale(Locale.ENGLISH);
     }
@@ -178,17 +477,126 @@ class LanguageToolHttpHandler implements HttpHandler {
     return lang;
   }
 
-  private void checkText(String text, HttpExchange httpExchange, Map<String, String> parameters) throws Exception {
+  /**
+   * @return whether the check has been handed over, so that the request is finished by the check
+   */
+  private boolean checkText(String text, HttpExchange httpExchange, Map<String, String> parameters) throws Exception {
     final long timeStart = System.currentTimeMillis();
     if (text.length() > maxTextLength) {
       throw new IllegalArgumentException("Text is " + text.length() + " characters long, exceeding maximum length of " + maxTextLength);
     }
-    final String langParam = parameters.get("language");
-    final String autodetectParam = parameters.get("autodetect");
+    final Language lang = getLanguage(text, parameters.get("language"), parameters.get("autodetect"));
+    final Language motherTongue = getMotherTongue(parameters);
+    final QueryParams params = getQueryParams(parameters);
+    final ResponseWriter.Format format = getFormat(parameters);
+    final String sourceText = parameters.get("srctext");
+    final CheckScheduler.Priority priority = getPriority(parameters, text.length());
+    ResponseCache.Key cacheKey = null;
+    if (responseCache != null) {
+      cacheKey = ResponseCache.getKey(text, sourceText, getPoolKey(lang, motherTongue, params));
+      final List<RuleMatch> cachedMatches = responseCache.get(cacheKey);
+      if (cachedMatches != null) {
+        // no need to ask the admission controller, as nothing needs to be checked:
+        sendMatches(httpExchange, format, cachedMatches, text, lang, motherTongue);
+        final long runTime = System.currentTimeMillis() - timeStart;
+        metrics.cachedCheckDone(lang, text.length(), runTime);
+        print("Check done: " + text.length() + " chars, " + lang.getShortNameWithCountryAndVariant() + ", "
+                + cachedMatches.size() + " matches from cache, " + runTime + "ms");
+        return false;
+      }
+    }
+    final int weight = AdmissionController.getWeight(text.length());
+    if (admissionController != null && !admissionController.tryAcquire(weight)) {
+      sendError(httpExchange, HttpURLConnection.HTTP_UNAVAILABLE, "Error: Server busy - please try again later");
+      metrics.requestRejected();
+      print("Request with " + text.length() + " chars rejected: server busy (load " + admissionController.getLoad()
+              + " of " + admissionController.getCapacity() + ")");
+      return false;
+    }
+    checkAdmittedText(text, sourceText, lang, motherTongue, params, format, priority, cacheKey, weight, httpExchange, timeStart);
+    return true;
+  }
+
+  /**
+   * Check several texts, given as parameters {@code text.0}, {@code text.1}, etc. Each text
+   * can have its own language ({@code language.0}, ...), otherwise {@code language} or
+   * {@code autodetect} apply. All other parameters apply to all texts. The texts are
+   * checked in parallel and the result contains one {@code <matches>} element per text,
+   * in the same order as the texts.
+   * @return whether the check has been handed over, so that the request is finished by the check
+   */
+  private boolean checkBatch(final HttpExchange httpExchange, Map<String, String> parameters) throws Exception {
+    final long timeStart = System.currentTimeMillis();
+    final Language motherTongue = getMotherTongue(parameters);
+    final QueryParams params = getQueryParams(parameters);
+    final ResponseWriter.Format format = getFormat(parameters);
+    final List<BatchChecker.Item> items = new ArrayList<>();
+    final List<Language> languages = new ArrayList<>();
+    int totalLength = 0;
+    String text;
+    while ((text = parameters.get("text." + items.size())) != null) {
+      final String langParam = parameters.get("language." + items.size());
+      final Language lang = getLanguage(text, langParam != null ? langParam : parameters.get("language"), parameters.get("autodetect"));
+      languages.add(lang);
+      items.add(new BatchChecker.Item(text, getPoolKey(lang, motherTongue, params)));
+      totalLength += text.length();
+    }
+    if (items.isEmpty()) {
+      throw new IllegalArgumentException("Missing 'text.0' parameter");
+    }
+    if (totalLength > maxTextLength) {
+      throw new IllegalArgumentException("Texts are " + totalLength + " characters long, exceeding maximum length of " + maxTextLength);
+    }
+    final int weight = AdmissionController.getWeight(totalLength) + items.size() - 1;
+    if (admissionController != null && !admissionController.tryAcquire(weight)) {
+      sendError(httpExchange, HttpURLConnection.HTTP_UNAVAILABLE, "Error: Server busy - please try again later");
+      metrics.requestRejected();
+      print("Batch request with " + items.size() + " texts rejected: server busy (load " + admissionController.getLoad()
+              + " of " + admissionController.getCapacity() + ")");
+      return false;
+    }
+    final int batchLength = totalLength;
+    final CheckScheduler.Priority priority = getPriority(parameters, totalLength);
+    final CancellationToken cancellationToken = new CancellationToken(getRemainingCheckTime(timeStart));
+    new HandedOverCheck(httpExchange, priority, cancellationToken, weight, null) {
+      private List<List<RuleMatch>> matches;
+      @Override
+      void check() {
+        // the other threads keep checking after this returns, the last one finishes the request:
+        new BatchChecker(languageToolPool, checkScheduler, metrics).check(items, cancellationToken, priority, new BatchChecker.Callback() {
+          @Override
+          public void done(List<List<RuleMatch>> batchMatches, Exception exception) {
+            matches = batchMatches;
+            checkFinished(exception);
+          }
+        });
+      }
+      @Override
+      boolean finishesItself() {
+        return true;
+      }
+      @Override
+      void sendResponse() throws Exception {
+        final ResponseWriter responseWriter = startResponse(httpExchange, format);
+        responseWriter.startBatch();
+        int matchCount = 0;
+        for (int i = 0; i < items.size(); i++) {
+          responseWriter.writeBatchItem(i, matches.get(i), items.get(i).getText(), languages.get(i), motherTongue);
+          matchCount += matches.get(i).size();
+        }
+        responseWriter.endBatch();
+        responseWriter.close();
+        print("Batch check done: " + items.size() + " texts, " + batchLength + " chars, handlers:" + metrics.getInFlightRequests()
+                + ", " + matchCount + " matches, " + (System.currentTimeMillis() - timeStart) + "ms");
+      }
+    }.start();
+    return true;
+  }
+
+  private Language getLanguage(String text, String langParam, String autodetectParam) {
     if (langParam == null && (autodetectParam == null || !autodetectParam.equals("1"))) {
       throw new IllegalArgumentException("Missing 'language' parameter. Specify language or use autodetect=1 for auto-detecting the language of the input text.");
     }
-    
     final Language lang;
     if (autodetectParam != null && autodetectParam.equals("1")) {
       lang = detectLanguageOfString(text, langParam);
@@ -196,13 +604,109 @@ class LanguageToolHttpHandler implements HttpHandler {
     } else {
       lang = Language.getLanguageForShortName(langParam);
     }
-    
+    return lang;
+  }
+
+  private Language getMotherTongue(Map<String, String> parameters) {
     final String motherTongueParam = parameters.get("motherTongue");
-    Language motherTongue = null;
     if (motherTongueParam != null) {
-      motherTongue = Language.getLanguageForShortName(motherTongueParam);
+      return Language.getLanguageForShortName(motherTongueParam);
     }
+    return null;
+  }
 
+  /**
+   * Hand the check of a text over to the {@link CheckScheduler}.
+   * @param sourceText the source text of a bilingual check, or {@code null}
+   * @param priority the lane in which the check waits for the {@link CheckScheduler}, or {@code null} if there's no scheduler
+   * @param cacheKey the key for caching the result, or {@code null}
+   * @param admissionWeight the weight acquired from the {@link AdmissionController}, released once the check is done
+   */
+  private void checkAdmittedText(final String text, final String sourceText, final Language lang, final Language motherTongue,
+                                 final QueryParams params, final ResponseWriter.Format format, CheckScheduler.Priority priority,
+                                 final ResponseCache.Key cacheKey, int admissionWeight, final HttpExchange httpExchange,
+                                 final long timeStart) {
+    final CancellationToken cancellationToken = new CancellationToken(getRemainingCheckTime(timeStart));
+    final SentenceChunkListener chunkListener = checkScheduler != null ? checkScheduler.getChunkListener(priority, cancellationToken) : null;
+    final int ruleReloadsAtStart = ruleReloads.get();
+    new HandedOverCheck(httpExchange, priority, cancellationToken, admissionWeight, text) {
+      private List<RuleMatch> matches;
+      private long analysisNanos;
+      private long matchingNanos;
+      @Override
+      void check() throws Exception {
+        if (sourceText == null) {
+          final LanguageToolPool.Key key = getPoolKey(lang, motherTongue, params);
+          languageUsed(lang);
+          final JLanguageTool lt = languageToolPool.checkOut(key);
+          lt.setCancellationToken(cancellationToken);
+          lt.setSentenceChunkListener(chunkListener, CheckScheduler.CHUNK_SIZE);
+          matches = lt.check(text);
+          analysisNanos = lt.getAnalysisTimeNanos();
+          matchingNanos = lt.getMatchingTimeNanos();
+          // not returned to the pool in case of an exception, to be on the safe side:
+          languageToolPool.checkIn(key, lt);
+        } else {
+          if (motherTongue == null) {
+            throw new IllegalArgumentException("Missing 'motherTongue' for bilingual checks");
+          }
+          print("Checking bilingual text, with source length " + sourceText.length() +
+              " and target length " + text.length() + " (characters), source language " +
+              motherTongue + " and target language " + lang);
+          final LanguageToolPool.Key sourceKey = getPoolKey(motherTongue, null, params);
+          final LanguageToolPool.Key targetKey = getPoolKey(lang, null, params);
+          languageUsed(motherTongue);
+          languageUsed(lang);
+          final JLanguageTool sourceLt = languageToolPool.checkOut(sourceKey);
+          final JLanguageTool targetLt = languageToolPool.checkOut(targetKey);
+          sourceLt.setCancellationToken(cancellationToken);
+          targetLt.setCancellationToken(cancellationToken);
+          sourceLt.setSentenceChunkListener(chunkListener, CheckScheduler.CHUNK_SIZE);
+          targetLt.setSentenceChunkListener(chunkListener, CheckScheduler.CHUNK_SIZE);
+          final BitextRulePool.Rules bitextRules = bitextRulePool.checkOut(motherTongue, lang);
+          matches = Tools.checkBitext(sourceText, text, sourceLt, targetLt, bitextRules.getRules());
+          analysisNanos = sourceLt.getAnalysisTimeNanos() + targetLt.getAnalysisTimeNanos();
+          matchingNanos = sourceLt.getMatchingTimeNanos() + targetLt.getMatchingTimeNanos();
+          languageToolPool.checkIn(sourceKey, sourceLt);
+          languageToolPool.checkIn(targetKey, targetLt);
+          bitextRulePool.checkIn(bitextRules);
+        }
+        if (cacheKey != null && ruleReloads.get() == ruleReloadsAtStart) {
+          responseCache.put(cacheKey, matches);
+        }
+      }
+      @Override
+      void sendResponse() throws Exception {
+        sendMatches(httpExchange, format, matches, text, lang, motherTongue);
+        String languageMessage = lang.getShortNameWithCountryAndVariant();
+        if (motherTongue != null) {
+          languageMessage += " (mother tongue: " + motherTongue.getShortNameWithCountryAndVariant() + ")";
+        }
+        final String referrer = httpExchange.getRequestHeaders().getFirst("Referer");
+        final long runTime = System.currentTimeMillis() - timeStart;
+        metrics.checkDone(lang, text.length(), runTime, analysisNanos, matchingNanos);
+        print("Check done: " + text.length() + " chars, " + languageMessage + ", " + referrer + ", "
+                + "handlers:" + metrics.getInFlightRequests() + ", " + matches.size() + " matches, " + runTime + "ms");
+      }
+    }.start();
+  }
+
+  private void sendMatches(HttpExchange httpExchange, ResponseWriter.Format format, List<RuleMatch> matches,
+                           String text, Language lang, Language motherTongue) throws IOException {
+    final ResponseWriter responseWriter = startResponse(httpExchange, format);
+    responseWriter.writeMatches(matches, text, lang, motherTongue);
+    responseWriter.close();
+  }
+
+  /**
+   * @return the lane for the text according to the {@code priority} parameter or the text's length,
+   *         or {@code null} if there's no scheduler
+   */
+  private CheckScheduler.Priority getPriority(Map<String, String> parameters, int textLength) {
+    return checkScheduler != null ? checkScheduler.getPriority(parameters.get("priority"), textLength) : null;
+  }
+
+  private QueryParams getQueryParams(Map<String, String> parameters) {
     final String enabledParam = parameters.get("enabled");
     final List<String> enabledRules = new ArrayList<>();
     if (enabledParam != null) {
@@ -226,37 +730,19 @@ class LanguageToolHttpHandler implements HttpHandler {
     }
     
     final boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0;
-    final QueryParams params = new QueryParams(enabledRules, disabledRules, useEnabledOnly, useQuerySettings);
-    
-    final List<RuleMatch> matches;
-    final String sourceText = parameters.get("srctext");
-    if (sourceText == null) {
-      final JLanguageTool lt = getLanguageToolInstance(lang, motherTongue, params);
-      matches = lt.check(text);
-    } else {
-      if (motherTongueParam == null) {
-        throw new IllegalArgumentException("Missing 'motherTongue' for bilingual checks");
-      }
-      print("Checking bilingual text, with source length " + sourceText.length() +
-          " and target length " + text.length() + " (characters), source language " +
-          motherTongue + " and target language " + langParam);
-      final JLanguageTool sourceLt = getLanguageToolInstance(motherTongue, null, params);
-      final JLanguageTool targetLt = getLanguageToolInstance(lang, null, params);
-      final List<BitextRule> bRules = Tools.getBitextRules(motherTongue, lang);
-      matches = Tools.checkBitext(sourceText, text, sourceLt, targetLt, bRules);
-    }
-    setCommonHeaders(httpExchange);
-    final String response = StringTools.ruleMatchesToXML(matches, text,
-            CONTEXT_SIZE, StringTools.XmlPrintMode.NORMAL_XML, lang, motherTongue);
-    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-    httpExchange.getResponseBody().write(response.getBytes(ENCODING));
-    String languageMessage = lang.getShortNameWithCountryAndVariant();
-    if (motherTongue != null) {
-      languageMessage += " (mother tongue: " + motherTongue.getShortNameWithCountryAndVariant() + ")";
-    }
-    final String referrer = httpExchange.getRequestHeaders().getFirst("Referer");
-    print("Check done: " + text.length() + " chars, " + languageMessage + ", " + referrer + ", "
-            + "handlers:" + handleCount + ", " + matches.size() + " matches, " + (System.currentTimeMillis() - timeStart) + "ms");
+    return new QueryParams(enabledRules, disabledRules, useEnabledOnly, useQuerySettings);
+  }
+
+  /**
+   * The time left for checking, so that the whole request doesn't take longer than the maximum check time.
+   * @return the time in milliseconds, {@code 0} for no limit
+   */
+  private long getRemainingCheckTime(long timeStart) {
+    if (maxCheckTimeMillis <= 0) {
+      return 0;
+    }
+    // at least 1ms, as 0 would mean no limit:
+    return Math.max(1, maxCheckTimeMillis - (System.currentTimeMillis() - timeStart));
   }
 
   private Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
@@ -283,6 +769,19 @@ class LanguageToolHttpHandler implements HttpHandler {
     return parameters;
   }
 
+  private void languageUsed(Language language) {
+    final LanguageResourceManager currentManager = resourceManager;
+    if (currentManager != null) {
+      currentManager.languageUsed(language);
+    }
+    if (languagesWithSynthesizerMetrics.add(language.getShortNameWithCountryAndVariant())) {
+      final Synthesizer synthesizer = language.getSynthesizer();
+      if (synthesizer instanceof CachingSynthesizer) {
+        metrics.addCache("synthesizer." + language.getShortNameWithCountryAndVariant(), (CachingSynthesizer) synthesizer);
+      }
+    }
+  }
+
   private static void print(String s) {
     final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
     final String now = dateFormat.format(new Date());
@@ -290,21 +789,34 @@ class LanguageToolHttpHandler implements HttpHandler {
   }
 
   /**
-   * Find or create a JLanguageTool instance for a specific language, mother tongue, and rule configuration.
-   *
    * @param lang the language to be used.
    * @param motherTongue the user's mother tongue or {@code null}
    */
-  private JLanguageTool getLanguageToolInstance(Language lang, Language motherTongue, QueryParams params) throws Exception {
-    final JLanguageTool newLanguageTool = new JLanguageTool(lang, motherTongue);
+  private LanguageToolPool.Key getPoolKey(Language lang, Language motherTongue, QueryParams params) {
+    return new LanguageToolPool.Key(lang, motherTongue, params.enabledRules, params.disabledRules,
+            params.useEnabledOnly, params.useQuerySettings);
+  }
+
+  /**
+   * Create a JLanguageTool instance for a specific language, mother tongue, and rule configuration.
+   * Called by the pool if it has no idle instance for that configuration, and when warming up. The GUI configuration
+   * is only read here, which is fine as the GUI restarts the server when the configuration changes.
+   * @param preloadResources load the dictionaries and disambiguation rules while the pattern rules are parsed
+   */
+  private JLanguageTool createLanguageToolInstance(LanguageToolPool.Key key, boolean preloadResources) throws Exception {
+    final Language lang = key.getLanguage();
+    final JLanguageTool newLanguageTool = new JLanguageTool(lang, key.getMotherTongue());
+    if (preloadResources) {
+      newLanguageTool.preloadResources();
+    }
     newLanguageTool.activateDefaultPatternRules();
     newLanguageTool.activateDefaultFalseFriendRules();
     final Configuration config = new Configuration(lang);
-    if (!params.useQuerySettings && internalServer && config.getUseGUIConfig()) { // use the GUI config values
+    if (!key.isUseQuerySettings() && internalServer && config.getUseGUIConfig()) { // use the GUI config values
       configureGUI(newLanguageTool, config);
     }
-    if (params.useQuerySettings) {
-      Tools.selectRules(newLanguageTool, params.disabledRules, params.enabledRules, params.useEnabledOnly);
+    if (key.isUseQuerySettings()) {
+      Tools.selectRules(newLanguageTool, key.getDisabledRules(), key.getEnabledRules(), key.isUseEnabledOnly());
     }
     return newLanguageTool;
   }
@@ -375,4 +887,134 @@ class LanguageToolHttpHandler implements HttpHandler {
     }
   }
 
+  /**
+   * A check that's handed over to the {@link CheckScheduler}. Once the check is done, sending the
+   * response is handed back to the request threads, so the checking threads don't wait for slow
+   * clients. Once started, it finishes the request, also if the check fails.
+   */
+  private abstract class HandedOverCheck implements Runnable {
+
+    private final HttpExchange httpExchange;
+    private final CheckScheduler.Priority priority;
+    private final CancellationToken cancellationToken;
+    private final int admissionWeight;
+    private final String text;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private volatile Exception failure;
+
+    /**
+     * @param priority the lane in which the check waits, or {@code null} if there's no scheduler
+     * @param admissionWeight the weight acquired from the {@link AdmissionController}, released once the check is done
+     * @param text the checked text, printed in verbose mode if the check fails, may be null
+     */
+    HandedOverCheck(HttpExchange httpExchange, CheckScheduler.Priority priority, CancellationToken cancellationToken,
+                    int admissionWeight, String text) {
+      this.httpExchange = httpExchange;
+      this.priority = priority;
+      this.cancellationToken = cancellationToken;
+      this.admissionWeight = admissionWeight;
+      this.text = text;
+    }
+
+    /**
+     * Runs in one of the scheduler's threads.
+     */
+    abstract void check() throws Exception;
+
+    /**
+     * Whether {@link #check()} only starts the check and {@link #checkFinished(Exception)}
+     * is called later, possibly by another thread, instead of the check being finished
+     * when {@link #check()} returns.
+     */
+    boolean finishesItself() {
+      return false;
+    }
+
+    /**
+     * Runs in one of the request threads, if the check was successful.
+     */
+    abstract void sendResponse() throws Exception;
+
+    /**
+     * Hand the check over to the scheduler, or check right away in the calling thread if there's no scheduler.
+     * @throws RejectedExecutionException if the scheduler has been shut down, the request isn't finished then
+     */
+    void start() {
+      runningChecks.add(cancellationToken);
+      if (checkScheduler == null) {
+        run();
+        return;
+      }
+      try {
+        checkScheduler.execute(priority, this);
+      } catch (RejectedExecutionException e) {
+        checkDone();
+        throw e;
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        check();
+      } catch (Exception e) {
+        checkFinished(e);
+        return;
+      }
+      if (!finishesItself()) {
+        checkFinished(null);
+      }
+    }
+
+    /**
+     * Release the check's resources and hand sending the response back to the request threads.
+     * @param exception why the check failed, or {@code null}
+     */
+    void checkFinished(Exception exception) {
+      if (!finished.compareAndSet(false, true)) {
+        // e.g. a helper of a batch check failed after the batch was done:
+        if (exception != null) {
+          exception.printStackTrace();
+        }
+        return;
+      }
+      failure = exception;
+      checkDone();
+      final Runnable respondTask = new Runnable() {
+        @Override
+        public void run() {
+          respond();
+        }
+      };
+      // if all request threads are busy, this thread sends the response itself:
+      if (checkScheduler == null || executor == null || !executor.tryExecute(respondTask)) {
+        respondTask.run();
+      }
+    }
+
+    private void checkDone() {
+      runningChecks.remove(cancellationToken);
+      if (admissionController != null) {
+        admissionController.release(admissionWeight);
+      }
+    }
+
+    private void respond() {
+      try {
+        try {
+          if (failure != null) {
+            throw failure;
+          }
+          sendResponse();
+        } catch (Exception e) {
+          sendFailure(httpExchange, e, text);
+        }
+      } catch (IOException e) {
+        print("Could not send response: " + e.getMessage());
+      } finally {
+        finishRequest(httpExchange);
+      }
+    }
+  }
+
 }
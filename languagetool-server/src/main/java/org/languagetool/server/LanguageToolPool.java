@@ -0,0 +1,380 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of ready-to-use {@link JLanguageTool} instances, keyed by language, mother tongue,
+ * and rule configuration. Creating an instance means loading and parsing the pattern rules,
+ * so instances are re-used across requests: a request checks out an instance, uses it
+ * exclusively, and returns it. Checking out never blocks: if there's no idle instance
+ * for a key, a new one is created. At most {@code maxIdlePerKey} instances are kept per key
+ * and at most {@code maxIdle} instances in total, dropping the least recently used instances
+ * of any key, so clients can't fill the memory by sending many different rule configurations.
+ * Instances that haven't been used for {@code maxIdleMillis} are dropped, too. After the rules of
+ * a language have been reloaded, {@link #invalidate(String)} makes sure its old instances aren't used anymore.
+ * @since 2.5
+ */
+class LanguageToolPool implements ServerMetrics.CacheStatistics {
+
+  interface InstanceFactory {
+    JLanguageTool create(Key key) throws Exception;
+  }
+
+  private final ConcurrentMap<Key, Deque<IdleInstance>> idleInstances = new ConcurrentHashMap<>();
+  private final InstanceFactory factory;
+  private final int maxIdlePerKey;
+  private final int maxIdle;
+  private final long maxIdleMillis;
+  private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicInteger idleCount = new AtomicInteger();
+  // instance -> generation at its creation, weak so instances that are never checked in don't leak:
+  private final Map<JLanguageTool, Integer> creationGenerations = Collections.synchronizedMap(new WeakHashMap<JLanguageTool, Integer>());
+  // language code -> generation at its last invalidation:
+  private final ConcurrentMap<String, Integer> invalidations = new ConcurrentHashMap<>();
+  private final AtomicInteger generation = new AtomicInteger();
+
+  /**
+   * @param maxIdlePerKey the maximum number of idle instances kept per key
+   * @param maxIdle the maximum number of idle instances kept for all keys together
+   * @param maxIdleMillis idle instances not used for this time are dropped
+   */
+  LanguageToolPool(InstanceFactory factory, int maxIdlePerKey, int maxIdle, long maxIdleMillis) {
+    if (maxIdlePerKey < 1) {
+      throw new IllegalArgumentException("maxIdlePerKey must be >= 1: " + maxIdlePerKey);
+    }
+    if (maxIdle < maxIdlePerKey) {
+      throw new IllegalArgumentException("maxIdle must be >= maxIdlePerKey (" + maxIdlePerKey + "): " + maxIdle);
+    }
+    this.factory = factory;
+    this.maxIdlePerKey = maxIdlePerKey;
+    this.maxIdle = maxIdle;
+    this.maxIdleMillis = maxIdleMillis;
+  }
+
+  /**
+   * Get an instance for exclusive use. Give it back with {@link #checkIn(Key, JLanguageTool)}
+   * once the check is done, usually in a {@code finally} block.
+   */
+  JLanguageTool checkOut(Key key) throws Exception {
+    evictIdleInstancesIfDue();
+    final Deque<IdleInstance> instances = idleInstances.get(key);
+    if (instances != null) {
+      // most recently used first, so the oldest instances can expire:
+      final IdleInstance idleInstance = instances.pollFirst();
+      if (idleInstance != null) {
+        idleCount.decrementAndGet();
+        hits.incrementAndGet();
+        return idleInstance.languageTool;
+      }
+    }
+    misses.incrementAndGet();
+    return create(key);
+  }
+
+  /**
+   * Return an instance obtained with {@link #checkOut(Key)}. Don't use the instance after calling this.
+   */
+  void checkIn(Key key, JLanguageTool languageTool) {
+    if (isInvalidated(key, languageTool)) {
+      return;
+    }
+    Deque<IdleInstance> instances = idleInstances.get(key);
+    if (instances == null) {
+      final Deque<IdleInstance> newInstances = new ConcurrentLinkedDeque<>();
+      instances = idleInstances.putIfAbsent(key, newInstances);
+      if (instances == null) {
+        instances = newInstances;
+      }
+    }
+    // size() is not constant time, but the deques are small:
+    if (instances.size() < maxIdlePerKey) {
+      instances.offerFirst(new IdleInstance(languageTool, System.currentTimeMillis()));
+      if (idleCount.incrementAndGet() > maxIdle) {
+        evictLeastRecentlyUsedInstances();
+      }
+    }
+  }
+
+  /**
+   * Create instances for the given key until {@code count} instances (but at most
+   * {@code maxIdlePerKey}) are idle, so that the first requests don't need to wait for rule loading.
+   */
+  void warmUp(Key key, int count) throws Exception {
+    final List<JLanguageTool> created = new ArrayList<>();
+    final Deque<IdleInstance> instances = idleInstances.get(key);
+    final int existing = instances != null ? instances.size() : 0;
+    for (int i = existing; i < Math.min(count, maxIdlePerKey); i++) {
+      created.add(create(key));
+    }
+    for (JLanguageTool languageTool : created) {
+      checkIn(key, languageTool);
+    }
+  }
+
+  /**
+   * Drop the instances that have been idle for longer than the maximum idle time.
+   */
+  void evictIdleInstances() {
+    final long threshold = System.currentTimeMillis() - maxIdleMillis;
+    final Iterator<Map.Entry<Key, Deque<IdleInstance>>> iterator = idleInstances.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Deque<IdleInstance> instances = iterator.next().getValue();
+      // the least recently used instances are at the end:
+      IdleInstance oldest;
+      while ((oldest = instances.peekLast()) != null && oldest.lastUsed < threshold) {
+        if (instances.removeLastOccurrence(oldest)) {
+          idleCount.decrementAndGet();
+        }
+      }
+      if (instances.isEmpty()) {
+        // an instance checked in concurrently might get lost here, which is okay:
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Drop the instances of all keys that use the given language, as text language or as mother tongue,
+   * e.g. because its rules have been reloaded. Instances that are checked out at the moment can be used
+   * until the end of their check, but they are not kept when they are checked in.
+   * @param languageCode a language code without country or variant, like {@code en}
+   */
+  void invalidate(String languageCode) {
+    invalidations.put(languageCode, generation.incrementAndGet());
+    final Iterator<Map.Entry<Key, Deque<IdleInstance>>> iterator = idleInstances.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<Key, Deque<IdleInstance>> entry = iterator.next();
+      if (entry.getKey().usesLanguage(languageCode)) {
+        while (entry.getValue().pollFirst() != null) {
+          idleCount.decrementAndGet();
+        }
+        iterator.remove();
+      }
+    }
+  }
+
+  void clear() {
+    idleInstances.clear();
+    idleCount.set(0);
+  }
+
+  int getIdleCount() {
+    return idleCount.get();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  private JLanguageTool create(Key key) throws Exception {
+    // taken before creating, so an instance created during an invalidation counts as invalidated:
+    final int creationGeneration = generation.get();
+    final JLanguageTool languageTool = factory.create(key);
+    creationGenerations.put(languageTool, creationGeneration);
+    return languageTool;
+  }
+
+  private boolean isInvalidated(Key key, JLanguageTool languageTool) {
+    if (invalidations.isEmpty()) {
+      return false;
+    }
+    final Integer creationGeneration = creationGenerations.get(languageTool);
+    if (creationGeneration == null) {
+      return false;
+    }
+    return isInvalidatedSince(key.language, creationGeneration) || isInvalidatedSince(key.motherTongue, creationGeneration);
+  }
+
+  private boolean isInvalidatedSince(Language language, int creationGeneration) {
+    if (language == null) {
+      return false;
+    }
+    final Integer invalidation = invalidations.get(language.getShortName());
+    return invalidation != null && invalidation > creationGeneration;
+  }
+
+  /**
+   * Drop the least recently used instances of any key until at most {@code maxIdle} instances are idle.
+   * This needs to look at all keys, but there can't be many more keys than idle instances.
+   */
+  private void evictLeastRecentlyUsedInstances() {
+    while (idleCount.get() > maxIdle) {
+      Map.Entry<Key, Deque<IdleInstance>> oldestEntry = null;
+      IdleInstance oldest = null;
+      for (Map.Entry<Key, Deque<IdleInstance>> entry : idleInstances.entrySet()) {
+        final IdleInstance candidate = entry.getValue().peekLast();
+        if (candidate != null && (oldest == null || candidate.lastUsed < oldest.lastUsed)) {
+          oldestEntry = entry;
+          oldest = candidate;
+        }
+      }
+      if (oldest == null) {
+        return;
+      }
+      final Deque<IdleInstance> instances = oldestEntry.getValue();
+      // fails if the instance has been checked out concurrently, then we just look again:
+      if (instances.removeLastOccurrence(oldest)) {
+        idleCount.decrementAndGet();
+        if (instances.isEmpty()) {
+          // an instance checked in concurrently might get lost here, which is okay:
+          idleInstances.remove(oldestEntry.getKey(), instances);
+        }
+      }
+    }
+  }
+
+  private void evictIdleInstancesIfDue() {
+    final long now = System.currentTimeMillis();
+    final long last = lastEviction.get();
+    // only one thread sweeps, and only every now and then:
+    if (now - last > Math.min(maxIdleMillis, 60_000) && lastEviction.compareAndSet(last, now)) {
+      evictIdleInstances();
+    }
+  }
+
+  /**
+   * The configuration an instance is created for.
+   */
+  static final class Key {
+
+    private final Language language;
+    private final Language motherTongue;
+    private final List<String> enabledRules;
+    private final List<String> disabledRules;
+    private final boolean useEnabledOnly;
+    private final boolean useQuerySettings;
+
+    Key(Language language, Language motherTongue, List<String> enabledRules, List<String> disabledRules,
+        boolean useEnabledOnly, boolean useQuerySettings) {
+      this.language = language;
+      this.motherTongue = motherTongue;
+      // the order of rule ids doesn't matter for the configuration:
+      this.enabledRules = sortedCopy(enabledRules);
+      this.disabledRules = sortedCopy(disabledRules);
+      this.useEnabledOnly = useEnabledOnly;
+      this.useQuerySettings = useQuerySettings;
+    }
+
+    /**
+     * A key for the default rule configuration of a language.
+     */
+    Key(Language language, Language motherTongue) {
+      this(language, motherTongue, Collections.<String>emptyList(), Collections.<String>emptyList(), false, false);
+    }
+
+    Language getLanguage() {
+      return language;
+    }
+
+    Language getMotherTongue() {
+      return motherTongue;
+    }
+
+    List<String> getEnabledRules() {
+      return enabledRules;
+    }
+
+    List<String> getDisabledRules() {
+      return disabledRules;
+    }
+
+    boolean isUseEnabledOnly() {
+      return useEnabledOnly;
+    }
+
+    boolean isUseQuerySettings() {
+      return useQuerySettings;
+    }
+
+    boolean usesLanguage(String languageCode) {
+      return language.getShortName().equals(languageCode)
+          || motherTongue != null && motherTongue.getShortName().equals(languageCode);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final Key other = (Key) o;
+      return useEnabledOnly == other.useEnabledOnly
+          && useQuerySettings == other.useQuerySettings
+          && language.getShortNameWithCountryAndVariant().equals(other.language.getShortNameWithCountryAndVariant())
+          && (motherTongue == null ? other.motherTongue == null
+              : other.motherTongue != null && motherTongue.getShortNameWithCountryAndVariant().equals(other.motherTongue.getShortNameWithCountryAndVariant()))
+          && enabledRules.equals(other.enabledRules)
+          && disabledRules.equals(other.disabledRules);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = language.getShortNameWithCountryAndVariant().hashCode();
+      result = 31 * result + (motherTongue != null ? motherTongue.getShortNameWithCountryAndVariant().hashCode() : 0);
+      result = 31 * result + enabledRules.hashCode();
+      result = 31 * result + disabledRules.hashCode();
+      result = 31 * result + (useEnabledOnly ? 1 : 0);
+      result = 31 * result + (useQuerySettings ? 1 : 0);
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return language.getShortNameWithCountryAndVariant() + "/" + motherTongue + "/" + enabledRules + "/" + disabledRules;
+    }
+
+    private static List<String> sortedCopy(List<String> list) {
+      final List<String> copy = new ArrayList<>(list);
+      Collections.sort(copy);
+      return Collections.unmodifiableList(copy);
+    }
+  }
+
+  private static class IdleInstance {
+    private final JLanguageTool languageTool;
+    private final long lastUsed;
+    private IdleInstance(JLanguageTool languageTool, long lastUsed) {
+      this.languageTool = languageTool;
+      this.lastUsed = lastUsed;
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.languagetool.tools.StringTools;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Set;
+
+/**
+ * Serves the {@link ServerMetrics} as XML.
+ * @since 2.5
+ */
+class MetricsHttpHandler implements HttpHandler {
+
+  private static final String CONTENT_TYPE_VALUE = "text/xml; charset=UTF-8";
+  private static final String ENCODING = "utf-8";
+
+  private final ServerMetrics metrics;
+  private final Set<String> allowedIps;
+
+  /**
+   * @param allowedIps set of IPs that may connect or <tt>null</tt> to allow any IP
+   */
+  MetricsHttpHandler(ServerMetrics metrics, Set<String> allowedIps) {
+    this.metrics = metrics;
+    this.allowedIps = allowedIps;
+  }
+
+  @Override
+  public void handle(HttpExchange httpExchange) throws IOException {
+    try {
+      final String remoteAddress = httpExchange.getRemoteAddress().getAddress().getHostAddress();
+      final int returnCode;
+      final String response;
+      if (allowedIps == null || allowedIps.contains(remoteAddress)) {
+        returnCode = HttpURLConnection.HTTP_OK;
+        response = metrics.toXML();
+        httpExchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_VALUE);
+      } else {
+        returnCode = HttpURLConnection.HTTP_FORBIDDEN;
+        response = "Error: Access from " + StringTools.escapeXML(remoteAddress) + " denied";
+      }
+      final byte[] bytes = response.getBytes(ENCODING);
+      httpExchange.sendResponseHeaders(returnCode, bytes.length);
+      httpExchange.getResponseBody().write(bytes);
+    } finally {
+      httpExchange.close();
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor for the HTTP server's requests with a bounded queue. The {@code HttpServer}
+ * has no way to answer a request that the executor doesn't accept, the client would
+ * just wait for a response. So if the queue is full, the request is run on a separate
+ * thread on which {@link #isOverloaded()} returns {@code true}, and the handler is
+ * expected to answer immediately with "503 Service Unavailable" without doing any work.
+ * @since 2.5
+ */
+class RequestExecutor extends ThreadPoolExecutor {
+
+  private static final int OVERLOAD_QUEUE_SIZE = 1000;
+  private static final ThreadLocal<Boolean> overloaded = new ThreadLocal<>();
+
+  private final ThreadPoolExecutor overloadExecutor;
+
+  /**
+   * @param threads the number of threads to run requests
+   * @param maxQueueSize the maximum number of requests waiting for a thread
+   */
+  RequestExecutor(int threads, int maxQueueSize) {
+    super(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(maxQueueSize));
+    // if even this queue is full, the "server busy" answer is sent from the server's dispatcher thread:
+    overloadExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(OVERLOAD_QUEUE_SIZE), new OverloadedPolicy(null));
+    setRejectedExecutionHandler(new OverloadedPolicy(overloadExecutor));
+    // so that tryExecute() can rely on the threads taking tasks from the queue:
+    prestartAllCoreThreads();
+  }
+
+  /**
+   * Run a task if there's space in the queue. Unlike {@link #execute(Runnable)}, a task
+   * that doesn't fit is not run as an overloaded request.
+   * @return true if the task has been queued
+   */
+  boolean tryExecute(Runnable task) {
+    return !isShutdown() && getQueue().offer(task);
+  }
+
+  /**
+   * Whether the request that's handled by the current thread could not be queued because
+   * the server is busy.
+   */
+  static boolean isOverloaded() {
+    return Boolean.TRUE.equals(overloaded.get());
+  }
+
+  @Override
+  public void shutdown() {
+    super.shutdown();
+    overloadExecutor.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    overloadExecutor.shutdownNow();
+    return super.shutdownNow();
+  }
+
+  private static class OverloadedPolicy implements RejectedExecutionHandler {
+
+    private final ThreadPoolExecutor overloadExecutor;
+
+    /**
+     * @param overloadExecutor the executor to run rejected requests, or {@code null} to run them in the calling thread
+     */
+    private OverloadedPolicy(ThreadPoolExecutor overloadExecutor) {
+      this.overloadExecutor = overloadExecutor;
+    }
+
+    @Override
+    public void rejectedExecution(final Runnable runnable, ThreadPoolExecutor executor) {
+      if (executor.isShutdown()) {
+        throw new RejectedExecutionException("Executor has been shut down");
+      }
+      final Runnable overloadedRunnable = new Runnable() {
+        @Override
+        public void run() {
+          overloaded.set(Boolean.TRUE);
+          try {
+            runnable.run();
+          } finally {
+            overloaded.remove();
+          }
+        }
+      };
+      if (overloadExecutor != null) {
+        overloadExecutor.execute(overloadedRunnable);
+      } else {
+        overloadedRunnable.run();
+      }
+    }
+  }
+
+}
@@ -18,21 +18,35 @@
  */
 package org.languagetool.server;
 
-import java.util.Date;
 import java.util.Iterator;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Limit the maximum number of request per IP address for a given time range.
+ * Works like a token bucket per IP that holds up to <tt>requestLimit</tt> tokens
+ * and is refilled continuously over <tt>requestLimitPeriodInSeconds</tt>. The state of
+ * each bucket is a single number (the time at which the bucket will be full again),
+ * so checking a request is one compare-and-set without any locking, and the buckets
+ * of different IPs don't block each other. Buckets that are full again are removed
+ * from time to time.
  */
 class RequestLimiter {
 
-  private static final int API_REQUEST_QUEUE_SIZE = 1000;
+  private static final long MIN_CLEANUP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
 
-  private final List<RequestEvent> requestEvents = new CopyOnWriteArrayList<>();
+  // IP address -> time (System.nanoTime()) at which its bucket is full again:
+  private final ConcurrentMap<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+  private final AtomicLong lastCleanup = new AtomicLong(System.nanoTime());
   private final int requestLimit;
   private final int requestLimitPeriodInSeconds;
+  // the time it takes to refill one token:
+  private final long nanosPerRequest;
+  // how far the "full again" time may be in the future so a request is still allowed:
+  private final long maxDelayNanos;
+  private final long cleanupIntervalNanos;
 
   /**
    * @param requestLimit the maximum number of request per <tt>requestLimitPeriodInSeconds</tt>
@@ -41,6 +55,10 @@ class RequestLimiter {
   RequestLimiter(int requestLimit, int requestLimitPeriodInSeconds) {
     this.requestLimit = requestLimit;
     this.requestLimitPeriodInSeconds = requestLimitPeriodInSeconds;
+    final long periodNanos = TimeUnit.SECONDS.toNanos(requestLimitPeriodInSeconds);
+    this.nanosPerRequest = requestLimit > 0 ? periodNanos / requestLimit : 0;
+    this.maxDelayNanos = periodNanos - nanosPerRequest;
+    this.cleanupIntervalNanos = Math.max(MIN_CLEANUP_INTERVAL_NANOS, periodNanos);
   }
 
   /**
@@ -62,38 +80,62 @@ class RequestLimiter {
    * @return true if access is allowed because the request limit is not reached yet
    */
   boolean isAccessOkay(String ipAddress) {
-    while (requestEvents.size() > API_REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
+    if (requestLimit <= 0) {
+      return false;
     }
-    requestEvents.add(new RequestEvent(ipAddress, new Date()));
-    return !limitReached(ipAddress);
+    final long now = System.nanoTime();
+    cleanUpIfDue(now);
+    final AtomicLong bucket = getBucket(ipAddress, now);
+    while (true) {
+      final long current = bucket.get();
+      // a bucket that's full since some time is just full:
+      final long start = current - now < 0 ? now : current;
+      if (start - now > maxDelayNanos) {
+        return false;
+      }
+      if (bucket.compareAndSet(current, start + nanosPerRequest)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Number of IP addresses currently tracked.
+   */
+  int getTrackedAddressCount() {
+    return fullAt.size();
   }
-  
-  private boolean limitReached(String ipAddress) {
-    int requestsByIp = 0;
-    // all requests before this date are considered old:
-    Date thresholdDate = new Date(System.currentTimeMillis() - requestLimitPeriodInSeconds * 1000);
-    Iterator<RequestEvent> iterator = requestEvents.iterator();
+
+  /**
+   * Forget the IP addresses whose buckets are full again, as they are no different from new addresses.
+   */
+  void cleanUp() {
+    final long now = System.nanoTime();
+    final Iterator<AtomicLong> iterator = fullAt.values().iterator();
     while (iterator.hasNext()) {
-      RequestEvent requestEvent = iterator.next();
-      if (requestEvent.ip.equals(ipAddress) && requestEvent.date.after(thresholdDate)) {
-        requestsByIp++;
-        if (requestsByIp > requestLimit) {
-          return true;
-        }
+      if (iterator.next().get() - now < 0) {
+        // a request that updates this bucket concurrently is not lost, it's just not limited as strictly:
+        iterator.remove();
       }
     }
-    return false;
   }
-  
-  class RequestEvent {
 
-    private final String ip;
-    private final Date date;
+  private AtomicLong getBucket(String ipAddress, long now) {
+    AtomicLong bucket = fullAt.get(ipAddress);
+    if (bucket == null) {
+      final AtomicLong newBucket = new AtomicLong(now);
+      bucket = fullAt.putIfAbsent(ipAddress, newBucket);
+      if (bucket == null) {
+        bucket = newBucket;
+      }
+    }
+    return bucket;
+  }
 
-    RequestEvent(String ip, Date date) {
-      this.ip = ip;
-      this.date = date;
+  private void cleanUpIfDue(long now) {
+    final long last = lastCleanup.get();
+    if (now - last > cleanupIntervalNanos && lastCleanup.compareAndSet(last, now)) {
+      cleanUp();
     }
   }
 
@@ -0,0 +1,198 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.Language;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.tools.ConcurrentLruCache;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the matches of recent check requests, so a request that's identical to an earlier one
+ * (e.g. because a browser extension sends the same text again) is answered without checking
+ * the text again. Requests are identified by a SHA-256 hash of the text, the source text of
+ * bilingual checks, and the checker configuration, so the texts themselves are not kept in memory.
+ * Entries expire after a configurable time.
+ * @since 2.5
+ */
+class ResponseCache implements ServerMetrics.CacheStatistics {
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private final ConcurrentLruCache<Key, Entry> cache;
+  private final long timeToLiveMillis;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param maxSize the maximum number of cached responses
+   * @param timeToLiveMillis how long a response is used, {@code 0} means until it's evicted because the cache is full
+   */
+  ResponseCache(int maxSize, long timeToLiveMillis) {
+    if (timeToLiveMillis < 0) {
+      throw new IllegalArgumentException("timeToLiveMillis must be >= 0: " + timeToLiveMillis);
+    }
+    this.cache = new ConcurrentLruCache<>(maxSize);
+    this.timeToLiveMillis = timeToLiveMillis;
+  }
+
+  /**
+   * @param sourceText the source text of a bilingual check, or {@code null}
+   * @param configuration the language and rule configuration used for checking
+   */
+  static Key getKey(String text, String sourceText, LanguageToolPool.Key configuration) {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(DIGEST_ALGORITHM + " not supported", e);
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate(8192);
+    update(digest, buffer, text);
+    update(digest, buffer, sourceText);
+    update(digest, buffer, getCode(configuration.getLanguage()));
+    update(digest, buffer, getCode(configuration.getMotherTongue()));
+    update(digest, buffer, configuration.getEnabledRules());
+    update(digest, buffer, configuration.getDisabledRules());
+    ensureSpace(digest, buffer, 2);
+    buffer.put((byte) (configuration.isUseEnabledOnly() ? 1 : 0));
+    buffer.put((byte) (configuration.isUseQuerySettings() ? 1 : 0));
+    flush(digest, buffer);
+    return new Key(digest.digest());
+  }
+
+  /**
+   * @return the cached matches or {@code null}
+   */
+  List<RuleMatch> get(Key key) {
+    final Entry entry = cache.get(key);
+    if (entry != null && timeToLiveMillis > 0 && System.currentTimeMillis() > entry.expiryTime) {
+      cache.remove(key);
+    } else if (entry != null) {
+      hits.incrementAndGet();
+      return entry.matches;
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  void put(Key key, List<RuleMatch> matches) {
+    cache.put(key, new Entry(matches, System.currentTimeMillis() + timeToLiveMillis));
+  }
+
+  /**
+   * Remove all responses, e.g. because they might have been created with rules that have been reloaded.
+   */
+  void clear() {
+    cache.clear();
+  }
+
+  int size() {
+    return cache.size();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  private static String getCode(Language language) {
+    return language != null ? language.getShortNameWithCountryAndVariant() : null;
+  }
+
+  private static void update(MessageDigest digest, ByteBuffer buffer, List<String> strings) {
+    ensureSpace(digest, buffer, 4);
+    buffer.putInt(strings.size());
+    for (String s : strings) {
+      update(digest, buffer, s);
+    }
+  }
+
+  /**
+   * Add the length and the characters of a string, so that different sequences of strings
+   * never result in the same bytes.
+   */
+  private static void update(MessageDigest digest, ByteBuffer buffer, String s) {
+    ensureSpace(digest, buffer, 4);
+    if (s == null) {
+      buffer.putInt(-1);
+      return;
+    }
+    buffer.putInt(s.length());
+    for (int i = 0; i < s.length(); i++) {
+      ensureSpace(digest, buffer, 2);
+      buffer.putChar(s.charAt(i));
+    }
+  }
+
+  private static void ensureSpace(MessageDigest digest, ByteBuffer buffer, int bytes) {
+    if (buffer.remaining() < bytes) {
+      flush(digest, buffer);
+    }
+  }
+
+  private static void flush(MessageDigest digest, ByteBuffer buffer) {
+    digest.update(buffer.array(), 0, buffer.position());
+    buffer.clear();
+  }
+
+  static final class Key {
+
+    private final byte[] hash;
+    private final int hashCode;
+
+    private Key(byte[] hash) {
+      this.hash = hash;
+      this.hashCode = Arrays.hashCode(hash);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && Arrays.equals(hash, ((Key) o).hash);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static class Entry {
+
+    private final List<RuleMatch> matches;
+    private final long expiryTime;
+
+    private Entry(List<RuleMatch> matches, long expiryTime) {
+      this.matches = matches;
+      this.expiryTime = expiryTime;
+    }
+  }
+
+}
@@ -0,0 +1,159 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.Language;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the result of a check directly to a {@link Writer}, usually one that sends the
+ * data to the client, so the response doesn't need to be built in memory first.
+ * A single check result is written with {@link #writeMatches(List, String, Language, Language)},
+ * a batch result with {@link #startBatch()}, one {@link #writeBatchItem(int, List, String, Language, Language)}
+ * per text, and {@link #endBatch()}.
+ * @since 2.5
+ */
+abstract class ResponseWriter {
+
+  /**
+   * The number of characters of context shown on each side of an error.
+   */
+  static final int CONTEXT_SIZE = 40;
+
+  enum Format {
+    XML("text/xml; charset=UTF-8"),
+    JSON("application/json; charset=UTF-8");
+
+    private final String contentType;
+
+    Format(String contentType) {
+      this.contentType = contentType;
+    }
+
+    String getContentType() {
+      return contentType;
+    }
+  }
+
+  private static final String SUGGESTION_START = "<suggestion>";
+  private static final String SUGGESTION_END = "</suggestion>";
+
+  protected final Writer writer;
+
+  protected ResponseWriter(Writer writer) {
+    this.writer = writer;
+  }
+
+  static ResponseWriter create(Format format, Writer writer) {
+    switch (format) {
+      case XML: return new XmlResponseWriter(writer);
+      case JSON: return new JsonResponseWriter(writer);
+      default: throw new IllegalArgumentException("Unknown format: " + format);
+    }
+  }
+
+  /**
+   * Write a complete document with the matches of a single text.
+   * @param text the text that was checked, used to get the context of the matches
+   * @param lang the language of the text (might be null)
+   * @param motherTongue the mother tongue of the user (might be null)
+   */
+  abstract void writeMatches(List<RuleMatch> matches, String text, Language lang, Language motherTongue) throws IOException;
+
+  abstract void startBatch() throws IOException;
+
+  abstract void writeBatchItem(int index, List<RuleMatch> matches, String text, Language lang, Language motherTongue) throws IOException;
+
+  abstract void endBatch() throws IOException;
+
+  /**
+   * Flush the remaining data and close the underlying writer.
+   */
+  void close() throws IOException {
+    writer.close();
+  }
+
+  /**
+   * Write the message of a match, with the {@code <suggestion>} markup replaced by an apostrophe.
+   */
+  protected void writeMessage(String message) throws IOException {
+    int start = 0;
+    int pos = message.indexOf('<');
+    while (pos != -1) {
+      final int tagLength;
+      if (message.startsWith(SUGGESTION_START, pos)) {
+        tagLength = SUGGESTION_START.length();
+      } else if (message.startsWith(SUGGESTION_END, pos)) {
+        tagLength = SUGGESTION_END.length();
+      } else {
+        pos = message.indexOf('<', pos + 1);
+        continue;
+      }
+      writeEscaped(message, start, pos);
+      writer.write('\'');
+      start = pos + tagLength;
+      pos = message.indexOf('<', start);
+    }
+    writeEscaped(message, start, message.length());
+  }
+
+  /**
+   * Write the context of a match, i.e. the error and up to {@link #CONTEXT_SIZE} characters
+   * on each side, with "..." where the text has been cut off and line breaks replaced by spaces.
+   * This is the same context that {@link org.languagetool.tools.ContextTools} creates, but without
+   * copying the whole text for each match.
+   * @return the position of the error in the context
+   */
+  protected int writeContext(RuleMatch match, String text) throws IOException {
+    final int fromPos = match.getFromPos();
+    int start = fromPos - CONTEXT_SIZE;
+    final boolean cutAtStart = start >= 0;
+    if (!cutAtStart) {
+      start = 0;
+    }
+    int end = match.getToPos() + CONTEXT_SIZE;
+    final boolean cutAtEnd = end <= text.length();
+    if (!cutAtEnd) {
+      end = text.length();
+    }
+    if (cutAtStart) {
+      writer.write("...");
+    }
+    writeEscaped(text, start, end);
+    if (cutAtEnd) {
+      writer.write("...");
+    }
+    return (cutAtStart ? 3 : 0) + fromPos - start;
+  }
+
+  /**
+   * Write the characters from {@code start} (inclusive) to {@code end} (exclusive) of {@code s},
+   * escaped for the output format. Line breaks are replaced by spaces.
+   */
+  protected abstract void writeEscaped(String s, int start, int end) throws IOException;
+
+  protected void writeEscaped(String s) throws IOException {
+    writeEscaped(s, 0, s.length());
+  }
+
+}
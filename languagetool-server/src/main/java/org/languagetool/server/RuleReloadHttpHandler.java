@@ -0,0 +1,136 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.languagetool.Language;
+import org.languagetool.tools.StringTools;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URLDecoder;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Reloads the rules of a language without restarting the server, e.g. {@code POST /reload} with
+ * {@code language=de} as the body or in the URL. Only POST requests are accepted, as the request changes
+ * the server's state. The request only starts the reload, which happens in the background, one language after the other.
+ * Problems are printed to the server's output, the old rules stay active in that case.
+ * @since 2.5
+ */
+class RuleReloadHttpHandler implements HttpHandler {
+
+  private static final String ENCODING = "utf-8";
+
+  private final LanguageToolHttpHandler languageToolHandler;
+  private final Set<String> allowedIps;
+  private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+    @Override
+    public Thread newThread(Runnable runnable) {
+      final Thread thread = new Thread(runnable, "lt-rule-reload");
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
+  /**
+   * @param allowedIps set of IPs that may connect or <tt>null</tt> to allow any IP
+   */
+  RuleReloadHttpHandler(LanguageToolHttpHandler languageToolHandler, Set<String> allowedIps) {
+    this.languageToolHandler = languageToolHandler;
+    this.allowedIps = allowedIps;
+  }
+
+  @Override
+  public void handle(HttpExchange httpExchange) throws IOException {
+    try {
+      final String remoteAddress = httpExchange.getRemoteAddress().getAddress().getHostAddress();
+      int returnCode;
+      String response;
+      if (!"post".equalsIgnoreCase(httpExchange.getRequestMethod())) {
+        returnCode = HttpURLConnection.HTTP_BAD_METHOD;
+        response = "Error: Use POST to reload rules";
+        httpExchange.getResponseHeaders().set("Allow", "POST");
+      } else if (allowedIps == null || allowedIps.contains(remoteAddress)) {
+        try {
+          String languageCode = getLanguageCode(StringTools.streamToString(httpExchange.getRequestBody(), ENCODING));
+          if (languageCode == null) {
+            languageCode = getLanguageCode(httpExchange.getRequestURI().getRawQuery());
+          }
+          if (languageCode == null) {
+            throw new IllegalArgumentException("Missing 'language' parameter");
+          }
+          final Language language = Language.getLanguageForShortName(languageCode);
+          reloadInBackground(language);
+          returnCode = HttpURLConnection.HTTP_ACCEPTED;
+          response = "Reloading rules for " + language.getShortName();
+        } catch (IllegalArgumentException e) {
+          returnCode = HttpURLConnection.HTTP_BAD_REQUEST;
+          response = "Error: " + StringTools.escapeXML(e.getMessage());
+        }
+      } else {
+        returnCode = HttpURLConnection.HTTP_FORBIDDEN;
+        response = "Error: Access from " + StringTools.escapeXML(remoteAddress) + " denied";
+      }
+      final byte[] bytes = response.getBytes(ENCODING);
+      httpExchange.sendResponseHeaders(returnCode, bytes.length);
+      httpExchange.getResponseBody().write(bytes);
+    } finally {
+      httpExchange.close();
+    }
+  }
+
+  void shutdown() {
+    reloadExecutor.shutdownNow();
+  }
+
+  private void reloadInBackground(final Language language) {
+    reloadExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          languageToolHandler.reloadRules(language);
+        } catch (Exception e) {
+          System.err.println("Could not reload rules for " + language.getShortName() + ", keeping the old rules");
+          e.printStackTrace();
+        }
+      }
+    });
+  }
+
+  /**
+   * @return the value of the {@code language} parameter, or {@code null} if there's none
+   */
+  private String getLanguageCode(String query) throws IOException {
+    if (query != null) {
+      for (String pair : query.split("&")) {
+        final String[] keyValue = pair.split("=", 2);
+        if (keyValue.length == 2 && keyValue[0].equals("language")) {
+          return URLDecoder.decode(keyValue[1].trim(), ENCODING);
+        }
+      }
+    }
+    return null;
+  }
+
+}
@@ -20,6 +20,7 @@ package org.languagetool.server;
 
 import com.sun.net.httpserver.HttpServer;
 import org.languagetool.JLanguageTool;
+import org.languagetool.tools.LanguageResources;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -41,11 +42,16 @@ abstract class Server {
             "0:0:0:0:0:0:0:1%0",   // some(?) Mac OS X
             "127.0.0.1"
     ));
-  static final int THREAD_POOL_SIZE = 10;
+  static final String METRICS_PATH = "/metrics";
+  static final String RELOAD_PATH = "/reload";
 
   protected int port;
   protected String host;
   protected HttpServer server;
+  protected LanguageToolHttpHandler httpHandler;
+  protected CheckScheduler checkScheduler;
+  protected RuleReloadHttpHandler ruleReloadHandler;
+  protected LanguageResourceManager resourceManager;
 
   private boolean isRunning;
 
@@ -67,12 +73,39 @@ abstract class Server {
   public void stop() {
     if (server != null) {
       System.out.println("Stopping server");
+      if (httpHandler != null) {
+        // don't let the worker threads finish checks whose results cannot be sent anymore:
+        httpHandler.cancelRunningChecks("Server stopped");
+      }
       server.stop(0);
+      if (checkScheduler != null) {
+        checkScheduler.shutdownNow();
+      }
+      if (ruleReloadHandler != null) {
+        ruleReloadHandler.shutdown();
+      }
+      if (resourceManager != null) {
+        resourceManager.shutdown();
+      }
       isRunning = false;
       System.out.println("Server stopped");
     }
   }
 
+  /**
+   * Load the languages that should be ready for the first requests, see {@link HTTPServerConfig#getPreloadLanguages()}.
+   * Call this once the server has been set up. If preloading fails, the server is stopped.
+   * @since 2.5
+   */
+  protected void warmUp(HTTPServerConfig config) {
+    try {
+      httpHandler.warmUp(config.getPreloadLanguages());
+    } catch (Exception e) {
+      stop();
+      throw new RuntimeException("Could not preload languages " + config.getPreloadLanguages() + ": " + e.getMessage(), e);
+    }
+  }
+
   /**
    * @return whether the server is running
    * @since 2.0
@@ -81,6 +114,54 @@ abstract class Server {
     return isRunning;
   }
 
+  protected RequestLimiter getRequestLimiterOrNull(HTTPServerConfig config) {
+    final int requestLimit = config.getRequestLimit();
+    final int requestLimitPeriodInSeconds = config.getRequestLimitPeriodInSeconds();
+    if (requestLimit > 0 || requestLimitPeriodInSeconds > 0) {
+      return new RequestLimiter(requestLimit, requestLimitPeriodInSeconds);
+    }
+    return null;
+  }
+
+  /**
+   * @since 2.5
+   */
+  protected ResponseCache getResponseCacheOrNull(HTTPServerConfig config) {
+    if (config.getCacheSize() > 0) {
+      return new ResponseCache(config.getCacheSize(), config.getCacheTimeToLiveSeconds() * 1000L);
+    }
+    return null;
+  }
+
+  /**
+   * Needs {@link #httpHandler} to be set, as it releases the handler's checker instances.
+   * @since 2.5
+   */
+  protected LanguageResourceManager getResourceManagerOrNull(HTTPServerConfig config) {
+    if (config.getMaxLanguageIdleSeconds() > 0 || config.getHeapBudgetMb() > 0) {
+      return new LanguageResourceManager(config.getMaxLanguageIdleSeconds() * 1000L, config.getHeapBudgetMb() * 1024L * 1024L,
+          new LanguageResourceManager.Releaser() {
+            @Override
+            public long release(String languageCode) {
+              return httpHandler.releaseLanguage(languageCode);
+            }
+            @Override
+            public long getSize(String languageCode) {
+              return LanguageResources.getSize(languageCode);
+            }
+          });
+    }
+    return null;
+  }
+
+  /**
+   * Reloading rules is an admin task, so it's only allowed from the local computer if any host may connect.
+   * @since 2.5
+   */
+  protected RuleReloadHttpHandler getRuleReloadHandler(Set<String> allowedIps) {
+    return new RuleReloadHttpHandler(httpHandler, allowedIps != null ? allowedIps : DEFAULT_ALLOWED_IPS);
+  }
+
   protected static boolean usageRequested(String[] args) {
     return args.length == 1 && (args[0].equals("-h") || args[0].equals("--help"));
   }
@@ -92,6 +173,25 @@ abstract class Server {
     System.out.println("  --allow-origin ORIGIN  set the Access-Control-Allow-Origin header in the HTTP response,");
     System.out.println("                         used for direct (non-proxy) JavaScript-based access from browsers;");
     System.out.println("                         example: --allow-origin \"*\"");
+    System.out.println("  --max-queue-size SIZE  maximum number of requests waiting to be processed, further requests");
+    System.out.println("                         are answered with an error (503); default: " + HTTPServerConfig.DEFAULT_MAX_QUEUE_SIZE);
+    System.out.println("  --max-check-time MS    maximum time in milliseconds a request may take; default: no limit");
+    System.out.println("  --request-limit NUM    maximum number of requests per IP address in the period set with");
+    System.out.println("                         --request-limit-period (in seconds); default: no limit");
+    System.out.println("  --cache-size NUM       number of check results to cache for answering identical requests");
+    System.out.println("                         without checking again; default: 0 (no caching)");
+    System.out.println("  --cache-ttl SECONDS    time for which check results are cached; default: " + HTTPServerConfig.DEFAULT_CACHE_TTL_SECONDS);
+    System.out.println("  --check-threads NUM    number of threads checking texts; default: number of CPU cores");
+    System.out.println("  --io-threads NUM       number of threads reading requests and sending responses;");
+    System.out.println("                         default: " + HTTPServerConfig.getDefaultIoThreads());
+    System.out.println("  --bulk-threshold CHARS texts with at least this many characters are checked with lower priority,");
+    System.out.println("                         unless the request sets 'priority=interactive'; default: " + HTTPServerConfig.DEFAULT_BULK_THRESHOLD);
+    System.out.println("  --preload LANGS        comma-separated language codes, e.g. 'en,de,fr', whose rules and dictionaries");
+    System.out.println("                         are loaded before the server starts, so first requests are fast");
+    System.out.println("  --max-language-idle SECONDS  release the rules, dictionaries, and models of languages not used");
+    System.out.println("                         for this time, they're loaded again on next use; default: 0 (keep them)");
+    System.out.println("  --heap-budget MB       release the least recently used languages when the heap used after");
+    System.out.println("                         garbage collection exceeds this; default: 0 (no limit)");
   }
 
 }
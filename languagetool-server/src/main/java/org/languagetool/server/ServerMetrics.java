@@ -0,0 +1,306 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.Language;
+import org.languagetool.synthesis.CachingSynthesizer;
+import org.languagetool.tools.ConcurrentLruCache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics about the requests handled by the server, shown at {@code /metrics}.
+ * Only atomic counters are updated when requests are handled, so collecting
+ * the statistics doesn't need any locks.
+ * @since 2.5
+ */
+class ServerMetrics {
+
+  /** Upper bounds of the latency histogram buckets, in milliseconds. Slower requests go into an extra bucket. */
+  static final long[] LATENCY_BUCKETS_MILLIS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+  interface CacheStatistics {
+    long getHitCount();
+    long getMissCount();
+  }
+
+  private final long startTime = System.currentTimeMillis();
+  private final AtomicInteger inFlightRequests = new AtomicInteger();
+  private final AtomicLong totalRequests = new AtomicLong();
+  private final AtomicLong rejectedRequests = new AtomicLong();
+  private final AtomicLong failedRequests = new AtomicLong();
+  private final ConcurrentMap<String, LanguageMetrics> languageMetrics = new ConcurrentHashMap<>();
+  // sorted for a stable output:
+  private final Map<String, CacheStatistics> caches = new ConcurrentSkipListMap<>();
+
+  private volatile ThreadPoolExecutor executor;
+  private volatile CheckScheduler checkScheduler;
+  private volatile LanguageResourceManager resourceManager;
+
+  /**
+   * @param executor the executor that runs the requests, used to report the queue size
+   */
+  void setExecutor(ThreadPoolExecutor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * @param checkScheduler the scheduler that checks the texts, used to report the number of waiting checks
+   */
+  void setCheckScheduler(CheckScheduler checkScheduler) {
+    this.checkScheduler = checkScheduler;
+  }
+
+  /**
+   * @param resourceManager the manager that releases unused languages, used to report their memory use
+   */
+  void setResourceManager(LanguageResourceManager resourceManager) {
+    this.resourceManager = resourceManager;
+  }
+
+  void addCache(String name, CacheStatistics cache) {
+    caches.put(name, cache);
+  }
+
+  void addCache(String name, final ConcurrentLruCache<?, ?> cache) {
+    addCache(name, new CacheStatistics() {
+      @Override
+      public long getHitCount() {
+        return cache.getHitCount();
+      }
+      @Override
+      public long getMissCount() {
+        return cache.getMissCount();
+      }
+    });
+  }
+
+  /**
+   * Add the cache of a synthesizer. It's looked up for every report, as the synthesizer
+   * replaces its cache when the cache size is changed.
+   */
+  void addCache(String name, final CachingSynthesizer synthesizer) {
+    addCache(name, new CacheStatistics() {
+      @Override
+      public long getHitCount() {
+        final ConcurrentLruCache<?, ?> cache = synthesizer.getCache();
+        return cache != null ? cache.getHitCount() : 0;
+      }
+      @Override
+      public long getMissCount() {
+        final ConcurrentLruCache<?, ?> cache = synthesizer.getCache();
+        return cache != null ? cache.getMissCount() : 0;
+      }
+    });
+  }
+
+  void requestStarted() {
+    totalRequests.incrementAndGet();
+    inFlightRequests.incrementAndGet();
+  }
+
+  void requestFinished() {
+    inFlightRequests.decrementAndGet();
+  }
+
+  /**
+   * A request that was refused, e.g. because of the request limit.
+   */
+  void requestRejected() {
+    rejectedRequests.incrementAndGet();
+  }
+
+  void requestFailed() {
+    failedRequests.incrementAndGet();
+  }
+
+  /**
+   * @param language the language of the checked text
+   * @param charCount the length of the checked text
+   * @param millis the total time it took to handle the request
+   * @param analysisNanos the time spent on analyzing the text
+   * @param matchingNanos the time spent on matching the rules
+   */
+  void checkDone(Language language, int charCount, long millis, long analysisNanos, long matchingNanos) {
+    getLanguageMetrics(language.getShortNameWithCountryAndVariant()).add(charCount, millis, analysisNanos, matchingNanos);
+  }
+
+  /**
+   * Like {@link #checkDone(Language, int, long, long, long)}, for a request whose result was taken from the response cache.
+   * @param language the language of the text
+   * @param charCount the length of the text
+   * @param millis the total time it took to handle the request
+   */
+  void cachedCheckDone(Language language, int charCount, long millis) {
+    final LanguageMetrics metrics = getLanguageMetrics(language.getShortNameWithCountryAndVariant());
+    metrics.add(charCount, millis, 0, 0);
+    metrics.cachedRequests.incrementAndGet();
+  }
+
+  int getInFlightRequests() {
+    return inFlightRequests.get();
+  }
+
+  long getTotalRequests() {
+    return totalRequests.get();
+  }
+
+  long getRejectedRequests() {
+    return rejectedRequests.get();
+  }
+
+  long getFailedRequests() {
+    return failedRequests.get();
+  }
+
+  /**
+   * The number of requests in the given latency histogram bucket, see {@link #LATENCY_BUCKETS_MILLIS}.
+   */
+  long getLatencyCount(Language language, int bucket) {
+    final LanguageMetrics metrics = languageMetrics.get(language.getShortNameWithCountryAndVariant());
+    return metrics != null ? metrics.latencyHistogram.get(bucket) : 0;
+  }
+
+  String toXML() {
+    final long uptimeMillis = Math.max(1, System.currentTimeMillis() - startTime);
+    final ThreadPoolExecutor currentExecutor = executor;
+    final CheckScheduler currentScheduler = checkScheduler;
+    final LanguageResourceManager currentResourceManager = resourceManager;
+    final StringBuilder sb = new StringBuilder("<?xml version='1.0' encoding='utf-8'?>\n");
+    sb.append("<metrics uptimeSeconds=\"").append(uptimeMillis / 1000).append("\">\n");
+    sb.append("\t<requests total=\"").append(totalRequests.get())
+      .append("\" inFlight=\"").append(inFlightRequests.get())
+      .append("\" queued=\"").append(currentExecutor != null ? currentExecutor.getQueue().size() : 0)
+      .append("\" rejected=\"").append(rejectedRequests.get())
+      .append("\" failed=\"").append(failedRequests.get()).append("\"/>\n");
+    if (currentScheduler != null) {
+      sb.append("\t<checks threads=\"").append(currentScheduler.getThreadCount())
+        .append("\" waitingInteractive=\"").append(currentScheduler.getWaitingCount(CheckScheduler.Priority.INTERACTIVE))
+        .append("\" waitingBulk=\"").append(currentScheduler.getWaitingCount(CheckScheduler.Priority.BULK)).append("\"/>\n");
+    }
+    long totalChars = 0;
+    for (LanguageMetrics metrics : languageMetrics.values()) {
+      totalChars += metrics.chars.get();
+    }
+    sb.append("\t<throughput chars=\"").append(totalChars)
+      .append("\" charsPerSecond=\"").append(totalChars * 1000 / uptimeMillis).append("\"/>\n");
+    sb.append("\t<caches>\n");
+    for (Map.Entry<String, CacheStatistics> entry : caches.entrySet()) {
+      final long hits = entry.getValue().getHitCount();
+      final long misses = entry.getValue().getMissCount();
+      sb.append("\t\t<cache name=\"").append(entry.getKey())
+        .append("\" hits=\"").append(hits)
+        .append("\" misses=\"").append(misses)
+        .append("\" hitRate=\"").append(hits + misses == 0 ? 0.0f : (float) hits / (hits + misses)).append("\"/>\n");
+    }
+    sb.append("\t</caches>\n");
+    if (currentResourceManager != null) {
+      appendResourcesXML(currentResourceManager, sb);
+    }
+    sb.append("\t<languages>\n");
+    for (Map.Entry<String, LanguageMetrics> entry : new ConcurrentSkipListMap<>(languageMetrics).entrySet()) {
+      entry.getValue().appendXML(entry.getKey(), sb);
+    }
+    sb.append("\t</languages>\n");
+    sb.append("</metrics>\n");
+    return sb.toString();
+  }
+
+  private void appendResourcesXML(LanguageResourceManager manager, StringBuilder sb) {
+    final long now = System.currentTimeMillis();
+    sb.append("\t<resources usedHeapBytes=\"").append(LanguageResourceManager.getUsedHeapBytes())
+      .append("\" heapBudgetBytes=\"").append(manager.getHeapBudgetBytes())
+      .append("\" maxIdleSeconds=\"").append(manager.getMaxIdleMillis() / 1000)
+      .append("\" releases=\"").append(manager.getReleaseCount())
+      .append("\" releasedBytes=\"").append(manager.getReleasedBytes()).append("\">\n");
+    for (Map.Entry<String, Long> entry : new ConcurrentSkipListMap<>(manager.getLastAccessTimes()).entrySet()) {
+      sb.append("\t\t<language code=\"").append(entry.getKey())
+        .append("\" idleSeconds=\"").append(Math.max(0, now - entry.getValue()) / 1000)
+        .append("\" estimatedBytes=\"").append(manager.getEstimatedSize(entry.getKey())).append("\"/>\n");
+    }
+    sb.append("\t</resources>\n");
+  }
+
+  private LanguageMetrics getLanguageMetrics(String langCode) {
+    LanguageMetrics metrics = languageMetrics.get(langCode);
+    if (metrics == null) {
+      final LanguageMetrics newMetrics = new LanguageMetrics();
+      metrics = languageMetrics.putIfAbsent(langCode, newMetrics);
+      if (metrics == null) {
+        metrics = newMetrics;
+      }
+    }
+    return metrics;
+  }
+
+  private static class LanguageMetrics {
+
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS_MILLIS.length + 1);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong cachedRequests = new AtomicLong();
+    private final AtomicLong chars = new AtomicLong();
+    private final AtomicLong millis = new AtomicLong();
+    private final AtomicLong analysisNanos = new AtomicLong();
+    private final AtomicLong matchingNanos = new AtomicLong();
+
+    private void add(int charCount, long requestMillis, long requestAnalysisNanos, long requestMatchingNanos) {
+      latencyHistogram.incrementAndGet(getBucket(requestMillis));
+      requests.incrementAndGet();
+      chars.addAndGet(charCount);
+      millis.addAndGet(requestMillis);
+      analysisNanos.addAndGet(requestAnalysisNanos);
+      matchingNanos.addAndGet(requestMatchingNanos);
+    }
+
+    private static int getBucket(long requestMillis) {
+      for (int i = 0; i < LATENCY_BUCKETS_MILLIS.length; i++) {
+        if (requestMillis <= LATENCY_BUCKETS_MILLIS[i]) {
+          return i;
+        }
+      }
+      return LATENCY_BUCKETS_MILLIS.length;
+    }
+
+    private void appendXML(String langCode, StringBuilder sb) {
+      final long totalMillis = millis.get();
+      sb.append("\t\t<language code=\"").append(langCode)
+        .append("\" requests=\"").append(requests.get())
+        .append("\" chars=\"").append(chars.get())
+        .append("\" charsPerSecond=\"").append(chars.get() * 1000 / Math.max(1, totalMillis))
+        .append("\" totalMillis=\"").append(totalMillis)
+        .append("\" analysisMillis=\"").append(analysisNanos.get() / 1_000_000)
+        .append("\" matchingMillis=\"").append(matchingNanos.get() / 1_000_000)
+        .append("\" cachedRequests=\"").append(cachedRequests.get()).append("\">\n");
+      for (int i = 0; i <= LATENCY_BUCKETS_MILLIS.length; i++) {
+        final String maxMillis = i < LATENCY_BUCKETS_MILLIS.length ? Long.toString(LATENCY_BUCKETS_MILLIS[i]) : "inf";
+        sb.append("\t\t\t<latency maxMillis=\"").append(maxMillis)
+          .append("\" count=\"").append(latencyHistogram.get(i)).append("\"/>\n");
+      }
+      sb.append("\t\t</language>\n");
+    }
+  }
+
+}
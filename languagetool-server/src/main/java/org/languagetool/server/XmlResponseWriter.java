@@ -0,0 +1,181 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2006 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.rules.Category;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.patterns.PatternRule;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes matches in the XML format of {@link org.languagetool.tools.StringTools#ruleMatchesToXML},
+ * character by character identical to it.
+ * @since 2.5
+ */
+class XmlResponseWriter extends ResponseWriter {
+
+  XmlResponseWriter(Writer writer) {
+    super(writer);
+  }
+
+  @Override
+  void writeMatches(List<RuleMatch> matches, String text, Language lang, Language motherTongue) throws IOException {
+    //
+    // IMPORTANT: people rely on this format, don't change it!
+    //
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    writeStartElement("matches");
+    writeMatchElements(matches, text, lang, motherTongue);
+    writer.write("</matches>\n");
+  }
+
+  @Override
+  void startBatch() throws IOException {
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    writeStartElement("batch");
+  }
+
+  @Override
+  void writeBatchItem(int index, List<RuleMatch> matches, String text, Language lang, Language motherTongue) throws IOException {
+    writer.write("<matches index=\"");
+    writer.write(Integer.toString(index));
+    writer.write("\">\n");
+    writeMatchElements(matches, text, lang, motherTongue);
+    writer.write("</matches>\n");
+  }
+
+  @Override
+  void endBatch() throws IOException {
+    writer.write("</batch>\n");
+  }
+
+  private void writeStartElement(String name) throws IOException {
+    writer.write("<");
+    writer.write(name);
+    writer.write(" software=\"LanguageTool\" version=\"");
+    writer.write(JLanguageTool.VERSION);
+    writer.write("\" buildDate=\"");
+    writer.write(String.valueOf(JLanguageTool.BUILD_DATE));
+    writer.write("\">\n");
+  }
+
+  private void writeMatchElements(List<RuleMatch> matches, String text, Language lang, Language motherTongue) throws IOException {
+    if (lang != null || motherTongue != null) {
+      writer.write("<language ");
+      if (lang != null) {
+        writer.write("shortname=\"" + lang.getShortNameWithCountryAndVariant() + "\" name=\"" + lang.getName() + "\"");
+      }
+      if (motherTongue != null && (lang == null || !motherTongue.getShortName().equals(lang.getShortNameWithCountryAndVariant()))) {
+        writer.write(" mothertongueshortname=\"" + motherTongue.getShortName() + "\" mothertonguename=\"" + motherTongue.getName() + "\"");
+      }
+      writer.write("/>\n");
+    }
+    for (RuleMatch match : matches) {
+      writeError(match, text);
+    }
+  }
+
+  private void writeError(RuleMatch match, String text) throws IOException {
+    writer.write("<error fromy=\"");
+    writer.write(Integer.toString(match.getLine()));
+    writer.write("\" fromx=\"");
+    writer.write(Integer.toString(match.getColumn() - 1));
+    writer.write("\" toy=\"");
+    writer.write(Integer.toString(match.getEndLine()));
+    writer.write("\" tox=\"");
+    writer.write(Integer.toString(match.getEndColumn() - 1));
+    writer.write("\" ruleId=\"");
+    writer.write(match.getRule().getId());
+    writer.write("\"");
+    if (match.getRule() instanceof PatternRule) {
+      final String subId = ((PatternRule) match.getRule()).getSubId();
+      if (subId != null) {
+        writer.write(" subId=\"");
+        writeEscaped(subId);
+        writer.write("\" ");
+      }
+    }
+    writer.write(" msg=\"");
+    writeMessage(match.getMessage());
+    writer.write("\" replacements=\"");
+    final List<String> replacements = match.getSuggestedReplacements();
+    for (int i = 0; i < replacements.size(); i++) {
+      if (i > 0) {
+        writer.write('#');
+      }
+      writeEscaped(replacements.get(i));
+    }
+    writer.write("\" context=\"");
+    final int contextOffset = writeContext(match, text);
+    writer.write("\" contextoffset=\"");
+    writer.write(Integer.toString(contextOffset));
+    writer.write("\" offset=\"");
+    writer.write(Integer.toString(match.getFromPos()));
+    writer.write("\" errorlength=\"");
+    writer.write(Integer.toString(match.getToPos() - match.getFromPos()));
+    writer.write("\"");
+    if (match.getRule().getUrl() != null) {
+      writeAttribute("url", match.getRule().getUrl().toString());
+    }
+    final Category category = match.getRule().getCategory();
+    if (category != null) {
+      writeAttribute("category", category.getName());
+    }
+    final String type = match.getRule().getLocQualityIssueType();
+    if (type != null) {
+      writeAttribute("locqualityissuetype", type);
+    }
+    writer.write("/>\n");
+  }
+
+  private void writeAttribute(String name, String value) throws IOException {
+    writer.write(' ');
+    writer.write(name);
+    writer.write("=\"");
+    writeEscaped(value);
+    writer.write('"');
+  }
+
+  @Override
+  protected void writeEscaped(String s, int start, int end) throws IOException {
+    int unwritten = start;
+    for (int i = start; i < end; i++) {
+      final String replacement;
+      switch (s.charAt(i)) {
+        case '<': replacement = "&lt;"; break;
+        case '>': replacement = "&gt;"; break;
+        case '&': replacement = "&amp;"; break;
+        case '"': replacement = "&quot;"; break;
+        case '\n':
+        case '\r': replacement = " "; break;
+        default: continue;
+      }
+      writer.write(s, unwritten, i - unwritten);
+      writer.write(replacement);
+      unwritten = i + 1;
+    }
+    writer.write(s, unwritten, end - unwritten);
+  }
+
+}
@@ -0,0 +1,199 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.CancellationToken;
+import org.languagetool.CheckCancelledException;
+import org.languagetool.CheckTimeoutException;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchCheckerTest {
+
+  @Test
+  public void testResultsInOrder() throws Exception {
+    final LanguageToolPool pool = createPool();
+    final LanguageToolPool.Key key = new LanguageToolPool.Key(Language.DEMO, null);
+    final List<BatchChecker.Item> items = new ArrayList<>();
+    final List<Integer> expectedMatchCounts = new ArrayList<>();
+    final JLanguageTool lt = new JLanguageTool(Language.DEMO);
+    lt.activateDefaultPatternRules();
+    for (int i = 0; i < 40; i++) {
+      final String text = i % 3 == 0 ? "This is a a test number " + i + "." : "Number " + i;
+      items.add(new BatchChecker.Item(text, key));
+      expectedMatchCounts.add(lt.check(text).size());
+    }
+    final CheckScheduler scheduler = new CheckScheduler(4, 1000, 2);
+    try {
+      final List<List<RuleMatch>> result = check(new BatchChecker(pool, scheduler, new ServerMetrics()), items, new CancellationToken(), CheckScheduler.Priority.BULK);
+      assertEquals(items.size(), result.size());
+      for (int i = 0; i < items.size(); i++) {
+        assertEquals("Item " + i, (int) expectedMatchCounts.get(i), result.get(i).size());
+      }
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInstancesReturnedBeforeDone() throws Exception {
+    final AtomicInteger createdCount = new AtomicInteger();
+    final LanguageToolPool pool = new LanguageToolPool(new LanguageToolPool.InstanceFactory() {
+      @Override
+      public JLanguageTool create(LanguageToolPool.Key key) throws Exception {
+        createdCount.incrementAndGet();
+        return new JLanguageTool(key.getLanguage());
+      }
+    }, 4, 20, 60_000);
+    final LanguageToolPool.Key key = new LanguageToolPool.Key(Language.DEMO, null);
+    final List<BatchChecker.Item> items = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      items.add(new BatchChecker.Item("This is test number " + i + ".", key));
+    }
+    final CheckScheduler scheduler = new CheckScheduler(4, 1000, 2);
+    try {
+      final BatchChecker checker = new BatchChecker(pool, scheduler, new ServerMetrics());
+      for (int i = 0; i < 50; i++) {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicInteger idleCountWhenDone = new AtomicInteger(-1);
+        checker.check(items, new CancellationToken(), CheckScheduler.Priority.INTERACTIVE, new BatchChecker.Callback() {
+          @Override
+          public void done(List<List<RuleMatch>> matches, Exception exception) {
+            idleCountWhenDone.set(pool.getIdleCount());
+            done.countDown();
+          }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        // every thread that checked a text has given back its instance:
+        assertEquals("Run " + i, createdCount.get(), idleCountWhenDone.get());
+      }
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCancelled() throws Exception {
+    final LanguageToolPool.Key key = new LanguageToolPool.Key(Language.DEMO, null);
+    final List<BatchChecker.Item> items = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      items.add(new BatchChecker.Item("This is a a test number " + i + ".", key));
+    }
+    final CancellationToken token = new CancellationToken();
+    token.cancel("Client gone");
+    final CheckScheduler scheduler = new CheckScheduler(4, 1000, 2);
+    try {
+      check(new BatchChecker(createPool(), scheduler, new ServerMetrics()), items, token, CheckScheduler.Priority.INTERACTIVE);
+      fail();
+    } catch (CheckCancelledException expected) {
+      assertEquals("Client gone", expected.getMessage());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testOtherChecksCountAgainstTimeLimit() throws Exception {
+    final LanguageToolPool.Key key = new LanguageToolPool.Key(Language.DEMO, null);
+    final StringBuilder text = new StringBuilder();
+    while (text.length() < 3 * CheckScheduler.CHUNK_SIZE) {
+      text.append("This is a test. ");
+    }
+    final List<BatchChecker.Item> items = new ArrayList<>();
+    items.add(new BatchChecker.Item(text.toString(), key));
+    final CheckScheduler scheduler = new CheckScheduler(1, 1000, 2);
+    final CountDownLatch blocker = new CountDownLatch(1);
+    try {
+      // keep the scheduler's only thread busy, so the batch's thread runs the interactive check:
+      final CountDownLatch blocked = new CountDownLatch(1);
+      scheduler.execute(CheckScheduler.Priority.BULK, new Runnable() {
+        @Override
+        public void run() {
+          blocked.countDown();
+          try {
+            blocker.await();
+          } catch (InterruptedException ignored) {}
+        }
+      });
+      assertTrue(blocked.await(5, TimeUnit.SECONDS));
+      scheduler.execute(CheckScheduler.Priority.INTERACTIVE, new Runnable() {
+        @Override
+        public void run() {
+          try {
+            Thread.sleep(400);
+          } catch (InterruptedException ignored) {}
+        }
+      });
+      check(new BatchChecker(createPool(), scheduler, new ServerMetrics()), items, new CancellationToken(200), CheckScheduler.Priority.BULK);
+      fail();
+    } catch (CheckTimeoutException expected) {
+      // the batch's time limit isn't extended by the time spent on the interactive check
+    } finally {
+      blocker.countDown();
+      scheduler.shutdownNow();
+    }
+  }
+
+  private List<List<RuleMatch>> check(BatchChecker checker, List<BatchChecker.Item> items, CancellationToken token,
+                                      CheckScheduler.Priority priority) throws Exception {
+    final CountDownLatch done = new CountDownLatch(1);
+    final List<List<RuleMatch>> result = new ArrayList<>();
+    final List<Exception> exceptions = new ArrayList<>();
+    checker.check(items, token, priority, new BatchChecker.Callback() {
+      @Override
+      public void done(List<List<RuleMatch>> matches, Exception exception) {
+        if (exception != null) {
+          exceptions.add(exception);
+        } else {
+          result.addAll(matches);
+        }
+        done.countDown();
+      }
+    });
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    if (!exceptions.isEmpty()) {
+      throw exceptions.get(0);
+    }
+    return result;
+  }
+
+  private LanguageToolPool createPool() {
+    return new LanguageToolPool(new LanguageToolPool.InstanceFactory() {
+      @Override
+      public JLanguageTool create(LanguageToolPool.Key key) throws Exception {
+        final JLanguageTool lt = new JLanguageTool(key.getLanguage());
+        lt.activateDefaultPatternRules();
+        return lt;
+      }
+    }, 4, 20, 60_000);
+  }
+
+}
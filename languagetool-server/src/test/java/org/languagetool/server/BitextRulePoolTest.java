@@ -0,0 +1,77 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.rules.bitext.BitextRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BitextRulePoolTest {
+
+  @Test
+  public void testCheckOutAndCheckIn() throws Exception {
+    final CountingLoader loader = new CountingLoader();
+    final BitextRulePool pool = new BitextRulePool(loader, 1);
+    final BitextRulePool.Rules rules1 = pool.checkOut(Language.DEMO, Language.DEMO);
+    final BitextRulePool.Rules rules2 = pool.checkOut(Language.DEMO, Language.DEMO);
+    assertNotSame(rules1.getRules(), rules2.getRules());
+    assertEquals(2, loader.count.get());
+    pool.checkIn(rules1);
+    pool.checkIn(rules2);  // more than maxIdlePerPair, will be dropped
+    assertEquals(1, pool.getIdleCount());
+    assertSame(rules1, pool.checkOut(Language.DEMO, Language.DEMO));
+    assertEquals(2, loader.count.get());
+    assertEquals(1, pool.getHitCount());
+    assertEquals(2, pool.getMissCount());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    final CountingLoader loader = new CountingLoader();
+    final BitextRulePool pool = new BitextRulePool(loader, 2);
+    final BitextRulePool.Rules rules1 = pool.checkOut(Language.DEMO, Language.DEMO);
+    final BitextRulePool.Rules rules2 = pool.checkOut(Language.DEMO, Language.DEMO);
+    pool.checkIn(rules1);
+    pool.invalidate("fr");
+    assertEquals(1, pool.getIdleCount());
+    pool.invalidate(Language.DEMO.getShortName());
+    assertEquals(0, pool.getIdleCount());
+    pool.checkIn(rules2);  // loaded before the invalidation, so it's dropped
+    assertEquals(0, pool.getIdleCount());
+    pool.checkIn(pool.checkOut(Language.DEMO, Language.DEMO));
+    assertEquals(1, pool.getIdleCount());
+    assertEquals(3, loader.count.get());
+  }
+
+  private static class CountingLoader implements BitextRulePool.RuleLoader {
+    private final AtomicInteger count = new AtomicInteger();
+    @Override
+    public List<BitextRule> load(Language source, Language target) {
+      count.incrementAndGet();
+      return new ArrayList<>();
+    }
+  }
+
+}
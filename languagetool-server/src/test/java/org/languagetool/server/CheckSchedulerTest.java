@@ -0,0 +1,178 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.CancellationToken;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.languagetool.server.CheckScheduler.Priority.BULK;
+import static org.languagetool.server.CheckScheduler.Priority.INTERACTIVE;
+
+public class CheckSchedulerTest {
+
+  @Test
+  public void testGetPriority() {
+    final CheckScheduler scheduler = new CheckScheduler(1, 1000, 2);
+    try {
+      assertEquals(INTERACTIVE, scheduler.getPriority(null, 999));
+      assertEquals(BULK, scheduler.getPriority(null, 1000));
+      assertEquals(INTERACTIVE, scheduler.getPriority("interactive", 50000));
+      assertEquals(BULK, scheduler.getPriority("bulk", 10));
+      try {
+        scheduler.getPriority("urgent", 10);
+        fail();
+      } catch (IllegalArgumentException expected) {}
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWeightedOrder() throws Exception {
+    final CheckScheduler scheduler = new CheckScheduler(1, 1000, 2);
+    try {
+      final CountDownLatch blocker = block(scheduler);
+      final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+      final CountDownLatch done = new CountDownLatch(6);
+      scheduler.execute(BULK, new NamedTask("B1", order, done));
+      scheduler.execute(BULK, new NamedTask("B2", order, done));
+      scheduler.execute(INTERACTIVE, new NamedTask("I1", order, done));
+      scheduler.execute(INTERACTIVE, new NamedTask("I2", order, done));
+      scheduler.execute(INTERACTIVE, new NamedTask("I3", order, done));
+      scheduler.execute(INTERACTIVE, new NamedTask("I4", order, done));
+      blocker.countDown();
+      assertTrue(done.await(5, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList("I1", "I2", "B1", "I3", "I4", "B2"), order);
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testChunkListener() throws Exception {
+    final CheckScheduler scheduler = new CheckScheduler(1, 1000, 2);
+    try {
+      assertNull(scheduler.getChunkListener(INTERACTIVE, new CancellationToken()));
+      final CountDownLatch blocker = block(scheduler);
+      final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+      final CountDownLatch done = new CountDownLatch(4);
+      scheduler.execute(BULK, new NamedTask("B1", order, done));
+      scheduler.execute(INTERACTIVE, new NamedTask("I1", order, done));
+      scheduler.execute(INTERACTIVE, new NamedTask("I2", order, done));
+      scheduler.execute(INTERACTIVE, new NamedTask("I3", order, done));
+      // a bulk check runs up to interactiveWeight interactive checks between its chunks:
+      scheduler.getChunkListener(BULK, new CancellationToken()).chunkDone();
+      assertEquals(Arrays.asList("I1", "I2"), order);
+      assertEquals(1, scheduler.getWaitingCount(INTERACTIVE));
+      assertEquals(1, scheduler.getWaitingCount(BULK));
+      blocker.countDown();
+      assertTrue(done.await(5, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList("I1", "I2", "I3", "B1"), order);
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testChunkListenerExtendsTimeout() throws Exception {
+    final CheckScheduler scheduler = new CheckScheduler(1, 1000, 2);
+    try {
+      final CountDownLatch blocker = block(scheduler);
+      scheduler.execute(INTERACTIVE, new Runnable() {
+        @Override
+        public void run() {
+          try {
+            Thread.sleep(300);
+          } catch (InterruptedException ignored) {}
+        }
+      });
+      final CancellationToken token = new CancellationToken(200);
+      scheduler.getChunkListener(BULK, token).chunkDone();
+      // the interactive check took longer than the bulk check's time limit:
+      assertFalse(token.isCancelled());
+      blocker.countDown();
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testShutdown() throws Exception {
+    final CheckScheduler scheduler = new CheckScheduler(1, 1000, 2);
+    block(scheduler);
+    final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+    final NamedTask waitingTask = new NamedTask("B1", order, new CountDownLatch(1));
+    scheduler.execute(BULK, waitingTask);
+    assertEquals(Arrays.<Runnable>asList(waitingTask), scheduler.shutdownNow());
+    try {
+      scheduler.execute(INTERACTIVE, waitingTask);
+      fail();
+    } catch (RejectedExecutionException expected) {}
+    assertTrue(order.isEmpty());
+  }
+
+  /**
+   * Keep the scheduler's only thread busy until the returned latch is counted down.
+   */
+  private CountDownLatch block(CheckScheduler scheduler) throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch blocker = new CountDownLatch(1);
+    scheduler.execute(INTERACTIVE, new Runnable() {
+      @Override
+      public void run() {
+        started.countDown();
+        try {
+          blocker.await();
+        } catch (InterruptedException ignored) {}
+      }
+    });
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    return blocker;
+  }
+
+  private static class NamedTask implements Runnable {
+    private final String name;
+    private final List<String> order;
+    private final CountDownLatch done;
+    private NamedTask(String name, List<String> order, CountDownLatch done) {
+      this.name = name;
+      this.order = order;
+      this.done = done;
+    }
+    @Override
+    public void run() {
+      order.add(name);
+      done.countDown();
+    }
+  }
+
+}
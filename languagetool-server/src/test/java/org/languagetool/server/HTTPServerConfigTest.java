@@ -19,6 +19,9 @@
 package org.languagetool.server;
 
 import org.junit.Test;
+import org.languagetool.Language;
+
+import java.util.Arrays;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
@@ -46,6 +49,42 @@ public class HTTPServerConfigTest {
     assertThat(config4.getPort(), is(80));
     assertThat(config4.isPublicAccess(), is(true));
     assertThat(config4.isVerbose(), is(false));
+
+    final HTTPServerConfig config5 = new HTTPServerConfig("--max-queue-size 5 --max-check-time 2000".split(" "));
+    assertThat(config5.getMaxQueueSize(), is(5));
+    assertThat(config5.getMaxCheckTimeMillis(), is(2000L));
+    assertThat(config1.getMaxQueueSize(), is(HTTPServerConfig.DEFAULT_MAX_QUEUE_SIZE));
+    assertThat(config1.getMaxCheckTimeMillis(), is(0L));
+
+    final HTTPServerConfig config6 = new HTTPServerConfig("--request-limit 20 --request-limit-period 60".split(" "));
+    assertThat(config6.getRequestLimit(), is(20));
+    assertThat(config6.getRequestLimitPeriodInSeconds(), is(60));
+
+    final HTTPServerConfig config7 = new HTTPServerConfig("--cache-size 500 --cache-ttl 60".split(" "));
+    assertThat(config7.getCacheSize(), is(500));
+    assertThat(config7.getCacheTimeToLiveSeconds(), is(60));
+    assertThat(config1.getCacheSize(), is(0));
+    assertThat(config1.getCacheTimeToLiveSeconds(), is(HTTPServerConfig.DEFAULT_CACHE_TTL_SECONDS));
+
+    final HTTPServerConfig config8 = new HTTPServerConfig("--bulk-threshold 20000".split(" "));
+    assertThat(config8.getBulkThreshold(), is(20000));
+    assertThat(config1.getBulkThreshold(), is(HTTPServerConfig.DEFAULT_BULK_THRESHOLD));
+
+    final HTTPServerConfig config9 = new HTTPServerConfig("--check-threads 64 --io-threads 8".split(" "));
+    assertThat(config9.getCheckThreads(), is(64));
+    assertThat(config9.getIoThreads(), is(8));
+    assertThat(config1.getCheckThreads(), is(Runtime.getRuntime().availableProcessors()));
+    assertThat(config1.getIoThreads(), is(HTTPServerConfig.getDefaultIoThreads()));
+
+    final HTTPServerConfig config10 = new HTTPServerConfig("--preload xx,".split(" "));
+    assertThat(config10.getPreloadLanguages(), is(Arrays.asList(Language.DEMO)));
+    assertThat(config1.getPreloadLanguages().size(), is(0));
+
+    final HTTPServerConfig config11 = new HTTPServerConfig("--max-language-idle 600 --heap-budget 2048".split(" "));
+    assertThat(config11.getMaxLanguageIdleSeconds(), is(600));
+    assertThat(config11.getHeapBudgetMb(), is(2048));
+    assertThat(config1.getMaxLanguageIdleSeconds(), is(0));
+    assertThat(config1.getHeapBudgetMb(), is(0));
   }
 
 }
@@ -0,0 +1,83 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.Language;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LanguageResourceManagerTest {
+
+  private static final long MB = 1024 * 1024;
+
+  @Test
+  public void testIdleLanguagesAreReleased() throws Exception {
+    final RecordingReleaser releaser = new RecordingReleaser();
+    final LanguageResourceManager manager = new LanguageResourceManager(60_000, 0, releaser);
+    manager.languageUsed(Language.DEMO);
+    final long now = System.currentTimeMillis();
+    assertEquals(Collections.<String>emptyList(), manager.releaseUnusedLanguages(now, 0));
+    assertEquals(Arrays.asList("xx"), manager.releaseUnusedLanguages(now + 60_000, 0));
+    assertEquals(Arrays.asList("xx"), releaser.released);
+    assertTrue(manager.getLastAccessTimes().isEmpty());
+    // not released again until it's used again:
+    assertEquals(Collections.<String>emptyList(), manager.releaseUnusedLanguages(now + 120_000, 0));
+    assertEquals(1, manager.getReleaseCount());
+    assertEquals(10 * MB, manager.getReleasedBytes());
+  }
+
+  @Test
+  public void testHeapBudget() throws Exception {
+    final RecordingReleaser releaser = new RecordingReleaser();
+    final LanguageResourceManager manager = new LanguageResourceManager(0, 100 * MB, releaser);
+    final long now = System.currentTimeMillis();
+    manager.languageUsed(Language.DEMO);
+    // no idle time limit:
+    assertEquals(Collections.<String>emptyList(), manager.releaseUnusedLanguages(now + 3_600_000, 90 * MB));
+    // within the budget, but recently used:
+    assertEquals(Collections.<String>emptyList(), manager.releaseUnusedLanguages(now, 200 * MB));
+    assertEquals(Arrays.asList("xx"), manager.releaseUnusedLanguages(now + 3_600_000, 105 * MB));
+    assertEquals(Arrays.asList("xx"), releaser.released);
+  }
+
+  @Test
+  public void testUsedHeap() {
+    assertTrue(LanguageResourceManager.getUsedHeapBytes() > 0);
+  }
+
+  private static class RecordingReleaser implements LanguageResourceManager.Releaser {
+    private final List<String> released = new ArrayList<>();
+    @Override
+    public long release(String languageCode) {
+      released.add(languageCode);
+      return 10 * MB;
+    }
+    @Override
+    public long getSize(String languageCode) {
+      return 10 * MB;
+    }
+  }
+
+}
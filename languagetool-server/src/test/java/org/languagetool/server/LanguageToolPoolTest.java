@@ -0,0 +1,131 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LanguageToolPoolTest {
+
+  @Test
+  public void testCheckOutAndCheckIn() throws Exception {
+    final CountingFactory factory = new CountingFactory();
+    final LanguageToolPool pool = new LanguageToolPool(factory, 2, 10, 60_000);
+    final LanguageToolPool.Key key = new LanguageToolPool.Key(Language.DEMO, null);
+    final JLanguageTool lt1 = pool.checkOut(key);
+    final JLanguageTool lt2 = pool.checkOut(key);
+    final JLanguageTool lt3 = pool.checkOut(key);
+    assertEquals(3, factory.count.get());
+    pool.checkIn(key, lt1);
+    pool.checkIn(key, lt2);
+    pool.checkIn(key, lt3);  // more than maxIdlePerKey, will be dropped
+    assertEquals(2, pool.getIdleCount());
+    assertSame(lt2, pool.checkOut(key));
+    assertEquals(3, factory.count.get());
+    assertEquals(1, pool.getHitCount());
+    assertEquals(3, pool.getMissCount());
+  }
+
+  @Test
+  public void testKeys() throws Exception {
+    final CountingFactory factory = new CountingFactory();
+    final LanguageToolPool pool = new LanguageToolPool(factory, 2, 10, 60_000);
+    final LanguageToolPool.Key key1 = new LanguageToolPool.Key(Language.DEMO, null, Arrays.asList("A", "B"), Collections.<String>emptyList(), false, true);
+    final LanguageToolPool.Key key2 = new LanguageToolPool.Key(Language.DEMO, null, Arrays.asList("B", "A"), Collections.<String>emptyList(), false, true);
+    final LanguageToolPool.Key key3 = new LanguageToolPool.Key(Language.DEMO, null, Arrays.asList("A"), Collections.<String>emptyList(), false, true);
+    assertEquals(key1, key2);
+    assertFalse(key1.equals(key3));
+    pool.checkIn(key1, pool.checkOut(key1));
+    pool.checkIn(key2, pool.checkOut(key2));
+    pool.checkIn(key3, pool.checkOut(key3));
+    assertEquals(2, factory.count.get());
+  }
+
+  @Test
+  public void testMaxIdle() throws Exception {
+    final CountingFactory factory = new CountingFactory();
+    final LanguageToolPool pool = new LanguageToolPool(factory, 2, 3, 60_000);
+    final LanguageToolPool.Key key1 = new LanguageToolPool.Key(Language.DEMO, null, Arrays.asList("A"), Collections.<String>emptyList(), false, true);
+    final LanguageToolPool.Key key2 = new LanguageToolPool.Key(Language.DEMO, null, Arrays.asList("B"), Collections.<String>emptyList(), false, true);
+    final LanguageToolPool.Key key3 = new LanguageToolPool.Key(Language.DEMO, null, Arrays.asList("C"), Collections.<String>emptyList(), false, true);
+    pool.warmUp(key1, 2);
+    Thread.sleep(5);
+    pool.warmUp(key2, 1);
+    Thread.sleep(5);
+    pool.warmUp(key3, 1);  // more than maxIdle, the least recently used instance of key1 is dropped
+    assertEquals(3, pool.getIdleCount());
+    assertEquals(4, factory.count.get());
+    pool.checkOut(key1);
+    pool.checkOut(key2);
+    pool.checkOut(key3);
+    assertEquals(4, factory.count.get());
+    pool.checkOut(key1);
+    assertEquals(5, factory.count.get());
+  }
+
+  @Test
+  public void testWarmUpAndEviction() throws Exception {
+    final CountingFactory factory = new CountingFactory();
+    final LanguageToolPool pool = new LanguageToolPool(factory, 5, 10, 50);
+    final LanguageToolPool.Key key = new LanguageToolPool.Key(Language.DEMO, null);
+    pool.warmUp(key, 2);
+    assertEquals(2, factory.count.get());
+    assertEquals(2, pool.getIdleCount());
+    Thread.sleep(100);
+    pool.evictIdleInstances();
+    assertEquals(0, pool.getIdleCount());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    final CountingFactory factory = new CountingFactory();
+    final LanguageToolPool pool = new LanguageToolPool(factory, 2, 10, 60_000);
+    final LanguageToolPool.Key key = new LanguageToolPool.Key(Language.DEMO, null);
+    pool.warmUp(key, 1);
+    final JLanguageTool checkedOut = pool.checkOut(key);
+    pool.warmUp(key, 1);
+    pool.invalidate("fr");
+    assertEquals(1, pool.getIdleCount());
+    pool.invalidate(Language.DEMO.getShortName());
+    assertEquals(0, pool.getIdleCount());
+    pool.checkIn(key, checkedOut);  // created before the invalidation, so it's dropped
+    assertEquals(0, pool.getIdleCount());
+    final JLanguageTool newInstance = pool.checkOut(key);
+    assertNotSame(checkedOut, newInstance);
+    pool.checkIn(key, newInstance);
+    assertEquals(1, pool.getIdleCount());
+  }
+
+  private static class CountingFactory implements LanguageToolPool.InstanceFactory {
+    private final AtomicInteger count = new AtomicInteger();
+    @Override
+    public JLanguageTool create(LanguageToolPool.Key key) throws Exception {
+      count.incrementAndGet();
+      return new JLanguageTool(key.getLanguage());
+    }
+  }
+
+}
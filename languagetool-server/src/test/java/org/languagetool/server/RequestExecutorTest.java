@@ -0,0 +1,88 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RequestExecutorTest {
+
+  @Test
+  public void testOverload() throws Exception {
+    final RequestExecutor executor = new RequestExecutor(1, 1);
+    try {
+      final CountDownLatch blocker = new CountDownLatch(1);
+      final CountDownLatch firstStarted = new CountDownLatch(1);
+      final AtomicBoolean firstOverloaded = new AtomicBoolean(true);
+      final AtomicBoolean thirdOverloaded = new AtomicBoolean(false);
+      final CountDownLatch thirdDone = new CountDownLatch(1);
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          firstOverloaded.set(RequestExecutor.isOverloaded());
+          firstStarted.countDown();
+          try {
+            blocker.await();
+          } catch (InterruptedException ignored) {}
+        }
+      });
+      // make sure the first task has been taken from the queue:
+      assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+      executor.execute(new Runnable() {  // waits in the queue
+        @Override
+        public void run() {}
+      });
+      executor.execute(new Runnable() {  // queue is full
+        @Override
+        public void run() {
+          thirdOverloaded.set(RequestExecutor.isOverloaded());
+          thirdDone.countDown();
+        }
+      });
+      assertTrue(thirdDone.await(5, TimeUnit.SECONDS));
+      assertTrue(thirdOverloaded.get());
+      blocker.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+      assertFalse(firstOverloaded.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testAdmissionController() {
+    final AdmissionController controller = new AdmissionController(3);
+    final int largeWeight = AdmissionController.getWeight(5 * AdmissionController.CHARS_PER_WEIGHT_UNIT);
+    assertTrue(largeWeight > 3);
+    assertTrue(controller.tryAcquire(largeWeight));  // nothing else running, so it's admitted
+    assertFalse(controller.tryAcquire(1));
+    controller.release(largeWeight);
+    assertTrue(controller.tryAcquire(1));
+    assertTrue(controller.tryAcquire(2));
+    assertFalse(controller.tryAcquire(1));
+  }
+
+}
@@ -20,6 +20,11 @@ package org.languagetool.server;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -43,4 +48,42 @@ public class RequestLimiterTest {
     assertFalse(limiter.isAccessOkay(secondIp));
   }
   
+  @Test
+  public void testCleanUp() throws Exception {
+    final RequestLimiter limiter = new RequestLimiter(10, 1);
+    assertTrue(limiter.isAccessOkay("192.168.10.1"));
+    assertTrue(limiter.isAccessOkay("192.168.10.2"));
+    assertEquals(2, limiter.getTrackedAddressCount());
+    Thread.sleep(1100);
+    limiter.cleanUp();
+    assertEquals(0, limiter.getTrackedAddressCount());
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    final RequestLimiter limiter = new RequestLimiter(100, 60);
+    final AtomicInteger allowed = new AtomicInteger();
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(new Thread() {
+        @Override
+        public void run() {
+          for (int j = 0; j < 50; j++) {
+            if (limiter.isAccessOkay("192.168.10.1")) {
+              allowed.incrementAndGet();
+            }
+          }
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    // a few tokens may have been refilled while the threads were running:
+    assertTrue(allowed.get() >= 100 && allowed.get() <= 102);
+  }
+
 }
@@ -0,0 +1,99 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ResponseCacheTest {
+
+  private static final LanguageToolPool.Key DEFAULT_CONFIG = new LanguageToolPool.Key(Language.DEMO, null);
+
+  @Test
+  public void testKeys() {
+    final ResponseCache.Key key = ResponseCache.getKey("foo", null, DEFAULT_CONFIG);
+    assertEquals(key, ResponseCache.getKey("foo", null, DEFAULT_CONFIG));
+    assertEquals(key.hashCode(), ResponseCache.getKey("foo", null, DEFAULT_CONFIG).hashCode());
+    assertNotEquals(key, ResponseCache.getKey("foo ", null, DEFAULT_CONFIG));
+    assertNotEquals(key, ResponseCache.getKey("foo", "", DEFAULT_CONFIG));
+    assertNotEquals(key, ResponseCache.getKey("foo", null, new LanguageToolPool.Key(Language.DEMO, Language.DEMO)));
+    final List<String> rules = Arrays.asList("RULE1", "RULE2");
+    final List<String> noRules = Collections.emptyList();
+    final ResponseCache.Key enabledKey = ResponseCache.getKey("foo", null,
+            new LanguageToolPool.Key(Language.DEMO, null, rules, noRules, false, true));
+    assertNotEquals(key, enabledKey);
+    assertNotEquals(enabledKey, ResponseCache.getKey("foo", null,
+            new LanguageToolPool.Key(Language.DEMO, null, noRules, rules, false, true)));
+    assertNotEquals(enabledKey, ResponseCache.getKey("foo", null,
+            new LanguageToolPool.Key(Language.DEMO, null, rules, noRules, true, true)));
+    // the order of rules doesn't matter:
+    assertEquals(enabledKey, ResponseCache.getKey("foo", null,
+            new LanguageToolPool.Key(Language.DEMO, null, Arrays.asList("RULE2", "RULE1"), noRules, false, true)));
+    // long texts are hashed in several parts:
+    final char[] longText = new char[10_000];
+    Arrays.fill(longText, 'x');
+    final ResponseCache.Key longKey = ResponseCache.getKey(new String(longText), null, DEFAULT_CONFIG);
+    longText[9_999] = 'y';
+    assertNotEquals(longKey, ResponseCache.getKey(new String(longText), null, DEFAULT_CONFIG));
+  }
+
+  @Test
+  public void testKeysAtBufferBoundary() {
+    // around this length, the buffer is full right before the rule options are added:
+    for (int length = 4070; length < 4090; length++) {
+      final char[] text = new char[length];
+      Arrays.fill(text, 'x');
+      final ResponseCache.Key key = ResponseCache.getKey(new String(text), null, DEFAULT_CONFIG);
+      assertNotEquals(key, ResponseCache.getKey(new String(text), null,
+              new LanguageToolPool.Key(Language.DEMO, null, Collections.<String>emptyList(), Collections.<String>emptyList(), true, false)));
+    }
+  }
+
+  @Test
+  public void testGetAndPut() {
+    final ResponseCache cache = new ResponseCache(10, 0);
+    final ResponseCache.Key key = ResponseCache.getKey("foo", null, DEFAULT_CONFIG);
+    assertNull(cache.get(key));
+    final List<RuleMatch> matches = new ArrayList<>();
+    cache.put(key, matches);
+    assertSame(matches, cache.get(key));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testExpiry() throws InterruptedException {
+    final ResponseCache cache = new ResponseCache(10, 1);
+    final ResponseCache.Key key = ResponseCache.getKey("foo", null, DEFAULT_CONFIG);
+    cache.put(key, new ArrayList<RuleMatch>());
+    Thread.sleep(10);
+    assertNull(cache.get(key));
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getHitCount());
+  }
+
+}
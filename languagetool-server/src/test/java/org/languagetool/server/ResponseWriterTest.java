@@ -0,0 +1,154 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.rules.Category;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.patterns.Element;
+import org.languagetool.rules.patterns.PatternRule;
+import org.languagetool.tools.StringTools;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseWriterTest {
+
+  private static final String TEXT = "A \"short\" text with <markup> & a\nline break, followed by a sentence that is long enough\r\n" +
+          "so the context of a match in the middle gets cut off on both sides. The end.";
+
+  @Test
+  public void testXmlSameAsStringTools() throws Exception {
+    final List<RuleMatch> matches = getMatches();
+    final StringWriter writer = new StringWriter();
+    new XmlResponseWriter(writer).writeMatches(matches, TEXT, Language.DEMO, Language.DEMO);
+    assertEquals(StringTools.ruleMatchesToXML(matches, TEXT, ResponseWriter.CONTEXT_SIZE,
+            StringTools.XmlPrintMode.NORMAL_XML, Language.DEMO, Language.DEMO), writer.toString());
+  }
+
+  @Test
+  public void testXmlSameAsStringToolsForRealMatches() throws Exception {
+    final JLanguageTool lt = new JLanguageTool(Language.DEMO);
+    lt.activateDefaultPatternRules();
+    final String text = "This is a a test.\nAnd here is is another one, with \"quotes\" & more text to get a long enough context.";
+    final List<RuleMatch> matches = lt.check(text);
+    assertFalse(matches.isEmpty());
+    final StringWriter writer = new StringWriter();
+    new XmlResponseWriter(writer).writeMatches(matches, text, Language.DEMO, null);
+    assertEquals(StringTools.ruleMatchesToXML(matches, text, ResponseWriter.CONTEXT_SIZE,
+            StringTools.XmlPrintMode.NORMAL_XML, Language.DEMO, null), writer.toString());
+  }
+
+  @Test
+  public void testXmlBatch() throws Exception {
+    final List<RuleMatch> matches = getMatches();
+    final StringWriter writer = new StringWriter();
+    final ResponseWriter responseWriter = new XmlResponseWriter(writer);
+    responseWriter.startBatch();
+    responseWriter.writeBatchItem(0, Collections.<RuleMatch>emptyList(), "foo", Language.DEMO, null);
+    responseWriter.writeBatchItem(1, matches, TEXT, Language.DEMO, null);
+    responseWriter.endBatch();
+    final String xml = writer.toString();
+    assertTrue(xml.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<batch software=\"LanguageTool\""));
+    assertTrue(xml.contains("<matches index=\"0\">\n<language shortname=\"xx-XX\" name=\"Testlanguage\"/>\n</matches>\n"));
+    assertTrue(xml.contains("<matches index=\"1\">\n" + StringTools.ruleMatchesToXML(matches, TEXT, ResponseWriter.CONTEXT_SIZE,
+            StringTools.XmlPrintMode.CONTINUE_XML, Language.DEMO, null) + "</matches>\n"));
+    assertTrue(xml.endsWith("</matches>\n</batch>\n"));
+  }
+
+  @Test
+  public void testJson() throws Exception {
+    final StringWriter writer = new StringWriter();
+    new JsonResponseWriter(writer).writeMatches(getMatches().subList(0, 1), TEXT, Language.DEMO, null);
+    assertEquals("{\"software\":{\"name\":\"LanguageTool\",\"version\":\"" + JLanguageTool.VERSION + "\",\"buildDate\":" +
+            (JLanguageTool.BUILD_DATE == null ? "null" : "\"" + JLanguageTool.BUILD_DATE + "\"") + "}," +
+            "\"language\":{\"code\":\"xx-XX\",\"name\":\"Testlanguage\"}," +
+            "\"matches\":[{\"ruleId\":\"TEST_RULE\",\"subId\":\"2\",\"message\":\"Did you mean 'text'? \\\"quoted\\\"\"," +
+            "\"replacements\":[\"text\",\"a\\\\b\"],\"offset\":10,\"length\":4,\"fromY\":0,\"fromX\":10,\"toY\":0,\"toX\":14," +
+            "\"context\":{\"text\":\"A \\\"short\\\" text with <markup> & a line break, followed ...\",\"offset\":10,\"length\":4}," +
+            "\"url\":\"http://example.com/rule\",\"category\":\"Test category\",\"locQualityIssueType\":\"grammar\"}]}\n",
+            writer.toString());
+  }
+
+  @Test
+  public void testJsonBatch() throws Exception {
+    final StringWriter writer = new StringWriter();
+    final ResponseWriter responseWriter = new JsonResponseWriter(writer);
+    responseWriter.startBatch();
+    responseWriter.writeBatchItem(0, Collections.<RuleMatch>emptyList(), "foo", Language.DEMO, null);
+    responseWriter.writeBatchItem(1, Collections.<RuleMatch>emptyList(), "bar", Language.DEMO, Language.DEMO);
+    responseWriter.endBatch();
+    final String json = writer.toString();
+    assertTrue(json.endsWith(",\"results\":[{\"index\":0,\"language\":{\"code\":\"xx-XX\",\"name\":\"Testlanguage\"},\"matches\":[]}," +
+            "{\"index\":1,\"language\":{\"code\":\"xx-XX\",\"name\":\"Testlanguage\"}," +
+            "\"motherTongue\":{\"code\":\"xx-XX\",\"name\":\"Testlanguage\"},\"matches\":[]}]}\n"));
+  }
+
+  @Test
+  public void testAcceptsGzip() {
+    assertFalse(LanguageToolHttpHandler.acceptsGzip(null));
+    assertFalse(LanguageToolHttpHandler.acceptsGzip("deflate"));
+    assertTrue(LanguageToolHttpHandler.acceptsGzip("gzip"));
+    assertTrue(LanguageToolHttpHandler.acceptsGzip("deflate, GZIP;q=0.5"));
+    assertFalse(LanguageToolHttpHandler.acceptsGzip("gzip;q=0"));
+    assertFalse(LanguageToolHttpHandler.acceptsGzip("gzip; q=0.0, deflate"));
+  }
+
+  private List<RuleMatch> getMatches() throws IOException {
+    final PatternRule rule = new PatternRule("TEST_RULE", Language.DEMO, Collections.<Element>emptyList(),
+            "test rule", "message", "short message");
+    rule.setSubId("2");
+    rule.setCategory(new Category("Test category"));
+    rule.setUrl(new URL("http://example.com/rule"));
+    rule.setLocQualityIssueType("grammar");
+    final List<RuleMatch> matches = new ArrayList<>();
+    // at the start of the text:
+    final RuleMatch match1 = new RuleMatch(rule, 10, 14, "Did you mean <suggestion>text</suggestion>? \"quoted\"");
+    match1.setSuggestedReplacements(Arrays.asList("text", "a\\b"));
+    match1.setLine(0);
+    match1.setEndLine(0);
+    match1.setColumn(11);
+    match1.setEndColumn(15);
+    matches.add(match1);
+    // covering a line break:
+    final int lineBreakPos = TEXT.indexOf('\n');
+    matches.add(new RuleMatch(rule, lineBreakPos - 1, lineBreakPos + 3, "<suggestion>x</suggestion> & <b>"));
+    // exactly one context size from the start:
+    matches.add(new RuleMatch(rule, ResponseWriter.CONTEXT_SIZE, ResponseWriter.CONTEXT_SIZE + 2, "Message"));
+    // in the middle of the text:
+    final int middle = TEXT.indexOf("context");
+    matches.add(new RuleMatch(rule, middle, middle + 7, "Message"));
+    // at the end of the text:
+    matches.add(new RuleMatch(rule, TEXT.length() - 4, TEXT.length(), "End"));
+    matches.add(new RuleMatch(rule, TEXT.length() - ResponseWriter.CONTEXT_SIZE - 5, TEXT.length() - ResponseWriter.CONTEXT_SIZE, "Almost at the end"));
+    return matches;
+  }
+
+}
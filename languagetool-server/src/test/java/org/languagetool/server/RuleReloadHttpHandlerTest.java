@@ -0,0 +1,149 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+import static org.languagetool.server.HTTPServerConfig.DEFAULT_PORT;
+
+public class RuleReloadHttpHandlerTest {
+
+  private static final String NEW_RULE = "<category name=\"Reload\">\n" +
+      "  <rule id=\"RELOADED_RULE\" name=\"reloaded rule\">\n" +
+      "    <pattern><token>reloadtest</token></pattern>\n" +
+      "    <message>Reloaded</message>\n" +
+      "    <example type=\"incorrect\"><marker>reloadtest</marker></example>\n" +
+      "    <example type=\"correct\">test</example>\n" +
+      "  </rule>\n" +
+      "</category>\n" +
+      "</rules>";
+
+  @Test
+  public void testOnlyPostIsAllowed() throws Exception {
+    final HTTPServer server = new HTTPServer(new HTTPServerConfig(DEFAULT_PORT, false));
+    try {
+      server.run();
+      final HttpURLConnection connection = (HttpURLConnection) getReloadUrl().openConnection();
+      assertEquals(HttpURLConnection.HTTP_BAD_METHOD, connection.getResponseCode());
+      assertEquals("POST", connection.getHeaderField("Allow"));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testAccessDenied() throws Exception {
+    final HTTPServer server = new HTTPServer(new HTTPServerConfig(DEFAULT_PORT, false), false, new HashSet<String>());
+    try {
+      server.run();
+      assertEquals(HttpURLConnection.HTTP_FORBIDDEN, postReload(Language.DEMO));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testReload() throws Exception {
+    final String oldRulesDir = JLanguageTool.getDataBroker().getRulesDir();
+    final File rulesDir = Files.createTempDirectory("lt-reload").toFile();
+    final File grammarFile = new File(rulesDir, Language.DEMO.getShortName() + "/" + JLanguageTool.PATTERN_FILE);
+    final File falseFriendFile = new File(rulesDir, JLanguageTool.FALSE_FRIEND_FILE);
+    final String grammar = readResource(oldRulesDir + "/" + Language.DEMO.getShortName() + "/" + JLanguageTool.PATTERN_FILE);
+    assertTrue(grammarFile.getParentFile().mkdir());
+    write(grammarFile, grammar);
+    write(falseFriendFile, readResource(oldRulesDir + "/" + JLanguageTool.FALSE_FRIEND_FILE));
+    final HTTPServer server = new HTTPServer(new HTTPServerConfig(DEFAULT_PORT, false));
+    try {
+      JLanguageTool.getDataBroker().setRulesDir(rulesDir.getAbsolutePath());
+      server.run();
+      assertFalse(check("reloadtest").contains("RELOADED_RULE"));
+      write(grammarFile, grammar.replace("</rules>", NEW_RULE));
+      assertEquals(HttpURLConnection.HTTP_ACCEPTED, postReload(Language.DEMO));
+      // the rules are reloaded in the background:
+      final long endTime = System.currentTimeMillis() + 10_000;
+      while (!check("reloadtest").contains("RELOADED_RULE")) {
+        assertTrue("Rules have not been reloaded", System.currentTimeMillis() < endTime);
+        Thread.sleep(50);
+      }
+      // a broken file doesn't replace the current rules:
+      write(grammarFile, grammar.replace("</rules>", ""));
+      try {
+        server.httpHandler.reloadRules(Language.DEMO);
+        fail("broken rule file was not detected");
+      } catch (Exception expected) {
+        assertTrue(check("reloadtest").contains("RELOADED_RULE"));
+      }
+    } finally {
+      server.stop();
+      JLanguageTool.getDataBroker().setRulesDir(oldRulesDir);
+      assertTrue(grammarFile.delete());
+      assertTrue(grammarFile.getParentFile().delete());
+      assertTrue(falseFriendFile.delete());
+      assertTrue(rulesDir.delete());
+    }
+  }
+
+  private URL getReloadUrl() throws IOException {
+    return new URL("http://localhost:" + DEFAULT_PORT + Server.RELOAD_PATH);
+  }
+
+  private int postReload(Language language) throws IOException {
+    final HttpURLConnection connection = (HttpURLConnection) getReloadUrl().openConnection();
+    connection.setDoOutput(true);
+    try (OutputStreamWriter writer = new OutputStreamWriter(connection.getOutputStream(), "UTF-8")) {
+      writer.write("language=" + language.getShortName());
+    }
+    return connection.getResponseCode();
+  }
+
+  private String check(String text) throws IOException {
+    final URL url = new URL("http://localhost:" + DEFAULT_PORT + "/?language=" + Language.DEMO.getShortName()
+        + "&text=" + URLEncoder.encode(text, "UTF-8"));
+    return HTTPTools.checkAtUrl(url);
+  }
+
+  private String readResource(String path) throws IOException {
+    try (InputStream stream = JLanguageTool.class.getResourceAsStream(path)) {
+      return StringTools.streamToString(stream, "UTF-8");
+    }
+  }
+
+  private void write(File file, String content) throws IOException {
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(content.getBytes("UTF-8"));
+    }
+  }
+
+}
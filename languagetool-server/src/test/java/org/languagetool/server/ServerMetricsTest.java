@@ -0,0 +1,94 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.synthesis.BaseSynthesizer;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ServerMetricsTest {
+
+  @Test
+  public void testMetrics() {
+    final ServerMetrics metrics = new ServerMetrics();
+    metrics.requestStarted();
+    metrics.requestStarted();
+    assertEquals(2, metrics.getInFlightRequests());
+    metrics.checkDone(Language.DEMO, 100, 5, 1_000_000, 2_000_000);
+    metrics.checkDone(Language.DEMO, 100, 20, 1_000_000, 2_000_000);
+    metrics.checkDone(Language.DEMO, 100, 100_000, 1_000_000, 2_000_000);
+    metrics.requestFinished();
+    metrics.requestRejected();
+    assertEquals(1, metrics.getInFlightRequests());
+    assertEquals(2, metrics.getTotalRequests());
+    assertEquals(1, metrics.getRejectedRequests());
+    assertEquals(1, metrics.getLatencyCount(Language.DEMO, 0));
+    assertEquals(1, metrics.getLatencyCount(Language.DEMO, 1));
+    assertEquals(1, metrics.getLatencyCount(Language.DEMO, ServerMetrics.LATENCY_BUCKETS_MILLIS.length));
+    final String xml = metrics.toXML();
+    assertTrue(xml, xml.contains("<requests total=\"2\" inFlight=\"1\" queued=\"0\" rejected=\"1\" failed=\"0\"/>"));
+    assertTrue(xml, xml.contains("<language code=\"xx-XX\" requests=\"3\" chars=\"300\""));
+    assertTrue(xml, xml.contains("analysisMillis=\"3\" matchingMillis=\"6\""));
+  }
+
+  @Test
+  public void testCachedChecks() {
+    final ServerMetrics metrics = new ServerMetrics();
+    metrics.checkDone(Language.DEMO, 100, 20, 1_000_000, 2_000_000);
+    metrics.cachedCheckDone(Language.DEMO, 100, 1);
+    assertEquals(1, metrics.getLatencyCount(Language.DEMO, 0));
+    assertEquals(1, metrics.getLatencyCount(Language.DEMO, 1));
+    final String xml = metrics.toXML();
+    assertTrue(xml, xml.contains("<language code=\"xx-XX\" requests=\"2\" chars=\"200\""));
+    assertTrue(xml, xml.contains("analysisMillis=\"1\" matchingMillis=\"2\" cachedRequests=\"1\""));
+  }
+
+  @Test
+  public void testCacheStatistics() {
+    final ServerMetrics metrics = new ServerMetrics();
+    metrics.addCache("test", new ServerMetrics.CacheStatistics() {
+      @Override public long getHitCount() { return 3; }
+      @Override public long getMissCount() { return 1; }
+    });
+    final String xml = metrics.toXML();
+    assertTrue(xml, xml.contains("<cache name=\"test\" hits=\"3\" misses=\"1\" hitRate=\"0.75\"/>"));
+  }
+
+  @Test
+  public void testSynthesizerCache() {
+    final ServerMetrics metrics = new ServerMetrics();
+    final BaseSynthesizer synthesizer = new BaseSynthesizer("/zz/zz_synth.dict", "/zz/zz_tags.txt");
+    metrics.addCache("synthesizer", synthesizer);
+    synthesizer.getCache().get("lemma|tag");
+    assertTrue(metrics.toXML().contains("<cache name=\"synthesizer\" hits=\"0\" misses=\"1\""));
+    // a new cache replaces the old one:
+    synthesizer.setCacheSize(10);
+    synthesizer.getCache().put("lemma|tag", Collections.singletonList("form"));
+    synthesizer.getCache().get("lemma|tag");
+    assertTrue(metrics.toXML().contains("<cache name=\"synthesizer\" hits=\"1\" misses=\"0\""));
+    synthesizer.setCacheSize(0);
+    assertTrue(metrics.toXML().contains("<cache name=\"synthesizer\" hits=\"0\" misses=\"0\""));
+  }
+
+}
@@ -154,6 +154,14 @@ class DictionaryBuilder {
     }
   }
   
+  /**
+   * The frequency (0-255) of the word as read by {@link #readFreqList(File)}, or 0 if the word is unknown.
+   */
+  protected int getFrequency(String word) {
+    final Integer freq = freqList.get(word);
+    return freq != null ? freq : 0;
+  }
+
   protected File addFreqData(File dictFile) throws Exception {
     if (!isOptionTrue("fsa.dict.frequency-included")) {
       throw new IOException("In order to use frequency data add the line 'fsa.dict.frequency-included=true' to the dictionary info file.");
@@ -28,7 +28,7 @@ import java.util.Scanner;
 /**
  * Create a Morfologik spelling binary dictionary from plain text data.
  */
-final class SpellDictionaryBuilder extends DictionaryBuilder {
+class SpellDictionaryBuilder extends DictionaryBuilder {
 
   public SpellDictionaryBuilder(File infoFile) throws IOException {
     super(infoFile);
@@ -78,7 +78,7 @@ final class SpellDictionaryBuilder extends DictionaryBuilder {
     }
   }
 
-  private File tokenizeInput(File plainTextDictFile, Language language) throws IOException {
+  protected File tokenizeInput(File plainTextDictFile, Language language) throws IOException {
     Tokenizer wordTokenizer = language.getWordTokenizer();
     String encoding = getOption("fsa.dict.encoding");
     File tempFile = File.createTempFile(SpellDictionaryBuilder.class.getSimpleName(), ".txt");
@@ -0,0 +1,87 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2014 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev;
+
+import org.languagetool.Language;
+import org.languagetool.rules.spelling.morfologik.SymmetricDeleteIndex;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+
+/**
+ * Create a {@link SymmetricDeleteIndex} for a Morfologik spelling dictionary from the
+ * same plain text data that {@link SpellDictionaryBuilder} uses. Copy the resulting file
+ * next to the {@code .dict} file, using the same name but the suffix {@link SymmetricDeleteIndex#FILE_SUFFIX}.
+ * @since 2.5
+ */
+final class SymmetricDeleteIndexBuilder extends SpellDictionaryBuilder {
+
+  private static final int DEFAULT_MAX_DISTANCE = 2;
+
+  public SymmetricDeleteIndexBuilder(File infoFile) throws IOException {
+    super(infoFile);
+  }
+
+  public static void main(String[] args) throws Exception {
+    checkUsageOrExit(SymmetricDeleteIndexBuilder.class.getSimpleName(), args);
+    String languageCode = args[0];
+    String plainTextFile = args[1];
+    String infoFile = args[2];
+    SymmetricDeleteIndexBuilder builder = new SymmetricDeleteIndexBuilder(new File(infoFile));
+    if (args.length == 4) {
+      builder.readFreqList(new File(args[3]));
+    }
+    builder.buildIndex(languageCode, new File(plainTextFile), DEFAULT_MAX_DISTANCE);
+  }
+
+  File buildIndex(String languageCode, File plainTextDictFile, int maxDistance) throws IOException {
+    Language language = Language.getLanguageForShortName(languageCode);
+    File tempFile = null;
+    try {
+      tempFile = tokenizeInput(plainTextDictFile, language);
+      Set<String> uniqueWords = new LinkedHashSet<>();
+      try (Scanner scanner = new Scanner(tempFile, getOption("fsa.dict.encoding"))) {
+        while (scanner.hasNextLine()) {
+          uniqueWords.add(scanner.nextLine());
+        }
+      }
+      List<String> words = new ArrayList<>(uniqueWords);
+      byte[] frequencies = new byte[words.size()];
+      for (int i = 0; i < words.size(); i++) {
+        frequencies[i] = (byte) getFrequency(words.get(i));
+      }
+      File resultFile = File.createTempFile(SymmetricDeleteIndexBuilder.class.getSimpleName(), SymmetricDeleteIndex.FILE_SUFFIX);
+      System.out.println("Building symmetric delete index for " + words.size() + " words, maximum distance " + maxDistance);
+      try (OutputStream out = new FileOutputStream(resultFile)) {
+        SymmetricDeleteIndex.write(words, frequencies, maxDistance, out);
+      }
+      System.out.println("Done. The index has been written to " + resultFile.getAbsolutePath());
+      return resultFile;
+    } finally {
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+    }
+  }
+
+}
@@ -80,14 +80,13 @@ import javax.swing.text.Position;
 import javax.swing.text.View;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.tika.language.LanguageIdentifier;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.MultiThreadedJLanguageTool;
 import org.languagetool.rules.IncorrectExample;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
-import org.languagetool.tools.LanguageIdentifierTools;
+import org.languagetool.tools.LanguageDetector;
 
 /**
  * Support for associating a LanguageTool instance and a JTextComponent
@@ -241,7 +240,6 @@ class LanguageToolSupport {
   }
 
   private void init() {
-    LanguageIdentifierTools.addLtProfiles();
     try {
       config = new Configuration(new File(System.getProperty("user.home")), CONFIG_FILE, null);
     } catch (IOException ex) {
@@ -639,11 +637,8 @@ class LanguageToolSupport {
   }
 
   Language autoDetectLanguage(String text) {
-    final LanguageIdentifier langIdentifier = new LanguageIdentifier(text);
-    Language lang;
-    try {
-      lang = Language.getLanguageForShortName(langIdentifier.getLanguage());
-    } catch (IllegalArgumentException e) {
+    Language lang = LanguageDetector.getInstance().detectLanguage(text);
+    if (lang == null) {
       lang = Language.getLanguageForLocale(Locale.getDefault());
     }
     if (lang.hasVariant()) {
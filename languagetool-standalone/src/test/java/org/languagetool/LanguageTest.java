@@ -21,14 +21,17 @@ package org.languagetool;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Collections;
 import java.util.Locale;
 
 import org.junit.Test;
 import org.languagetool.language.AmericanEnglish;
 import org.languagetool.language.BritishEnglish;
+import org.languagetool.language.Demo;
 import org.languagetool.language.English;
 import org.languagetool.language.German;
 import org.languagetool.language.GermanyGerman;
@@ -83,6 +86,35 @@ public class LanguageTest {
     } catch (IllegalArgumentException expected) {}
   }
 
+  @Test
+  public void testGetLanguageForShortNameAfterReInit() {
+    final Language external = new Demo() {
+      @Override
+      public String getName() {
+        return "External Testlanguage";
+      }
+      @Override
+      public String getShortName() {
+        return "zz";
+      }
+      @Override
+      public String[] getCountries() {
+        return new String[] {"ZZ"};
+      }
+    };
+    assertFalse(Language.isLanguageSupported("zz"));
+    Language.reInit(Collections.singletonList(external));
+    try {
+      assertSame(external, Language.getLanguageForShortName("zz"));
+      assertSame(external, Language.getLanguageForShortName("ZZ-zz"));
+      assertSame(external, Language.getLanguageForName("External Testlanguage"));
+      assertEquals("en-US", Language.getLanguageForShortName("en-US").getShortNameWithCountryAndVariant());
+    } finally {
+      Language.reInit(Collections.<Language>emptyList());
+    }
+    assertFalse(Language.isLanguageSupported("zz"));
+  }
+
   @Test
   public void testIsLanguageSupported() {
     assertTrue(Language.isLanguageSupported("xx"));